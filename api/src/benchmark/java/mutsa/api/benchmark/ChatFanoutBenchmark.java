@@ -0,0 +1,336 @@
+package mutsa.api.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import mutsa.api.ApiApplication;
+import mutsa.api.config.TestRedisConfiguration;
+import mutsa.api.config.jwt.JwtConfig;
+import mutsa.api.config.socket.StompBrokerConfig;
+import mutsa.api.config.thread.VirtualThreadConfig;
+import mutsa.common.domain.models.chatroom.Chatroom;
+import mutsa.common.domain.models.user.User;
+import mutsa.common.repository.chatroom.ChatroomRepository;
+import mutsa.common.repository.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 내장 레디스로 api 서버를 띄우고, 여러 방에 STOMP 클라이언트를 접속시켜
+ * /pub/chat/message(ChatController.message) 발행부터 /sub/chat/room/{roomApiId} 수신까지의 지연시간과 처리량을 측정한다.
+ * <p>
+ * ./gradlew :api:chatBenchmark 로 실행하며, 아래 시스템 프로퍼티로 조정한다.
+ * <ul>
+ *     <li>bench.clients(2000) : 전체 STOMP 클라이언트 수, 방마다 clients / rooms 명이 구독한다</li>
+ *     <li>bench.rooms(200) : 채팅방 수, 방마다 한 명이 발행한다</li>
+ *     <li>bench.rate-per-room(2) : 방마다 초당 발행하는 메세지 수
+ *     (chat.rate-limit.user.per-second 보다 크게 하려면 -Dchat.rate-limit.enabled=false 로 실행한다)</li>
+ *     <li>bench.warmup-seconds(5), bench.duration-seconds(30) : 워밍업 구간은 결과에서 제외한다</li>
+ * </ul>
+ * -Dchat.broker.mode=relay 로 실행하면 외부 STOMP 브로커(chat.broker.relay.*)를 사용하는 구성을 같은 조건으로 비교할 수 있다.
+ * <p>
+ * -Dchat.virtual-threads.enabled=true 로 실행하면(Java 21) 가상 스레드 구성을 같은 조건으로 비교할 수 있다.
+ * 측정 구간의 최대 플랫폼 스레드 수와 스레드 이름별 개수를 함께 출력하고,
+ * bench.thread-dump 에 파일 경로를 주면 측정 종료 시점의 스레드 덤프를 저장한다.
+ */
+@SpringBootTest(
+        classes = {ApiApplication.class, TestRedisConfiguration.class},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT
+)
+@ActiveProfiles("test")
+@Slf4j
+class ChatFanoutBenchmark {
+    private static final String PAYLOAD_PREFIX = "bench:";
+
+    private final int clients = Integer.getInteger("bench.clients", 2000);
+    private final int rooms = Integer.getInteger("bench.rooms", 200);
+    private final int ratePerRoom = Integer.getInteger("bench.rate-per-room", 2);
+    private final int warmupSeconds = Integer.getInteger("bench.warmup-seconds", 5);
+    private final int durationSeconds = Integer.getInteger("bench.duration-seconds", 30);
+    private final String threadDumpPath = System.getProperty("bench.thread-dump");
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ChatroomRepository chatroomRepository;
+    @Autowired
+    private JwtConfig jwtConfig;
+    @Autowired
+    private StompBrokerConfig stompBrokerConfig;
+    @Autowired
+    private VirtualThreadConfig virtualThreadConfig;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    private final List<StompSession> sessions = new ArrayList<>();
+    private final LatencyRecorder latencyRecorder = new LatencyRecorder();
+    private final AtomicLong delivered = new AtomicLong();
+    private volatile long measureStartNanos = Long.MAX_VALUE;
+    private volatile long measureEndNanos = Long.MAX_VALUE;
+
+    @AfterEach
+    public void tearDown() {
+        sessions.forEach(session -> {
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        });
+        redisTemplate.getConnectionFactory().getConnection().flushDb();
+    }
+
+    @Test
+    @DisplayName("채팅 fan-out 지연시간/처리량 측정")
+    void fanout() throws Exception {
+        int clientsPerRoom = Math.max(1, clients / rooms);
+        List<Chatroom> chatrooms = createChatrooms();
+        List<User> users = createUsers(rooms * clientsPerRoom);
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        CountDownLatch subscribed = new CountDownLatch(users.size());
+        List<StompSession> publishers = new ArrayList<>();
+
+        long connectStart = System.nanoTime();
+        for (int i = 0; i < users.size(); i++) {
+            String roomApiId = chatrooms.get(i / clientsPerRoom).getApiId();
+            StompSession session = connect(stompClient, users.get(i)).get(30, TimeUnit.SECONDS);
+            session.subscribe("/sub/chat/room/" + roomApiId, new BenchmarkFrameHandler(subscribed));
+            sessions.add(session);
+            if (i % clientsPerRoom == 0) {
+                publishers.add(session);
+            }
+        }
+        assertThat(subscribed.await(60, TimeUnit.SECONDS)).isTrue();
+        log.info("chatFanoutBenchmark: {} clients subscribed to {} rooms in {} ms",
+                sessions.size(), rooms, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart));
+
+        AtomicLong published = new AtomicLong();
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
+        List<ScheduledFuture<?>> tasks = new ArrayList<>();
+        long periodMicros = TimeUnit.SECONDS.toMicros(1) / ratePerRoom;
+        for (int i = 0; i < publishers.size(); i++) {
+            StompSession publisher = publishers.get(i);
+            String roomApiId = chatrooms.get(i).getApiId();
+            tasks.add(scheduler.scheduleAtFixedRate(() -> {
+                publisher.send(sendHeaders(), payload(roomApiId));
+                published.incrementAndGet();
+            }, ThreadLocalRandom.current().nextLong(periodMicros), periodMicros, TimeUnit.MICROSECONDS));
+        }
+
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        long publishedBeforeMeasure = published.get();
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        threadMXBean.resetPeakThreadCount();
+        measureStartNanos = System.nanoTime();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        measureEndNanos = System.nanoTime();
+        ThreadInfo[] threads = threadMXBean.dumpAllThreads(false, false);
+        int peakThreads = threadMXBean.getPeakThreadCount();
+        long publishedInMeasure = published.get() - publishedBeforeMeasure;
+
+        tasks.forEach(task -> task.cancel(false));
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+
+        //발행한 메세지가 모든 구독자에게 도착할 때까지 기다린다
+        long expected = published.get() * clientsPerRoom;
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (delivered.get() < expected && System.nanoTime() < drainDeadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+
+        report(clientsPerRoom, publishedInMeasure, expected);
+        reportThreads(threads, peakThreads);
+        assertThat(delivered.get()).isEqualTo(expected);
+    }
+
+    private List<Chatroom> createChatrooms() {
+        List<Chatroom> chatrooms = new ArrayList<>(rooms);
+        for (int i = 0; i < rooms; i++) {
+            chatrooms.add(Chatroom.of("bench-article-" + i));
+        }
+        return chatroomRepository.saveAll(chatrooms);
+    }
+
+    private List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(User.of("bench-user-" + i, "password", "bench" + i + "@bench", null, null, "bench" + i));
+        }
+        return userRepository.saveAll(users);
+    }
+
+    private CompletableFuture<StompSession> connect(WebSocketStompClient stompClient, User user) {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + createToken(user.getUsername()));
+        return stompClient.connectAsync("ws://localhost:" + port + "/ws", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() {
+                    @Override
+                    public void handleTransportError(StompSession session, Throwable exception) {
+                        log.warn("chatFanoutBenchmark: transport error on session {}", session.getSessionId(), exception);
+                    }
+                });
+    }
+
+    private String createToken(String username) {
+        return JWT.create()
+                .withSubject(username)
+                .withIssuedAt(Date.from(Instant.now()))
+                .withExpiresAt(Date.from(Instant.now().plusSeconds(3600)))
+                .withClaim("authorities", List.of("ROLE_USER"))
+                .sign(jwtConfig.getEncodedSecretKey());
+    }
+
+    private StompHeaders sendHeaders() {
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination("/pub/chat/message");
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return headers;
+    }
+
+    private byte[] payload(String roomApiId) {
+        //같은 JVM 에서 수신하므로 발행 시각(nanoTime)을 본문에 담아 지연시간을 계산한다
+        String json = "{\"message\":\"" + PAYLOAD_PREFIX + System.nanoTime()
+                + "\",\"roomApiId\":\"" + roomApiId + "\",\"type\":\"message\"}";
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void report(int clientsPerRoom, long publishedInMeasure, long expected) {
+        LatencyRecorder.Snapshot snapshot = latencyRecorder.snapshot();
+        double seconds = (measureEndNanos - measureStartNanos) / 1_000_000_000.0;
+        log.info("""
+
+                        ===== chat fan-out benchmark ({} broker) =====
+                        clients: {}, rooms: {}, subscribers/room: {}, rate/room: {} msg/s, duration: {} s
+                        published: {} msg/s, delivered: {} msg/s
+                        latency(ms) p50: {}, p90: {}, p99: {}, p99.9: {}, max: {}, mean: {}
+                        delivered total: {} / {} expected""",
+                stompBrokerConfig.getMode(),
+                sessions.size(), rooms, clientsPerRoom, ratePerRoom, durationSeconds,
+                String.format("%.1f", publishedInMeasure / seconds),
+                String.format("%.1f", snapshot.count() / seconds),
+                millis(snapshot.percentile(50)), millis(snapshot.percentile(90)),
+                millis(snapshot.percentile(99)), millis(snapshot.percentile(99.9)),
+                millis(snapshot.max()), String.format("%.3f", snapshot.mean() / 1000.0),
+                delivered.get(), expected);
+    }
+
+    /**
+     * ThreadMXBean 은 플랫폼 스레드만 보여주므로, 가상 스레드 구성에서는 블로킹 작업이 풀 스레드를 점유하지 않아 수가 줄어든다.
+     */
+    private void reportThreads(ThreadInfo[] threads, int peakThreads) throws IOException {
+        //스레드 이름의 끝 번호를 지워 풀 단위로 센다
+        Map<String, Integer> pools = new TreeMap<>();
+        for (ThreadInfo thread : threads) {
+            pools.merge(thread.getThreadName().replaceAll("[-#]?\\d+$", ""), 1, Integer::sum);
+        }
+        StringBuilder summary = new StringBuilder();
+        pools.forEach((pool, count) -> summary.append(String.format("%n  %-50s %d", pool, count)));
+        log.info("""
+
+                        ===== threads (java {}, virtual threads: {}) =====
+                        platform threads at end: {}, peak during measure: {}{}""",
+                Runtime.version().feature(), virtualThreadConfig.isEnabled(),
+                threads.length, peakThreads, summary);
+
+        if (threadDumpPath != null) {
+            StringBuilder dump = new StringBuilder();
+            for (ThreadInfo thread : threads) {
+                dump.append('"').append(thread.getThreadName()).append("\" ").append(thread.getThreadState()).append('\n');
+                for (StackTraceElement element : thread.getStackTrace()) {
+                    dump.append("\tat ").append(element).append('\n');
+                }
+                dump.append('\n');
+            }
+            Files.writeString(Path.of(threadDumpPath), dump);
+            log.info("chatFanoutBenchmark: thread dump written to {}", threadDumpPath);
+        }
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.3f", micros / 1000.0);
+    }
+
+    private class BenchmarkFrameHandler implements StompFrameHandler {
+        private final CountDownLatch subscribed;
+
+        private BenchmarkFrameHandler(CountDownLatch subscribed) {
+            this.subscribed = subscribed;
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long receivedNanos = System.nanoTime();
+            JsonNode node;
+            try {
+                node = objectMapper.readTree((byte[]) payload);
+            } catch (IOException e) {
+                log.warn("chatFanoutBenchmark: unreadable frame", e);
+                return;
+            }
+            //구독 직후 @SubscribeMapping 으로 받는 최신 메세지 목록
+            if (node.isArray()) {
+                subscribed.countDown();
+                return;
+            }
+
+            String message = node.path("message").asText();
+            if (!message.startsWith(PAYLOAD_PREFIX)) {
+                return;
+            }
+            delivered.incrementAndGet();
+            long sentNanos = Long.parseLong(message.substring(PAYLOAD_PREFIX.length()));
+            if (sentNanos >= measureStartNanos && sentNanos < measureEndNanos) {
+                latencyRecorder.record(TimeUnit.NANOSECONDS.toMicros(receivedNanos - sentNanos));
+            }
+        }
+    }
+}
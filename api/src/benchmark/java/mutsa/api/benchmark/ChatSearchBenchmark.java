@@ -0,0 +1,148 @@
+package mutsa.api.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import mutsa.api.ApiApplication;
+import mutsa.api.config.TestRedisConfiguration;
+import mutsa.api.dto.chat.ChatHistoryResponseDto;
+import mutsa.api.dto.chat.ChatroomRequestDto;
+import mutsa.api.service.chat.ChatSearchService;
+import mutsa.api.service.chatroom.ChatroomService;
+import mutsa.common.domain.models.article.Article;
+import mutsa.common.domain.models.chat.ChatRedis;
+import mutsa.common.domain.models.user.User;
+import mutsa.common.repository.article.ArticleRepository;
+import mutsa.common.repository.redis.chat.ChatRedisRepository;
+import mutsa.common.repository.redis.chat.ChatSearchRedisRepository;
+import mutsa.common.repository.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 방 크기(채팅 수)별로 채팅 검색(ChatSearchService.search)의 지연시간을 측정한다.
+ * <p>
+ * ./gradlew :api:chatBenchmark --tests '*ChatSearchBenchmark' 로 실행하며, 아래 시스템 프로퍼티로 조정한다.
+ * <ul>
+ *     <li>bench.search.room-sizes(1000,10000,100000) : 측정할 방 크기</li>
+ *     <li>bench.search.hit-percent(1) : 검색어가 포함된 채팅의 비율(%)</li>
+ *     <li>bench.search.queries(200) : 방 크기마다 검색 횟수(첫 페이지와 다음 페이지를 번갈아 조회한다)</li>
+ *     <li>bench.search.page-size(20)</li>
+ * </ul>
+ */
+@SpringBootTest(classes = {ApiApplication.class, TestRedisConfiguration.class})
+@ActiveProfiles("test")
+@Slf4j
+class ChatSearchBenchmark {
+    private static final String KEYWORD = "검색키워드";
+    private static final String[] WORDS = {"안녕하세요", "거래", "가능한가요", "오늘", "내일", "저녁", "네고", "택배", "직거래", "감사합니다"};
+
+    private final int[] roomSizes = Arrays.stream(System.getProperty("bench.search.room-sizes", "1000,10000,100000").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+    private final int hitPercent = Integer.getInteger("bench.search.hit-percent", 1);
+    private final int queries = Integer.getInteger("bench.search.queries", 200);
+    private final int pageSize = Integer.getInteger("bench.search.page-size", 20);
+
+    @Autowired
+    private ChatSearchService chatSearchService;
+    @Autowired
+    private ChatroomService chatroomService;
+    @Autowired
+    private ChatRedisRepository chatRedisRepository;
+    @Autowired
+    private ChatSearchRedisRepository chatSearchRedisRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ArticleRepository articleRepository;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        redisTemplate.getConnectionFactory().getConnection().flushDb();
+    }
+
+    @Test
+    @DisplayName("방 크기별 채팅 검색 지연시간 측정")
+    void search() {
+        User seller = userRepository.save(User.of("bench-seller", "password", "bench-seller@bench", null, null, "bench-seller"));
+        Article article = articleRepository.save(Article.builder()
+                .title("bench article")
+                .description("bench article")
+                .user(seller)
+                .build());
+
+        StringBuilder report = new StringBuilder();
+        for (int roomSize : roomSizes) {
+            User consumer = userRepository.save(User.of("bench-consumer-" + roomSize, "password",
+                    "bench" + roomSize + "@bench", null, null, "bench-consumer-" + roomSize));
+            String roomApiId = chatroomService.createChatRoom(new ChatroomRequestDto(article.getApiId()), consumer.getUsername())
+                    .getChatroomApiId();
+            long indexMillis = fill(roomApiId, seller.getUsername(), roomSize);
+
+            LatencyRecorder recorder = new LatencyRecorder();
+            Long cursor = null;
+            int results = 0;
+            for (int i = 0; i < queries; i++) {
+                long start = System.nanoTime();
+                ChatHistoryResponseDto page = chatSearchService.search(consumer.getUsername(), KEYWORD, cursor, pageSize);
+                recorder.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                results += page.getMessages().size();
+                cursor = page.isHasNext() && cursor == null ? page.getNextCursor() : null;
+            }
+            assertThat(results).isPositive();
+
+            LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+            report.append(String.format("%n  room size %8d | index %6d ms (%8.0f msg/s) | search p50 %8.3f ms, p90 %8.3f ms, p99 %8.3f ms, max %8.3f ms",
+                    roomSize, indexMillis, roomSize * 1000.0 / Math.max(indexMillis, 1),
+                    snapshot.percentile(50) / 1000.0, snapshot.percentile(90) / 1000.0,
+                    snapshot.percentile(99) / 1000.0, snapshot.max() / 1000.0));
+        }
+        log.info("""
+
+                        ===== chat search benchmark (hit {}%, page size {}, {} queries) ====={}""",
+                hitPercent, pageSize, queries, report);
+    }
+
+    /**
+     * @return 색인에 걸린 시간(ms), 저장 시간은 포함하지 않는다
+     */
+    private long fill(String roomApiId, String username, int roomSize) {
+        Random random = new Random(roomSize);
+        LocalDateTime start = LocalDateTime.now().minusSeconds(roomSize);
+        List<ChatRedis> chats = new ArrayList<>(roomSize);
+        for (int i = 0; i < roomSize; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int w = 0; w < 6; w++) {
+                content.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            if (random.nextInt(100) < hitPercent) {
+                content.append(KEYWORD);
+            }
+            ChatRedis chat = ChatRedis.of(UUID.randomUUID().toString(), roomApiId, username, content.toString(), start.plusSeconds(i));
+            chatRedisRepository.saveMessage(chat);
+            chats.add(chat);
+        }
+
+        long indexStart = System.nanoTime();
+        for (int from = 0; from < chats.size(); from += 500) {
+            chatSearchRedisRepository.index(chats.subList(from, Math.min(from + 500, chats.size())));
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - indexStart);
+    }
+}
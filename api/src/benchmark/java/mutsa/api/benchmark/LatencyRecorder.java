@@ -0,0 +1,60 @@
+package mutsa.api.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * 측정한 지연시간(마이크로초)을 모아 백분위수를 계산한다.
+ */
+public class LatencyRecorder {
+    private long[] values = new long[1 << 16];
+    private int size;
+
+    public synchronized void record(long micros) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = micros;
+    }
+
+    public synchronized int count() {
+        return size;
+    }
+
+    public synchronized Snapshot snapshot() {
+        long[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        return new Snapshot(sorted);
+    }
+
+    public static class Snapshot {
+        private final long[] sorted;
+
+        private Snapshot(long[] sorted) {
+            this.sorted = sorted;
+        }
+
+        /**
+         * @param percentile 0 ~ 100
+         * @return 해당 백분위수의 지연시간(마이크로초), 측정값이 없으면 0
+         */
+        public long percentile(double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+
+        public int count() {
+            return sorted.length;
+        }
+
+        public long max() {
+            return sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+        }
+
+        public double mean() {
+            return sorted.length == 0 ? 0 : Arrays.stream(sorted).average().orElse(0);
+        }
+    }
+}
@@ -4,10 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = {"mutsa.api", "mutsa.common"})
 @EntityScan(basePackages = "mutsa.common")
 @EnableAspectJAutoProxy
+@EnableScheduling
 public class ApiApplication {
 
     public static void main(String[] args) {
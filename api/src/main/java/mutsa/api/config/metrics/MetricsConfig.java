@@ -0,0 +1,23 @@
+package mutsa.api.config.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+    /**
+     * actuator 가 비활성화 되어있어 자동으로 레지스트리가 생성되지 않으므로 직접 등록한다.
+     * (actuator 를 활성화하면 자동 설정된 레지스트리를 사용한다)
+     *
+     * @return
+     */
+    @Bean
+    @ConditionalOnMissingBean(MeterRegistry.class)
+    public PrometheusMeterRegistry prometheusMeterRegistry() {
+        return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    }
+}
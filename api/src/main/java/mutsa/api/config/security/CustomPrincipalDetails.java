@@ -8,6 +8,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -20,6 +21,7 @@ import java.util.stream.Collectors;
 @Slf4j
 @Getter
 public class CustomPrincipalDetails implements UserDetails, OAuth2User, Serializable {
+    private Long id;
     private String apiId;
     private String username;
     private String password;
@@ -93,6 +95,7 @@ public class CustomPrincipalDetails implements UserDetails, OAuth2User, Serializ
     public static CustomPrincipalDetails of(User user, Map<String, Object> attributes) {
         log.info("CustomPrincipalDetails 생성 ");
         return CustomPrincipalDetails.builder()
+                .id(user.getId())
                 .apiId(user.getApiId())
                 .username(user.getUsername())
                 .password(user.getPassword())
@@ -105,4 +108,19 @@ public class CustomPrincipalDetails implements UserDetails, OAuth2User, Serializ
                 .build();
     }
 
+    /**
+     * access token 의 claim 만으로 만든다.(유저를 조회하지 않는다)
+     * 비밀번호는 담지 않는다.
+     */
+    public static CustomPrincipalDetails of(Long id, String apiId, String username, String[] authorities) {
+        return CustomPrincipalDetails.builder()
+                .id(id)
+                .apiId(apiId)
+                .username(username)
+                .authorities(Arrays.stream(authorities)
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toSet())
+                )
+                .build();
+    }
 }
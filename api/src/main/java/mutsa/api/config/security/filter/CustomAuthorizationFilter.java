@@ -10,11 +10,9 @@ import lombok.extern.slf4j.Slf4j;
 import mutsa.api.config.security.CustomPrincipalDetails;
 import mutsa.api.util.JwtTokenProvider;
 import mutsa.api.util.JwtTokenProvider.JWTInfo;
-import mutsa.common.domain.models.user.User;
 import mutsa.common.exception.ErrorResponse;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -22,7 +20,6 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
@@ -57,9 +54,9 @@ public class CustomAuthorizationFilter extends OncePerRequestFilter {
         }
 
 
-        JWTInfo jwtInfo = null;
-        if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-            jwtInfo = jwtTokenProvider.decodeToken(token);
+        //검증과 디코딩을 한번에 한다(검증된 토큰은 JwtTokenCache 에서 가져온다)
+        if (StringUtils.hasText(token)) {
+            JWTInfo jwtInfo = jwtTokenProvider.decodeToken(token);
             SecurityContextHolder.getContext().setAuthentication(getAuthenticationToken(jwtInfo));
         } else {
             log.info("유효한 JWT토큰이 없습니다.");
@@ -68,23 +65,18 @@ public class CustomAuthorizationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * 토큰의 claim 으로 principal 을 만든다.
+     * 유저 id 가 필요한 곳은 SecurityUtil.getCurrentUserId() 로 DB 조회 없이 가져간다.
+     */
     private UsernamePasswordAuthenticationToken getAuthenticationToken(JWTInfo jwtInfo) {
-        return new UsernamePasswordAuthenticationToken(
-                CustomPrincipalDetails.of(
-                        User.of(
-                                jwtInfo.getUsername(),
-                                null,
-                                null,
-                                null,
-                                null,
-                                null
-                        ),
-                        null
-                ),
-                null,
-                Arrays.stream(jwtInfo.getAuthorities())
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList()));
+        CustomPrincipalDetails principal = CustomPrincipalDetails.of(
+                jwtInfo.getUserId(),
+                jwtInfo.getApiId(),
+                jwtInfo.getUsername(),
+                jwtInfo.getAuthorities()
+        );
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
     }
 
     private static void getAccessTokenExpired(HttpServletResponse response, ErrorResponse errorResponse) throws IOException {
@@ -0,0 +1,40 @@
+package mutsa.api.config.socket;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * chat.broker.mode
+ * <ul>
+ *     <li>simple(기본값) : 서버 메모리의 SimpleBroker 를 사용하고, 서버간 전달은 레디스 pub/sub 으로 한다.</li>
+ *     <li>relay : 외부 STOMP 브로커(ActiveMQ 등)로 구독/전달을 위임하므로 레디스 pub/sub 을 사용하지 않는다.</li>
+ * </ul>
+ * relay 모드 테스트는 test, relay 프로필로 내장 Artemis 브로커(TestStompBrokerConfiguration)를 띄워 실행한다.(ChatServiceRelayTest)
+ */
+@Component
+@Getter
+public class StompBrokerConfig {
+    public static final String MODE_PROPERTY = "chat.broker.mode";
+    public static final String SIMPLE = "simple";
+    public static final String RELAY = "relay";
+
+    @Value("${chat.broker.mode:simple}")
+    private String mode;
+
+    @Value("${chat.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${chat.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${chat.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${chat.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    public boolean isRelay() {
+        return RELAY.equalsIgnoreCase(mode);
+    }
+}
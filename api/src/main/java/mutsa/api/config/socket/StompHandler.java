@@ -1,42 +1,130 @@
 package mutsa.api.config.socket;
 
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import mutsa.api.service.chat.ChatRateLimiter;
 import mutsa.api.util.JwtTokenProvider;
+import mutsa.common.exception.BusinessException;
+import mutsa.common.exception.ErrorCode;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
-import java.util.Objects;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * CONNECT 시에만 JWT 서명을 검증하고, 결과(사용자, 만료시간)를 웹소켓 세션에 저장한다.
+ * 이후 프레임(SUBSCRIBE, SEND 등)은 세션에 저장된 만료시간만 확인한다.
+ * 세션의 토큰이 만료된 경우 프레임에 새 Authorization 헤더가 있으면 다시 검증한다.
+ * 이때 토큰의 사용자가 CONNECT 한 사용자와 다르면 ERROR 프레임으로 거절한다.(세션의 Principal 은 바뀌지 않으므로)
+ * /pub/chat/message 로 오는 SEND 는 유저별 전송 횟수 제한(ChatRateLimiter)을 넘으면 ERROR 프레임으로 거절한다.
+ * (본문은 파싱하지 않으며, 채팅방별 제한은 바인딩된 본문으로 ChatController 에서 확인한다)
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class StompHandler implements ChannelInterceptor {
+    public static final String USERNAME = "username";
+    private static final String TOKEN_EXPIRES_AT = "tokenExpiresAt";
+    private static final String AUTHORIZATION = "Authorization";
+    private static final String BEARER = "Bearer ";
+    private static final String CHAT_MESSAGE_DESTINATION = "/pub/chat/message";
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final ChatRateLimiter chatRateLimiter;
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
-        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
-        if (!StompCommand.DISCONNECT.equals(accessor.getCommand())) {
-            String token = Objects.requireNonNull(accessor.getFirstNativeHeader("Authorization"))
-                    .substring(7);
-
-            JwtTokenProvider.JWTInfo jwtInfo = null;
-            if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-                jwtInfo = jwtTokenProvider.decodeToken(token);
-            } else {
-                log.info("[소켓] 유효한 JWT토큰이 없습니다.");
-            }
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            accessor = StompHeaderAccessor.wrap(message);
+        }
+        if (accessor.getCommand() == null || StompCommand.DISCONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
 
-            // WebSocket 세션에 사용자 정보 저장
-            accessor.getSessionAttributes().put("username", jwtInfo.getUsername());
+        Map<String, Object> sessionAttributes = accessor.getSessionAttributes();
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            authenticate(accessor, sessionAttributes);
+            return message;
+        }
+
+        Long expiresAt = (Long) sessionAttributes.get(TOKEN_EXPIRES_AT);
+        if (expiresAt == null) {
+            log.info("[소켓] 인증되지 않은 세션입니다.");
+            throw new BusinessException(ErrorCode.HANDLE_ACCESS_DENIED);
+        }
+        if (expiresAt <= System.currentTimeMillis()) {
+            //토큰을 재발급 받은 클라이언트는 헤더에 새 토큰을 담아 보낼 수 있다
+            if (accessor.getFirstNativeHeader(AUTHORIZATION) == null) {
+                log.info("[소켓] 세션의 JWT토큰이 만료되었습니다.");
+                throw new BusinessException(ErrorCode.ACCESS_TOKEN_EXPIRED);
+            }
+            authenticate(accessor, sessionAttributes);
+        }
+        if (StompCommand.SEND.equals(accessor.getCommand()) && CHAT_MESSAGE_DESTINATION.equals(accessor.getDestination())) {
+            chatRateLimiter.acquireUser((String) sessionAttributes.get(USERNAME));
         }
         return message;
     }
+
+    private void authenticate(StompHeaderAccessor accessor, Map<String, Object> sessionAttributes) {
+        String token = getToken(accessor.getFirstNativeHeader(AUTHORIZATION));
+        if (!StringUtils.hasText(token)) {
+            log.info("[소켓] JWT토큰이 없습니다.");
+            throw new BusinessException(ErrorCode.ACCESS_TOKEN_NOT_FOUND);
+        }
+
+        JwtTokenProvider.JWTInfo jwtInfo;
+        try {
+            jwtInfo = jwtTokenProvider.decodeToken(token);
+        } catch (JWTVerificationException e) {
+            log.info("[소켓] 유효한 JWT토큰이 없습니다.");
+            throw new BusinessException(ErrorCode.ACCESS_TOKEN_EXPIRED);
+        }
+        if (!StompCommand.CONNECT.equals(accessor.getCommand())) {
+            //재인증은 같은 사용자의 토큰으로만 가능하다
+            String connectedUsername = accessor.getUser() != null
+                    ? accessor.getUser().getName() : (String) sessionAttributes.get(USERNAME);
+            if (!jwtInfo.getUsername().equals(connectedUsername)) {
+                log.warn("[소켓] 세션의 사용자와 다른 사용자의 토큰입니다. session: {}", accessor.getSessionId());
+                throw new BusinessException(ErrorCode.ACCESS_TOKEN_USER_MISMATCH);
+            }
+        }
+
+        // WebSocket 세션에 사용자 정보 저장
+        sessionAttributes.put(USERNAME, jwtInfo.getUsername());
+        sessionAttributes.put(TOKEN_EXPIRES_AT, jwtInfo.getExpiresAt() == null
+                ? Long.MAX_VALUE : jwtInfo.getExpiresAt().getTime());
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            //CONNECT 프레임에 설정한 사용자는 세션 전체에 Principal 로 유지된다
+            accessor.setUser(new UsernamePasswordAuthenticationToken(jwtInfo.getUsername(), null, getAuthorities(jwtInfo)));
+        }
+    }
+
+    private List<SimpleGrantedAuthority> getAuthorities(JwtTokenProvider.JWTInfo jwtInfo) {
+        if (jwtInfo.getAuthorities() == null) {
+            return List.of();
+        }
+        return Arrays.stream(jwtInfo.getAuthorities())
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    private String getToken(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith(BEARER)) {
+            return null;
+        }
+        return authorizationHeader.substring(BEARER.length());
+    }
 }
@@ -0,0 +1,123 @@
+package mutsa.api.config.socket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import mutsa.api.config.thread.VirtualThreadConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 클라이언트로 나가는 메세지(client outbound channel)의 한도와 관련 지표
+ * <ul>
+ *     <li>세션마다 send-time-limit 동안 전송이 끝나지 않거나 버퍼가 send-buffer-size-limit 를 넘으면(느린 클라이언트) 세션을 끊는다.</li>
+ *     <li>outbound 채널의 대기열이 outbound-queue-capacity 를 넘으면 이후 채팅(MESSAGE 프레임)은 버린다.
+ *     CONNECTED, RECEIPT 등 세션 제어 프레임은 버리면 클라이언트가 알 수 없이 멈추므로 보낸 스레드에서 바로 전송한다.</li>
+ * </ul>
+ */
+@Component
+@Getter
+@Slf4j
+public class StompTransportConfig {
+    @Value("${chat.websocket.send-time-limit-millis:10000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${chat.websocket.send-buffer-size-limit-bytes:524288}")
+    private int sendBufferSizeLimitBytes;
+
+    @Value("${chat.websocket.outbound-pool-size:8}")
+    private int outboundPoolSize;
+
+    @Value("${chat.websocket.outbound-queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    private final MeterRegistry meterRegistry;
+    private final VirtualThreadConfig virtualThreadConfig;
+    private final Counter droppedCounter;
+    private final Counter callerRunsCounter;
+    private final Counter evictedCounter;
+
+    public StompTransportConfig(MeterRegistry meterRegistry, VirtualThreadConfig virtualThreadConfig) {
+        this.meterRegistry = meterRegistry;
+        this.virtualThreadConfig = virtualThreadConfig;
+        this.droppedCounter = Counter.builder("chat.websocket.outbound.dropped")
+                .description("outbound 대기열이 가득 차 버린 채팅 메세지 수")
+                .register(meterRegistry);
+        this.callerRunsCounter = Counter.builder("chat.websocket.outbound.caller-runs")
+                .description("outbound 대기열이 가득 차 보낸 스레드에서 전송한 제어 프레임 수")
+                .register(meterRegistry);
+        this.evictedCounter = Counter.builder("chat.websocket.evicted")
+                .description("느린 클라이언트로 판단되어 끊은 세션 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 가상 스레드를 사용하면 대기열 대신 동시 전송 수(outbound-pool-size + outbound-queue-capacity)를 제한한다.
+     *
+     * @return 대기열 크기가 제한되고, 가득 차면 채팅은 버리고 제어 프레임은 보낸 스레드에서 전송하는 outbound 채널 executor
+     */
+    public ThreadPoolTaskExecutor createOutboundExecutor() {
+        ThreadPoolTaskExecutor virtualExecutor =
+                virtualThreadConfig.createOutboundExecutor(outboundPoolSize + outboundQueueCapacity, this::overflow);
+        if (virtualExecutor != null) {
+            Gauge.builder("chat.websocket.outbound.queue", virtualExecutor, ThreadPoolTaskExecutor::getActiveCount)
+                    .description("outbound 채널에서 전송중인 메세지 수")
+                    .register(meterRegistry);
+            return virtualExecutor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(outboundPoolSize);
+        executor.setMaxPoolSize(outboundPoolSize);
+        executor.setQueueCapacity(outboundQueueCapacity);
+        executor.setThreadNamePrefix("clientOutboundChannel-");
+        executor.setRejectedExecutionHandler(this::rejected);
+        Gauge.builder("chat.websocket.outbound.queue", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .description("outbound 채널 대기열에 쌓인 메세지 수")
+                .register(meterRegistry);
+        return executor;
+    }
+
+    private void rejected(Runnable task, ThreadPoolExecutor pool) {
+        if (!pool.isShutdown()) {
+            overflow(task);
+        }
+    }
+
+    private void overflow(Runnable task) {
+        if (task instanceof MessageHandlingRunnable sendTask
+                && SimpMessageHeaderAccessor.getMessageType(sendTask.getMessage().getHeaders()) == SimpMessageType.MESSAGE) {
+            droppedCounter.increment();
+            return;
+        }
+        callerRunsCounter.increment();
+        task.run();
+    }
+
+    /**
+     * 전송 한도 초과로 끊긴 세션(SESSION_NOT_RELIABLE)을 집계한다.
+     */
+    public WebSocketHandlerDecoratorFactory evictionCounter() {
+        return handler -> new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                if (CloseStatus.SESSION_NOT_RELIABLE.equals(closeStatus)) {
+                    evictedCounter.increment();
+                    log.warn("stompTransportConfig: evicted slow consumer session {}", session.getId());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+}
@@ -1,18 +1,27 @@
 package mutsa.api.config.socket;
 
+import mutsa.api.config.thread.VirtualThreadConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class webSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Autowired
     private StompHandler stompHandler; // jwt 인증
+    @Autowired
+    private StompBrokerConfig stompBrokerConfig;
+    @Autowired
+    private StompTransportConfig stompTransportConfig;
+    @Autowired
+    private VirtualThreadConfig virtualThreadConfig;
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -22,13 +31,41 @@ public class webSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/sub");
+        if (stompBrokerConfig.isRelay()) {
+            //외부 STOMP 브로커가 구독을 관리하고 모든 서버에 메세지를 전달한다
+            registry.enableStompBrokerRelay("/sub")
+                    .setRelayHost(stompBrokerConfig.getRelayHost())
+                    .setRelayPort(stompBrokerConfig.getRelayPort())
+                    .setClientLogin(stompBrokerConfig.getRelayLogin())
+                    .setClientPasscode(stompBrokerConfig.getRelayPasscode())
+                    .setSystemLogin(stompBrokerConfig.getRelayLogin())
+                    .setSystemPasscode(stompBrokerConfig.getRelayPasscode());
+        } else {
+            registry.enableSimpleBroker("/sub");
+        }
         registry.setApplicationDestinationPrefixes("/pub", "/sub"); // pub로 오는 메세지를 sub를 구독한 모든 사람들에게 준다
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(stompHandler);
+        ThreadPoolTaskExecutor inboundExecutor = virtualThreadConfig.createInboundExecutor();
+        if (inboundExecutor != null) {
+            registration.taskExecutor(inboundExecutor);
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(stompTransportConfig.createOutboundExecutor());
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        //느린 클라이언트의 전송 대기가 서버 메모리를 계속 차지하지 않도록 한도를 넘으면 세션을 끊는다
+        registration.setSendTimeLimit(stompTransportConfig.getSendTimeLimitMillis())
+                .setSendBufferSizeLimit(stompTransportConfig.getSendBufferSizeLimitBytes())
+                .addDecoratorFactory(stompTransportConfig.evictionCounter());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+package mutsa.api.config.thread;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+/**
+ * chat.virtual-threads.enabled
+ * <ul>
+ *     <li>false(기본값) : 기존 플랫폼 스레드 풀을 사용한다.</li>
+ *     <li>true : 클라이언트 inbound/outbound 채널과 레디스 리스너 컨테이너의 작업을 가상 스레드에서 실행한다.
+ *     ChatService.sendMessage 처럼 레디스/JDBC 호출로 블로킹되는 작업이 스레드 풀을 점유하지 않는다.</li>
+ * </ul>
+ * 채널 executor 는 가상 스레드를 풀에 담아두지 않고 작업마다 새로 만들며, 동시에 실행되는 작업 수만 세마포어로 제한한다.
+ * 가상 스레드는 Java 21 부터 사용할 수 있으므로 Java 21 로 실행해야 하며(./gradlew build -PjavaVersion=21),
+ * 그보다 낮은 버전에서 켜면 경고를 남기고 기본 스레드 풀을 사용한다.
+ */
+@Component
+@Getter
+@Slf4j
+public class VirtualThreadConfig {
+    @Value("${chat.virtual-threads.enabled:false}")
+    private boolean enabled;
+
+    //inbound 채널에서 동시에 처리하는 최대 메세지 수, 넘으면 웹소켓 수신 스레드가 자리가 날 때까지 기다린다
+    @Value("${chat.virtual-threads.inbound-concurrency:1000}")
+    private int inboundConcurrency;
+
+    /**
+     * @return 가상 스레드로 동작하는 inbound 채널 executor, 사용하지 않으면 null(기본 executor)
+     */
+    public ThreadPoolTaskExecutor createInboundExecutor() {
+        ThreadFactory threadFactory = virtualThreadFactory("clientInboundChannel-virtual-");
+        if (threadFactory == null) {
+            return null;
+        }
+        return new VirtualThreadTaskExecutor(threadFactory, inboundConcurrency, null);
+    }
+
+    /**
+     * @param concurrency 동시에 전송하는 최대 메세지 수
+     * @param overflow    동시 전송 수를 넘은 작업을 처리한다(버리거나 보낸 스레드에서 실행)
+     * @return 가상 스레드로 동작하는 outbound 채널 executor, 사용하지 않으면 null(기본 executor)
+     */
+    public ThreadPoolTaskExecutor createOutboundExecutor(int concurrency, Consumer<Runnable> overflow) {
+        ThreadFactory threadFactory = virtualThreadFactory("clientOutboundChannel-virtual-");
+        if (threadFactory == null) {
+            return null;
+        }
+        return new VirtualThreadTaskExecutor(threadFactory, concurrency, overflow);
+    }
+
+    /**
+     * @return 메세지마다 가상 스레드를 만드는 레디스 리스너 executor, 사용하지 않으면 null(기본 executor)
+     */
+    public SimpleAsyncTaskExecutor createListenerExecutor() {
+        ThreadFactory threadFactory = virtualThreadFactory("redisListener-virtual-");
+        if (threadFactory == null) {
+            return null;
+        }
+        return new SimpleAsyncTaskExecutor(threadFactory);
+    }
+
+    /**
+     * Java 17 로도 컴파일되도록 Thread.ofVirtual().name(prefix, 0).factory() 를 리플렉션으로 호출한다.
+     */
+    private ThreadFactory virtualThreadFactory(String prefix) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = ofVirtual.invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            log.warn("virtualThreadConfig: virtual threads are not supported on Java {}, using platform threads",
+                    Runtime.version().feature());
+            return null;
+        }
+    }
+
+    /**
+     * 작업마다 가상 스레드를 만들고, 동시에 실행되는 작업 수를 세마포어로 제한하는 executor.
+     * Spring 6.0 의 ChannelRegistration 은 ThreadPoolTaskExecutor 만 받으므로 상속하되 내부 스레드 풀은 사용하지 않는다.
+     */
+    private static class VirtualThreadTaskExecutor extends ThreadPoolTaskExecutor {
+        private final ThreadFactory threadFactory;
+        private final int concurrency;
+        private final Semaphore permits;
+        //null 이면 자리가 날 때까지 기다린다
+        private final Consumer<Runnable> overflow;
+
+        private VirtualThreadTaskExecutor(ThreadFactory threadFactory, int concurrency, Consumer<Runnable> overflow) {
+            this.threadFactory = threadFactory;
+            this.concurrency = concurrency;
+            this.permits = new Semaphore(concurrency);
+            this.overflow = overflow;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (overflow == null) {
+                permits.acquireUninterruptibly();
+            } else if (!permits.tryAcquire()) {
+                overflow.accept(task);
+                return;
+            }
+            try {
+                threadFactory.newThread(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                }).start();
+            } catch (RuntimeException | Error e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Future<?> submit(Runnable task) {
+            FutureTask<Object> future = new FutureTask<>(task, null);
+            execute(future);
+            return future;
+        }
+
+        @Override
+        public <T> Future<T> submit(Callable<T> task) {
+            FutureTask<T> future = new FutureTask<>(task);
+            execute(future);
+            return future;
+        }
+
+        @Override
+        public int getActiveCount() {
+            return concurrency - permits.availablePermits();
+        }
+
+        @Override
+        public int getQueueSize() {
+            return permits.getQueueLength();
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package mutsa.api.controller.chat;
 
 
+import com.fasterxml.jackson.databind.util.RawValue;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import mutsa.api.config.socket.StompHandler;
 import mutsa.api.dto.chat.ChatRequestDto;
-import mutsa.api.dto.chat.ChatResponseDto;
+import mutsa.api.dto.chat.PresenceRequestDto;
+import mutsa.api.service.chat.ChatPresenceService;
+import mutsa.api.service.chat.ChatRateLimiter;
 import mutsa.api.service.chat.ChatService;
-import mutsa.api.service.chatroom.ChatroomService;
+import mutsa.common.exception.BusinessException;
+import mutsa.common.exception.ErrorResponse;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -21,10 +28,12 @@ import java.util.List;
 public class ChatController {
 
     private final ChatService chatService;
-    private final ChatroomService chatroomService;
+    private final ChatPresenceService chatPresenceService;
+    private final ChatRateLimiter chatRateLimiter;
 
     /**
      * /pub/chat/message 으로 오는 메세지를 여기서 받아서 처리한다( -> chatservice -> redisMessageSubscriber에서 모두에게 전송)
+     * 채팅방별 전송 횟수 제한을 넘으면 저장하지 않는다.(유저별 제한은 StompHandler 에서 확인)
      *
      * @param chatRequestDto
      */
@@ -34,23 +43,53 @@ public class ChatController {
             SimpMessageHeaderAccessor accessor
     ) {
         // WebSocket 세션에서 사용자 정보 가져오기
-        String username = (String)accessor.getSessionAttributes().get("username");
+        String username = (String)accessor.getSessionAttributes().get(StompHandler.USERNAME);
 
-        chatService.sendMessage(chatRequestDto, username);
+        chatRateLimiter.acquireRoom(chatRequestDto.getRoomApiId());
+        chatPresenceService.typing(chatRequestDto.getRoomApiId(), username, false);
+        chatService.sendMessage(chatRequestDto, username)
+                .exceptionally(e -> {
+                    log.error("chatController: failed to send message to {}", chatRequestDto.getRoomApiId(), e);
+                    return null;
+                });
     }
 
     /**
-     * /sub/chat/room/{roomApiId} 방에 입장하면 이전 메세지를 출력해주는 기능
+     * /pub/chat/presence 로 입력중 상태를 받는다.(저장하지 않고 /sub/chat/room/{roomApiId}/presence 로 전달)
+     *
+     * @param presenceRequestDto
+     */
+    @MessageMapping("/chat/presence")
+    public void presence(
+            PresenceRequestDto presenceRequestDto,
+            SimpMessageHeaderAccessor accessor
+    ) {
+        String username = (String) accessor.getSessionAttributes().get(StompHandler.USERNAME);
+        chatPresenceService.typing(presenceRequestDto.getRoomApiId(), username, presenceRequestDto.isTyping());
+    }
+
+    /**
+     * 처리하지 못한 메세지(전송 횟수 제한 등)는 보낸 세션에만 /user/sub/chat/errors 로 알린다.
+     */
+    @MessageExceptionHandler(BusinessException.class)
+    @SendToUser(destinations = "/sub/chat/errors", broadcast = false)
+    public ErrorResponse handleBusinessException(BusinessException e) {
+        log.info("chatController: rejected message, {}", e.getErrorCode());
+        return ErrorResponse.of(e.getErrorCode());
+    }
+
+    /**
+     * /sub/chat/room/{roomApiId} 방에 입장하면 최신 메세지 한 페이지를 출력해주는 기능
+     * (그 이전 메세지는 GET /api/chat/room/{chatroomId}/messages 로 조회한다)
      * @param roomApiId
      * @return
      */
     @SubscribeMapping("/chat/room/{roomApiId}")
-    public List<ChatResponseDto> sendGreet(
+    public List<RawValue> sendGreet(
             @DestinationVariable("roomApiId") String roomApiId
     ) {
         log.info("chatController: new subscription to {}", roomApiId);
-        chatroomService.getByApiId(roomApiId); //방이 존재하는지 확인하는 기능(제거 가능)
-        List<ChatResponseDto> messages = chatService.getLastMessages(roomApiId);
+        List<RawValue> messages = chatService.getLastMessages(roomApiId);
         return messages;
 
     }
@@ -2,9 +2,13 @@ package mutsa.api.controller.chatroom;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import mutsa.api.dto.chat.ChatHistoryResponseDto;
 import mutsa.api.dto.chat.ChatRoomDetailDto;
 import mutsa.api.dto.chat.ChatroomRequestDto;
 import mutsa.api.dto.chat.ChatroomResponseDto;
+import mutsa.api.dto.chat.ReadReceiptDto;
+import mutsa.api.service.chat.ChatSearchService;
+import mutsa.api.service.chat.ChatService;
 import mutsa.api.service.chatroom.ChatroomService;
 import mutsa.api.util.SecurityUtil;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +24,8 @@ import static mutsa.api.util.SecurityUtil.getCurrentUsername;
 @Slf4j
 public class ChatroomController {
     private final ChatroomService chatService;
+    private final ChatService chatMessageService;
+    private final ChatSearchService chatSearchService;
 
     /**
      * @param requestChatroomDto
@@ -40,6 +46,21 @@ public class ChatroomController {
         return ResponseEntity.ok(chatService.findMyChatroom(SecurityUtil.getCurrentUsername()));
     }
 
+    /**
+     * @param keyword 검색어 (공백으로 구분된 단어가 모두 포함된 메세지를 찾는다)
+     * @param before  이전 페이지 응답의 nextCursor (없으면 최신 메세지부터)
+     * @param limit
+     * @return 내가 속한 모든 방의 메세지를 검색하여 최신순으로 반환
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ChatHistoryResponseDto> searchMessages(
+            @RequestParam("keyword") String keyword,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(chatSearchService.search(SecurityUtil.getCurrentUsername(), keyword, before, limit));
+    }
+
     /**
      * @param chatroomApiId
      * @return 한개의 방 정보를 반환
@@ -51,4 +72,45 @@ public class ChatroomController {
         return ResponseEntity.ok(chatService.findChatroom(chatroomApiId, SecurityUtil.getCurrentUsername()));
     }
 
+    /**
+     * @param chatroomApiId
+     * @param before   이전 페이지 응답의 nextCursor (없으면 최신 메세지부터)
+     * @param beforeId 이전 페이지 응답의 nextCursorId (같은 시각의 메세지가 페이지 경계에서 누락되지 않도록 함께 전달)
+     * @param limit
+     * @return 스크롤 시 이전 메세지를 커서 기반으로 반환
+     */
+    @GetMapping("/{chatroomId}/messages")
+    public ResponseEntity<ChatHistoryResponseDto> getMessages(
+            @PathVariable("chatroomId") String chatroomApiId,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "beforeId", required = false) String beforeId,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(chatMessageService.getMessageHistory(chatroomApiId, SecurityUtil.getCurrentUsername(), before, beforeId, limit));
+    }
+
+    /**
+     * @param chatroomApiId
+     * @param cursor 마지막으로 읽은 메세지의 timestamp (없으면 현재 시각)
+     * @return 채팅방을 읽음 처리한다(읽지 않은 메세지 수 초기화)
+     */
+    @PostMapping("/{chatroomId}/read")
+    public ResponseEntity<Void> readRoom(
+            @PathVariable("chatroomId") String chatroomApiId,
+            @RequestParam(value = "cursor", required = false) Long cursor
+    ) {
+        chatMessageService.markAsRead(chatroomApiId, SecurityUtil.getCurrentUsername(), cursor);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * @param chatroomApiId
+     * @return 다른 참여자가 마지막으로 읽은 메세지의 timestamp(이 값 이하의 메세지를 읽음으로 표시한다)
+     */
+    @GetMapping("/{chatroomId}/read")
+    public ResponseEntity<List<ReadReceiptDto>> getReadReceipts(
+            @PathVariable("chatroomId") String chatroomApiId
+    ) {
+        return ResponseEntity.ok(chatMessageService.getReadReceipts(chatroomApiId, SecurityUtil.getCurrentUsername()));
+    }
 }
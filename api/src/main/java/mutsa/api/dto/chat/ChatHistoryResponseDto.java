@@ -0,0 +1,21 @@
+package mutsa.api.dto.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatHistoryResponseDto {
+    private List<ChatResponseDto> messages;
+    private Long nextCursor; //다음 페이지 조회 시 before 로 전달(가장 오래된 메세지의 timestamp)
+    private String nextCursorId; //다음 페이지 조회 시 beforeId 로 전달(가장 오래된 메세지의 id)
+    private boolean hasNext;
+
+    public ChatHistoryResponseDto(List<ChatResponseDto> messages, Long nextCursor, boolean hasNext) {
+        this(messages, nextCursor, null, hasNext);
+    }
+}
@@ -11,6 +11,7 @@ public class ChatRequestDto {
     private String message;
     private String roomApiId;
     private MessageType type;
+    private String clientMessageId; //클라이언트가 만든 메세지 id, 재전송 시 같은 값을 보내면 한번만 저장/발행된다
 
     public ChatRequestDto(String message, String roomApiId, String type) {
         this.message = message;
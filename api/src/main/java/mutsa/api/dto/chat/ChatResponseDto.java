@@ -1,8 +1,10 @@
 package mutsa.api.dto.chat;
 
 import lombok.*;
+import mutsa.common.domain.models.chat.ChatMessage;
 import mutsa.common.domain.models.chat.ChatRedis;
 
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 @Getter
@@ -15,6 +17,8 @@ public class ChatResponseDto {
     private String date;
     private String message;
     private String chatroomApiId;
+    private Long timestamp; //이전 메세지 조회 시 커서로 사용(epoch millis)
+    private String id; //채팅 id(같은 시각의 메세지를 구분하기 위해 timestamp 와 함께 커서로 사용)
 
     public static ChatResponseDto fromEntity(ChatRedis chat, String chatroomApiId) {
         ChatResponseDto chatResponseDto = new ChatResponseDto();
@@ -22,6 +26,19 @@ public class ChatResponseDto {
         chatResponseDto.from = chat.getUsername();
         chatResponseDto.message = chat.getContent();
         chatResponseDto.chatroomApiId = chatroomApiId;
+        chatResponseDto.timestamp = chat.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        chatResponseDto.id = chat.getId();
+        return chatResponseDto;
+    }
+
+    public static ChatResponseDto fromEntity(ChatMessage chat) {
+        ChatResponseDto chatResponseDto = new ChatResponseDto();
+        chatResponseDto.date = chat.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd hh:mm:ss"));
+        chatResponseDto.from = chat.getUsername();
+        chatResponseDto.message = chat.getContent();
+        chatResponseDto.chatroomApiId = chat.getChatroomApiId();
+        chatResponseDto.timestamp = chat.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        chatResponseDto.id = chat.getApiId();
         return chatResponseDto;
     }
 }
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import mutsa.common.domain.models.chatroom.Chatroom;
+import mutsa.common.dto.chatroom.ChatroomUserResult;
 
 @Data
 @NoArgsConstructor
@@ -12,6 +13,11 @@ import mutsa.common.domain.models.chatroom.Chatroom;
 public class ChatroomResponseDto {
     private String chatroomApiId;
     private String roomName;
+    private String articleApiId;
+    private String articleTitle;
+    private String articleThumbnail;
+    private ChatResponseDto lastMessage; //메세지가 없는 방은 null
+    private long unreadCount;
 
     //채팅방 이름은 상대방의 이름으로 한다.
     public static ChatroomResponseDto fromEntity(Chatroom chatroom, String roomName) {
@@ -20,4 +26,14 @@ public class ChatroomResponseDto {
         dto.roomName = roomName;
         return dto;
     }
+
+    public static ChatroomResponseDto fromResult(ChatroomUserResult result) {
+        ChatroomResponseDto dto = new ChatroomResponseDto();
+        dto.chatroomApiId = result.getChatroom();
+        dto.roomName = result.getUser();
+        dto.articleApiId = result.getArticleApiId();
+        dto.articleTitle = result.getArticleTitle();
+        dto.articleThumbnail = result.getArticleThumbnail();
+        return dto;
+    }
 }
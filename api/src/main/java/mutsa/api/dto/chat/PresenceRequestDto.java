@@ -0,0 +1,15 @@
+package mutsa.api.dto.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceRequestDto {
+    private String roomApiId;
+    private boolean typing;
+}
@@ -0,0 +1,19 @@
+package mutsa.api.dto.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * /sub/chat/room/{roomApiId}/presence 로 전달되는 방의 현재 상태(변경분이 아닌 전체)
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceResponseDto {
+    private String chatroomApiId;
+    private Set<String> online;
+    private Set<String> typing;
+}
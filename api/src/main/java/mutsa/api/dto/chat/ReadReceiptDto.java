@@ -0,0 +1,16 @@
+package mutsa.api.dto.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 채팅방 참여자가 마지막으로 읽은 위치(읽음 표시)
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceiptDto {
+    private String username;
+    private Long readCursor; //마지막으로 읽은 메세지의 timestamp(epoch millis), 읽은 적이 없으면 null
+}
@@ -15,6 +15,7 @@ import mutsa.common.domain.models.article.Article;
 import mutsa.common.exception.BusinessException;
 import mutsa.common.repository.article.ArticleRepository;
 import mutsa.common.repository.user.UserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -24,6 +25,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import static mutsa.common.exception.ErrorCode.ARTICLE_NOT_FOUND;
+import static mutsa.common.exception.ErrorCode.USER_NOT_FOUND;
 
 @Component
 @RequiredArgsConstructor
@@ -40,7 +42,12 @@ public class ArticleModuleService {
         Article entity = dtoToEntity(requestDto);
         entity.setUser(articleUtil.getUserFromSecurityContext());
 
-        return articleRepository.save(entity);
+        try {
+            return articleRepository.save(entity);
+        } catch (DataIntegrityViolationException e) {
+            //게시글의 외래키는 유저뿐이고 나머지 값은 검증된 요청이므로, 토큰의 유저가 탈퇴한 경우이다
+            throw new BusinessException(USER_NOT_FOUND);
+        }
     }
 
     @Transactional
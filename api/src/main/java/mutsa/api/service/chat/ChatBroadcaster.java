@@ -0,0 +1,43 @@
+package mutsa.api.service.chat;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * 이미 json 으로 직렬화된 채팅(또는 접속 상태)을 다시 변환하지 않고 /sub/chat/room/{roomApiId} 구독자에게 전달한다.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ChatBroadcaster {
+    public static final String ROOM_DESTINATION = "/sub/chat/room/";
+    public static final String PRESENCE_SUFFIX = "/presence";
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    public void send(String roomApiId, byte[] payload) {
+        sendTo(ROOM_DESTINATION + roomApiId, payload);
+    }
+
+    /**
+     * /sub/chat/room/{roomApiId}/presence 구독자에게 접속/입력중 상태를 전달한다.
+     */
+    public void sendPresence(String roomApiId, byte[] payload) {
+        sendTo(ROOM_DESTINATION + roomApiId + PRESENCE_SUFFIX, payload);
+    }
+
+    private void sendTo(String destination, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+
+        log.debug("chatBroadcaster: data to {}", destination);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+    }
+}
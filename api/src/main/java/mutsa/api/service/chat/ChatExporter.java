@@ -0,0 +1,119 @@
+package mutsa.api.service.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import mutsa.common.repository.export.ChatExportEvent;
+import mutsa.common.repository.export.ChatExportSink;
+import mutsa.common.repository.redis.chat.ChatExportRedisRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 내보내기 스트림(chat:export)의 채팅을 flush-millis 마다 분석용 내보내기 로그(ChatExportSink)로 옮긴다.
+ * 분석 쿼리가 채팅 레디스를 직접 조회하지 않고 이 로그를 소비하도록 하기 위함이다.
+ * <ul>
+ *     <li>스트림은 채팅 저장 스크립트에서 ZADD 와 함께 추가되므로(ChatMessageWriter) 서버가 종료되어도 저장된 채팅은 유실되지 않는다.</li>
+ *     <li>싱크에 기록한 뒤에만 오프셋(chat:export:offset)을 커밋하므로, 실패하거나 중간에 종료되면 커밋된 위치부터 다시 보낸다.
+ *     (at-least-once, 소비자는 채팅 id 로 중복을 제거한다)</li>
+ *     <li>여러 서버 중 레디스 락을 잡은 서버 하나만 옮겨서 순서를 유지한다.</li>
+ *     <li>읽을 수 없는 항목은 chat.export.skipped 로 집계하고 건너뛰어, 한 항목 때문에 같은 위치에서 멈추지 않는다.</li>
+ *     <li>싱크가 stream-max-length 를 넘게 밀리면 스트림에서 잘린 오래된 채팅은 내보내지 못한다.</li>
+ *     <li>chat.export.sink 가 설정되지 않으면 아무것도 하지 않는다.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class ChatExporter {
+    private static final String LOCK_KEY = "chat:export:lock";
+    //락을 잡은 서버의 토큰과 같을 때만 해제한다(락 유지 시간을 넘긴 실행이 다른 서버의 락을 지우지 않도록)
+    private static final RedisScript<Long> UNLOCK_SCRIPT = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final ChatExportSink chatExportSink;
+    private final ChatExportRedisRepository chatExportRedisRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final int batchSize;
+    private final Counter exportedCounter;
+    private final Counter failedCounter;
+    private final Counter skippedCounter;
+
+    public ChatExporter(
+            Optional<ChatExportSink> chatExportSink,
+            ChatExportRedisRepository chatExportRedisRepository,
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${chat.export.batch-size:500}") int batchSize
+    ) {
+        this.chatExportSink = chatExportSink.orElse(null);
+        this.chatExportRedisRepository = chatExportRedisRepository;
+        this.redisTemplate = redisTemplate;
+        this.batchSize = batchSize;
+        this.exportedCounter = Counter.builder("chat.export.exported")
+                .description("내보내기 로그에 기록한 채팅 수")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("chat.export.failed")
+                .description("기록에 실패하여 다음 flush 에 다시 보내는 배치 수")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("chat.export.skipped")
+                .description("읽을 수 없어 건너뛴 스트림 항목 수")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.export.flush-millis:500}")
+    public void flush() {
+        if (chatExportSink == null) {
+            return;
+        }
+        String token = UUID.randomUUID().toString();
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, token, Duration.ofMinutes(1));
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        try {
+            String offset = chatExportRedisRepository.getOffset();
+            List<ChatExportRedisRepository.Entry> entries;
+            do {
+                entries = chatExportRedisRepository.read(offset, batchSize);
+                if (entries.isEmpty()) {
+                    return;
+                }
+                List<ChatExportEvent> events = entries.stream()
+                        .filter(entry -> entry.message() != null)
+                        .map(entry -> ChatExportEvent.from(entry.message()))
+                        .toList();
+                try {
+                    if (!events.isEmpty()) {
+                        chatExportSink.write(events);
+                    }
+                } catch (Exception e) {
+                    //커밋하지 않았으므로 다음 flush 에 같은 위치부터 다시 보낸다
+                    log.error("chatExporter: failed to export {} messages after {}", entries.size(), offset, e);
+                    failedCounter.increment();
+                    return;
+                }
+                offset = entries.get(entries.size() - 1).id();
+                chatExportRedisRepository.commit(offset);
+                exportedCounter.increment(events.size());
+                if (events.size() < entries.size()) {
+                    skippedCounter.increment(entries.size() - events.size());
+                    log.warn("chatExporter: skipped {} undecodable entries up to {}", entries.size() - events.size(), offset);
+                }
+            } while (entries.size() == batchSize);
+        } finally {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(LOCK_KEY), token);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package mutsa.api.service.chat;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mutsa.common.domain.models.chat.ChatMessage;
+import mutsa.common.repository.chat.ChatMessageRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * chat_message_token 이 추가되기 전에 보관된 채팅의 검색 토큰을 채운다.
+ * <ul>
+ *     <li>여러 서버가 동시에 기동해도 레디스 락을 잡은 서버 하나만 실행하고, 끝까지 채우면 완료 기록을 남겨 다시 실행하지 않는다.</li>
+ *     <li>토큰이 없는 채팅만 채우므로 중간에 실패하거나 보관 작업과 겹쳐도 결과는 같다.</li>
+ *     <li>실패해도 서버 기동을 막지 않고, 남은 채팅은 다음 기동 때 채운다.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ChatMessageTokenBackfill {
+    static final String LOCK_KEY = "chat:message-token-backfill:lock";
+    static final String DONE_KEY = "chat:message-token-backfill:done";
+    //락을 잡은 서버의 토큰과 같을 때만 해제한다(락 유지 시간을 넘긴 실행이 다른 서버의 락을 지우지 않도록)
+    private static final RedisScript<Long> UNLOCK_SCRIPT = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(DONE_KEY))) {
+            return;
+        }
+        String token = UUID.randomUUID().toString();
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, token, Duration.ofMinutes(30));
+        if (!Boolean.TRUE.equals(locked)) {
+            log.info("chatMessageTokenBackfill: running on another server, skipped");
+            return;
+        }
+        try {
+            long indexed = 0L;
+            long lastId = 0L;
+            while (true) {
+                List<ChatMessage> messages = chatMessageRepository.findTop500ByIdGreaterThanOrderByIdAsc(lastId);
+                if (messages.isEmpty()) {
+                    break;
+                }
+                indexed += chatMessageRepository.indexArchived(messages);
+                lastId = messages.get(messages.size() - 1).getId();
+            }
+            redisTemplate.opsForValue().set(DONE_KEY, Long.toString(System.currentTimeMillis()));
+            if (indexed > 0) {
+                log.info("chatMessageTokenBackfill: indexed {} archived messages", indexed);
+            }
+        } catch (RuntimeException e) {
+            log.error("chatMessageTokenBackfill: failed, remaining messages will be indexed on next startup", e);
+        } finally {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(LOCK_KEY), token);
+        }
+    }
+}
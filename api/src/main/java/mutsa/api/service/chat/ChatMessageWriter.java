@@ -0,0 +1,162 @@
+package mutsa.api.service.chat;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mutsa.common.domain.models.chat.ChatRedis;
+import mutsa.common.exception.BusinessException;
+import mutsa.common.exception.ErrorCode;
+import mutsa.common.repository.redis.chat.ChatRedisRepository;
+import mutsa.common.repository.redis.chat.PendingChatMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 채팅 저장 + 읽음 정보 갱신 + 발행을 짧은 시간(window) 동안 모아서 한번의 파이프라인으로 레디스에 전송한다.
+ * 호출자는 레디스 반영이 끝나면 완료되는 future 를 받는다.
+ * 대기열이 queue-capacity 만큼 차 있으면 future 를 CHAT_WRITER_BUSY 로 실패시킨다.(레디스가 느려질 때 메모리가 계속 늘어나지 않도록)
+ * 내보내기(chat.export.sink)를 사용하면 같은 스크립트에서 내보내기 스트림에도 추가한다.(ChatExporter 가 스트림을 싱크로 옮긴다)
+ */
+@Component
+@Slf4j
+public class ChatMessageWriter {
+    private final ChatRedisRepository chatRedisRepository;
+    private final long windowMillis;
+    private final int batchSize;
+    private final long dedupTtlMillis;
+    //0 이면 내보내기 스트림에 추가하지 않는다
+    private final long exportMaxLength;
+    private final BlockingQueue<Request> queue;
+    //대기열 추가(read)와 종료(write)를 배타적으로 처리하여, 종료 후 대기열에 남는 채팅이 없도록 한다
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private Thread worker;
+    private volatile boolean running;
+
+    public ChatMessageWriter(
+            ChatRedisRepository chatRedisRepository,
+            @Value("${chat.writer.window-millis:5}") long windowMillis,
+            @Value("${chat.writer.batch-size:100}") int batchSize,
+            @Value("${chat.writer.queue-capacity:10000}") int queueCapacity,
+            @Value("${chat.writer.dedup-ttl-seconds:120}") long dedupTtlSeconds,
+            @Value("${chat.export.sink:}") String exportSink,
+            @Value("${chat.export.stream-max-length:1000000}") long exportStreamMaxLength
+    ) {
+        this.chatRedisRepository = chatRedisRepository;
+        this.windowMillis = windowMillis;
+        this.batchSize = batchSize;
+        this.dedupTtlMillis = dedupTtlSeconds * 1000;
+        this.exportMaxLength = StringUtils.hasText(exportSink) ? exportStreamMaxLength : 0;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "chat-message-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stateLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        //이후의 write 는 대기열을 거치지 않고 바로 반영된다
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+        //종료 전에 남아있는 메세지를 모두 반영한다
+        List<Request> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            flush(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+    }
+
+    /**
+     * @param message    저장할 채팅
+     * @param recipients 읽지 않은 메세지 수를 증가시킬 유저(보낸 사람 제외)
+     * @param channel    발행할 채널
+     * @param payload    구독자에게 전달할 json
+     * @param dedupKey   재전송된 채팅을 구분하는 키(없으면 null)
+     * @return 저장과 발행이 레디스에 반영되면 완료된다.(이미 저장된 채팅의 재전송이면 false, 대기열이 가득 차면 CHAT_WRITER_BUSY 로 실패)
+     */
+    public CompletableFuture<Boolean> write(ChatRedis message, List<String> recipients, String channel, String payload, String dedupKey) {
+        Request request = new Request(new PendingChatMessage(message, recipients, channel, payload, dedupKey));
+        stateLock.readLock().lock();
+        try {
+            if (running) {
+                if (!queue.offer(request)) {
+                    request.future.completeExceptionally(new BusinessException(ErrorCode.CHAT_WRITER_BUSY));
+                }
+                return request.future;
+            }
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        flush(List.of(request));
+        return request.future;
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+                while (batch.size() < batchSize) {
+                    Request next = queue.poll(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); //stop() 에서만 발생하므로 모은 메세지를 반영하고 종료한다
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<Request> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<PendingChatMessage> messages = new ArrayList<>(batch.size());
+        for (Request request : batch) {
+            messages.add(request.message);
+        }
+        try {
+            List<Boolean> saved = chatRedisRepository.saveAndPublishAll(messages, dedupTtlMillis, exportMaxLength);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(saved.get(i));
+            }
+        } catch (Exception e) {
+            log.error("chatMessageWriter: failed to flush {} messages", batch.size(), e);
+            batch.forEach(request -> request.future.completeExceptionally(e));
+        }
+    }
+
+    private static class Request {
+        private final PendingChatMessage message;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        private Request(PendingChatMessage message) {
+            this.message = message;
+        }
+    }
+}
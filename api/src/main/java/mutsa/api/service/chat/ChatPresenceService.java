@@ -0,0 +1,214 @@
+package mutsa.api.service.chat;
+
+import com.google.gson.Gson;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import mutsa.api.config.socket.StompBrokerConfig;
+import mutsa.api.dto.chat.PresenceResponseDto;
+import mutsa.common.repository.redis.chat.ChatPresenceRedisRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 채팅방 접속/입력중 상태를 관리한다. 채팅(ChatService)과 달리 저장하지 않고 레디스에 만료 시간과 함께만 보관한다.
+ * 상태가 바뀐 방은 표시만 해두고 flush-millis 마다 방의 전체 상태를 한번만 전달하므로,
+ * 키 입력마다 이벤트가 와도 방마다 전달 횟수는 flush 주기를 넘지 않는다.
+ * simple 브로커 사용 시 다른 서버의 구독자도 받을 수 있도록 레디스 채널(chat:presence)로 변경된 방을 알리고,
+ * 알림을 받은 서버는 이 서버에 구독자가 있는 방만 조회하여 전달한다.
+ * 접속 상태는 이 서버의 id(nodeId)로 저장하므로, 이 서버에서 떠나도 다른 서버에 세션이 남은 유저는 접속중으로 유지된다.
+ */
+@Service
+@Slf4j
+public class ChatPresenceService implements MessageListener {
+    private static final Gson GSON = new Gson();
+
+    private final ChatPresenceRedisRepository chatPresenceRedisRepository;
+    private final ChatBroadcaster chatBroadcaster;
+    private final RedisMessageListenerContainer redisContainer;
+    private final StompBrokerConfig stompBrokerConfig;
+    private final long onlineTtlMillis;
+    private final long typingTtlMillis;
+    //다른 서버의 접속 상태와 구분하기 위한 이 서버의 id
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Set<String> dirtyRooms = ConcurrentHashMap.newKeySet();
+    //roomApiId -> 입력중 상태가 만료되는 시각(만료 시 다시 전달한다)
+    private final Map<String, Long> typingExpirations = new ConcurrentHashMap<>();
+    //roomApiId:username -> 마지막으로 입력중 상태를 저장한 시각
+    private final Map<String, Long> lastTypings = new ConcurrentHashMap<>();
+    //roomApiId -> (username -> 이 서버의 세션 수), StompSessionRegistry 의 채팅방 구독으로 갱신된다
+    private final Map<String, Map<String, Integer>> localSessions = new HashMap<>();
+
+    public ChatPresenceService(
+            ChatPresenceRedisRepository chatPresenceRedisRepository,
+            ChatBroadcaster chatBroadcaster,
+            RedisMessageListenerContainer redisContainer,
+            StompBrokerConfig stompBrokerConfig,
+            @Value("${chat.presence.online-ttl-seconds:60}") long onlineTtlSeconds,
+            @Value("${chat.presence.typing-ttl-seconds:5}") long typingTtlSeconds
+    ) {
+        this.chatPresenceRedisRepository = chatPresenceRedisRepository;
+        this.chatBroadcaster = chatBroadcaster;
+        this.redisContainer = redisContainer;
+        this.stompBrokerConfig = stompBrokerConfig;
+        this.onlineTtlMillis = onlineTtlSeconds * 1000;
+        this.typingTtlMillis = typingTtlSeconds * 1000;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        if (!stompBrokerConfig.isRelay()) {
+            redisContainer.addMessageListener(this, new ChannelTopic(ChatPresenceRedisRepository.PRESENCE_CHANNEL));
+        }
+    }
+
+    /**
+     * 이 서버에서 유저의 첫 세션이 방을 구독하면 접속 상태로 만든다.
+     */
+    public void join(String roomApiId, String username) {
+        int count;
+        synchronized (localSessions) {
+            count = localSessions.computeIfAbsent(roomApiId, key -> new HashMap<>())
+                    .merge(username, 1, Integer::sum);
+        }
+        if (count == 1) {
+            chatPresenceRedisRepository.setOnline(roomApiId, username, nodeId, onlineTtlMillis);
+            markChanged(roomApiId);
+        }
+    }
+
+    /**
+     * 이 서버에서 유저의 마지막 세션이 방을 떠나면 이 서버의 접속 상태를 제거한다.
+     */
+    public void leave(String roomApiId, String username) {
+        synchronized (localSessions) {
+            Map<String, Integer> users = localSessions.get(roomApiId);
+            if (users == null || !users.containsKey(username)) {
+                return;
+            }
+            if (users.computeIfPresent(username, (key, value) -> value > 1 ? value - 1 : null) != null) {
+                return; //다른 세션이 아직 접속중
+            }
+            if (users.isEmpty()) {
+                localSessions.remove(roomApiId);
+            }
+        }
+        lastTypings.remove(typingKey(roomApiId, username));
+        chatPresenceRedisRepository.remove(roomApiId, username, nodeId);
+        markChanged(roomApiId);
+    }
+
+    /**
+     * 입력중 상태는 키 입력마다 올 수 있으므로, 만료 시간의 절반이 지나기 전의 반복 요청은 무시한다.
+     */
+    public void typing(String roomApiId, String username, boolean typing) {
+        String key = typingKey(roomApiId, username);
+        long now = System.currentTimeMillis();
+        if (!typing) {
+            if (lastTypings.remove(key) != null) {
+                chatPresenceRedisRepository.removeTyping(roomApiId, username);
+                markChanged(roomApiId);
+            }
+            return;
+        }
+
+        Long last = lastTypings.get(key);
+        if (last != null && now - last < typingTtlMillis / 2) {
+            return;
+        }
+        lastTypings.put(key, now);
+        chatPresenceRedisRepository.setTyping(roomApiId, username, typingTtlMillis);
+        typingExpirations.merge(roomApiId, now + typingTtlMillis, Math::max);
+        markChanged(roomApiId);
+    }
+
+    /**
+     * 상태가 바뀐 방(입력중 상태가 만료된 방 포함)의 전체 상태를 방마다 한번씩 전달한다.
+     */
+    @Scheduled(fixedDelayString = "${chat.presence.flush-millis:500}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        typingExpirations.forEach((roomApiId, expiresAt) -> {
+            if (expiresAt <= now && typingExpirations.remove(roomApiId, expiresAt)) {
+                markChanged(roomApiId);
+            }
+        });
+        lastTypings.values().removeIf(last -> now - last >= typingTtlMillis);
+
+        if (dirtyRooms.isEmpty()) {
+            return;
+        }
+        List<String> rooms = new ArrayList<>(dirtyRooms);
+        rooms.forEach(dirtyRooms::remove);
+        if (!stompBrokerConfig.isRelay()) {
+            //표시한 뒤 이 서버의 구독자가 모두 떠난 방은 조회하지 않는다
+            rooms.removeIf(roomApiId -> !hasLocalSessions(roomApiId));
+            if (rooms.isEmpty()) {
+                return;
+            }
+        }
+
+        chatPresenceRedisRepository.getPresences(rooms).forEach((roomApiId, presence) -> {
+            PresenceResponseDto response = new PresenceResponseDto(roomApiId, presence.online(), presence.typing());
+            chatBroadcaster.sendPresence(roomApiId, GSON.toJson(response).getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    /**
+     * 서버가 비정상 종료되면 갱신이 멈춰 online-ttl 이후 접속 상태가 사라진다.
+     */
+    @Scheduled(fixedDelayString = "${chat.presence.refresh-millis:20000}")
+    public void refreshOnline() {
+        Map<String, Set<String>> roomUsers = new HashMap<>();
+        synchronized (localSessions) {
+            localSessions.forEach((roomApiId, users) -> roomUsers.put(roomApiId, new HashSet<>(users.keySet())));
+        }
+        chatPresenceRedisRepository.refreshOnline(roomUsers, nodeId, onlineTtlMillis);
+    }
+
+    /**
+     * 다른 서버(또는 이 서버)에서 상태가 바뀐 방 중 이 서버에 구독자가 있는 방만 전달 대상에 추가한다.
+     * 구독자가 없는 방까지 모든 서버가 조회하고 전달하지 않도록 한다.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String roomApiId = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (hasLocalSessions(roomApiId)) {
+            dirtyRooms.add(roomApiId);
+        }
+    }
+
+    private boolean hasLocalSessions(String roomApiId) {
+        synchronized (localSessions) {
+            return localSessions.containsKey(roomApiId);
+        }
+    }
+
+    private void markChanged(String roomApiId) {
+        if (stompBrokerConfig.isRelay()) {
+            //외부 브로커가 모든 서버의 구독자에게 전달한다
+            dirtyRooms.add(roomApiId);
+            return;
+        }
+        chatPresenceRedisRepository.publishChanged(roomApiId);
+    }
+
+    private static String typingKey(String roomApiId, String username) {
+        return roomApiId + ":" + username;
+    }
+}
@@ -0,0 +1,190 @@
+package mutsa.api.service.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import mutsa.common.exception.BusinessException;
+import mutsa.common.exception.ErrorCode;
+import mutsa.common.repository.redis.chat.ChatRateLimitRedisRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 유저별, 채팅방별 채팅 전송 횟수 제한
+ * <ul>
+ *     <li>전송마다 이 서버의 token bucket(초당 per-second 개, 최대 burst 개)만 확인하므로 레디스를 호출하지 않는다.</li>
+ *     <li>sync-millis 마다 허용한 전송 수를 레디스 sliding window(ChatRateLimitRedisRepository)에 더하고,
+ *     모든 서버의 최근 window-seconds 초 합계가 burst + per-second * window-seconds 를 넘은 key 는 거절한다.
+ *     (bucket 이 window 동안 허용할 수 있는 최대치와 같아, 한 서버에서 bucket 을 지킨 전송은 거절되지 않는다)
+ *     거절 중인 key 는 이 서버의 전송이 없어도 동기화마다 다시 확인하여, 합계가 한도 아래로 내려가면 해제한다.
+ *     (레디스를 사용할 수 없어 확인하지 못하면 window-seconds 가 지난 뒤 해제된다)</li>
+ * </ul>
+ * 유저 제한은 StompHandler 에서 SEND 프레임마다, 채팅방 제한은 본문을 바인딩한 뒤 ChatController 에서 확인한다.
+ * 거절된 전송은 chat.ratelimit.rejected(scope=user|room) 로 집계한다.
+ */
+@Component
+@Slf4j
+public class ChatRateLimiter {
+    private static final String USER = "user";
+    private static final String ROOM = "room";
+
+    private final ChatRateLimitRedisRepository chatRateLimitRedisRepository;
+    private final boolean enabled;
+    private final Limit userLimit;
+    private final Limit roomLimit;
+    private final int windowSeconds;
+    private final long windowMillis;
+    private final Counter userRejected;
+    private final Counter roomRejected;
+
+    //user:{username} 또는 room:{roomApiId} -> bucket
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public ChatRateLimiter(
+            ChatRateLimitRedisRepository chatRateLimitRedisRepository,
+            MeterRegistry meterRegistry,
+            @Value("${chat.rate-limit.enabled:true}") boolean enabled,
+            @Value("${chat.rate-limit.user.per-second:5}") double userPerSecond,
+            @Value("${chat.rate-limit.user.burst:10}") int userBurst,
+            @Value("${chat.rate-limit.room.per-second:30}") double roomPerSecond,
+            @Value("${chat.rate-limit.room.burst:60}") int roomBurst,
+            @Value("${chat.rate-limit.window-seconds:10}") int windowSeconds
+    ) {
+        this.chatRateLimitRedisRepository = chatRateLimitRedisRepository;
+        this.enabled = enabled;
+        this.userLimit = new Limit(userPerSecond, userBurst, windowSeconds);
+        this.roomLimit = new Limit(roomPerSecond, roomBurst, windowSeconds);
+        this.windowSeconds = windowSeconds;
+        this.windowMillis = windowSeconds * 1000L;
+        this.userRejected = rejectedCounter(meterRegistry, USER);
+        this.roomRejected = rejectedCounter(meterRegistry, ROOM);
+    }
+
+    /**
+     * @param username
+     * @throws BusinessException 제한을 넘은 경우(CHAT_RATE_LIMITED)
+     */
+    public void acquireUser(String username) {
+        if (enabled && !tryAcquire(USER + ":" + username, userLimit)) {
+            userRejected.increment();
+            throw new BusinessException(ErrorCode.CHAT_RATE_LIMITED);
+        }
+    }
+
+    /**
+     * @param roomApiId
+     * @throws BusinessException 제한을 넘은 경우(CHAT_RATE_LIMITED)
+     */
+    public void acquireRoom(String roomApiId) {
+        if (enabled && roomApiId != null && !tryAcquire(ROOM + ":" + roomApiId, roomLimit)) {
+            roomRejected.increment();
+            throw new BusinessException(ErrorCode.CHAT_RATE_LIMITED);
+        }
+    }
+
+    /**
+     * 다른 서버에서 허용한 전송까지 합산하여, 한도를 넘은 key 는 거절하고 한도 아래로 내려간 key 는 해제한다.
+     * 레디스를 사용할 수 없는 동안에는 서버별 bucket 만으로 제한한다.
+     */
+    @Scheduled(fixedDelayString = "${chat.rate-limit.sync-millis:1000}")
+    public void sync() {
+        long now = System.currentTimeMillis();
+        Map<String, Long> deltas = new HashMap<>();
+        buckets.forEach((key, bucket) -> {
+            long pending = bucket.drainPending();
+            if (pending > 0 || bucket.isBlocked(now)) {
+                deltas.put(key, pending);
+            }
+        });
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, windowMillis));
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> counts;
+        try {
+            counts = chatRateLimitRedisRepository.addAndCount(deltas, now / 1000, windowSeconds);
+        } catch (Exception e) {
+            log.warn("chatRateLimiter: failed to sync {} keys", deltas.size(), e);
+            return;
+        }
+        counts.forEach((key, count) -> {
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                return;
+            }
+            if (count > bucket.limit.windowMax()) {
+                bucket.block(now + windowMillis);
+            } else {
+                bucket.block(0);
+            }
+        });
+    }
+
+    private boolean tryAcquire(String key, Limit limit) {
+        return buckets.computeIfAbsent(key, k -> new Bucket(limit)).tryAcquire();
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("chat.ratelimit.rejected")
+                .description("전송 횟수 제한으로 거절된 채팅 수")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    private record Limit(double perSecond, int burst, int windowSeconds) {
+        private long windowMax() {
+            return burst + (long) (perSecond * windowSeconds);
+        }
+    }
+
+    private static class Bucket {
+        private final Limit limit;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+        private long touchedAt = System.currentTimeMillis();
+        private long blockedUntil;
+        private long pending; //마지막 동기화 이후 허용한 전송 수
+
+        private Bucket(Limit limit) {
+            this.limit = limit;
+            this.tokens = limit.burst();
+        }
+
+        private synchronized boolean tryAcquire() {
+            long nowNanos = System.nanoTime();
+            touchedAt = System.currentTimeMillis();
+            tokens = Math.min(limit.burst(), tokens + (nowNanos - refilledAt) / 1_000_000_000.0 * limit.perSecond());
+            refilledAt = nowNanos;
+            if (touchedAt < blockedUntil || tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            pending++;
+            return true;
+        }
+
+        private synchronized long drainPending() {
+            long drained = pending;
+            pending = 0;
+            return drained;
+        }
+
+        private synchronized void block(long until) {
+            blockedUntil = until;
+        }
+
+        private synchronized boolean isBlocked(long now) {
+            return now < blockedUntil;
+        }
+
+        private synchronized boolean isIdle(long now, long idleMillis) {
+            return pending == 0 && now >= blockedUntil && now - touchedAt > idleMillis;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package mutsa.api.service.chat;
+
+import lombok.extern.slf4j.Slf4j;
+import mutsa.common.domain.models.chat.ChatMessage;
+import mutsa.common.domain.models.chat.ChatRedis;
+import mutsa.common.repository.chat.ChatMessageRepository;
+import mutsa.common.repository.redis.chat.ChatRedisRepository;
+import mutsa.common.repository.redis.chat.ChatSearchRedisRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 레디스(room:%s)에는 방마다 최근 maxMessages 개, maxDays 일 이내의 채팅만 남기고
+ * 나머지는 chat_message 테이블로 옮긴다.
+ * 옮긴 채팅은 레디스 검색 색인에서 제거하고 같은 토큰을 chat_message_token 테이블에 저장하여, 보관된 채팅도 토큰 인덱스로 검색한다.
+ * 보관한 방은 ChatRedisRepository.markArchived 로 기록하여, 보관된 적 없는 방은 조회 시 테이블을 확인하지 않는다.
+ */
+@Service
+@Slf4j
+public class ChatRetentionService {
+    private static final String LOCK_KEY = "chat:retention:lock";
+    //락을 잡은 서버의 토큰과 같을 때만 해제한다(락 유지 시간을 넘긴 실행이 다른 서버의 락을 지우지 않도록)
+    private static final RedisScript<Long> UNLOCK_SCRIPT = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final ChatRedisRepository chatRedisRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatSearchRedisRepository chatSearchRedisRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final int maxMessages;
+    private final int maxDays;
+    private final int batchSize;
+
+    public ChatRetentionService(
+            ChatRedisRepository chatRedisRepository,
+            ChatMessageRepository chatMessageRepository,
+            ChatSearchRedisRepository chatSearchRedisRepository,
+            StringRedisTemplate redisTemplate,
+            @Value("${chat.retention.max-messages:1000}") int maxMessages,
+            @Value("${chat.retention.max-days:30}") int maxDays,
+            @Value("${chat.retention.batch-size:500}") int batchSize
+    ) {
+        this.chatRedisRepository = chatRedisRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.chatSearchRedisRepository = chatSearchRedisRepository;
+        this.redisTemplate = redisTemplate;
+        this.maxMessages = maxMessages;
+        this.maxDays = maxDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 여러 서버에서 동시에 실행되지 않도록 레디스 락을 잡은 서버만 보관 작업을 수행한다.
+     */
+    @Scheduled(fixedDelayString = "${chat.retention.interval-millis:600000}")
+    public void archiveExpiredMessages() {
+        String token = UUID.randomUUID().toString();
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, token, Duration.ofMinutes(10));
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        try {
+            if (!chatRedisRepository.hasArchivedRooms()) {
+                //보관 기록이 없으면(처음 배포, 레디스 초기화) 이미 보관된 방을 테이블에서 다시 기록한다
+                chatRedisRepository.markArchived(chatMessageRepository.findArchivedChatroomApiIds());
+            }
+            double cutoffScore = chatRedisRepository.getTimeToDouble(LocalDateTime.now().minusDays(maxDays));
+            for (String roomId : chatRedisRepository.getRoomIds()) {
+                archiveRoom(roomId, cutoffScore);
+            }
+        } finally {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(LOCK_KEY), token);
+        }
+    }
+
+    /**
+     * @param roomId
+     * @param cutoffScore
+     * @return 테이블로 옮긴 메세지 수
+     */
+    public long archiveRoom(String roomId, double cutoffScore) {
+        long remaining = chatRedisRepository.countExpiredMessages(roomId, maxMessages, cutoffScore);
+        long archived = 0;
+        while (remaining > 0) {
+            int count = (int) Math.min(remaining, batchSize);
+            Set<ZSetOperations.TypedTuple<byte[]>> values = chatRedisRepository.getOldestMessages(roomId, count);
+            if (values == null || values.isEmpty()) {
+                break;
+            }
+
+            List<byte[]> members = new ArrayList<>(values.size());
+            List<ChatRedis> chats = new ArrayList<>(values.size());
+            List<ChatMessage> messages = new ArrayList<>(values.size());
+            for (ZSetOperations.TypedTuple<byte[]> value : values) {
+                ChatRedis chat = chatRedisRepository.decode(roomId, value);
+                members.add(value.getValue());
+                chats.add(chat);
+                messages.add(ChatMessage.from(chat));
+            }
+            saveIfAbsent(messages);
+            chatRedisRepository.markArchived(List.of(roomId));
+            //테이블에 저장된 이후에만 레디스에서 제거한다(중간에 실패하면 다음 실행에서 이어서 처리)
+            chatRedisRepository.removeMessages(roomId, members);
+            chatSearchRedisRepository.remove(chats);
+
+            archived += members.size();
+            remaining -= members.size();
+        }
+
+        if (archived > 0) {
+            log.info("chatRetentionService: archived {} messages of room {}", archived, roomId);
+        }
+        return archived;
+    }
+
+    private void saveIfAbsent(List<ChatMessage> messages) {
+        Set<String> apiIds = new HashSet<>();
+        messages.forEach(message -> apiIds.add(message.getApiId()));
+        Set<String> archivedIds = new HashSet<>(chatMessageRepository.findApiIdsByApiIdIn(apiIds));
+        //채팅과 검색 토큰을 함께 저장한다
+        chatMessageRepository.archive(messages.stream()
+                .filter(message -> !archivedIds.contains(message.getApiId()))
+                .toList());
+    }
+}
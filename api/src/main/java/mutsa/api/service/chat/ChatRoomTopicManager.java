@@ -0,0 +1,90 @@
+package mutsa.api.service.chat;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mutsa.api.config.socket.StompBrokerConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 채팅방별 레디스 채널(chat:room:{roomApiId})을 관리한다.
+ * 이 서버에 해당 방을 구독한 STOMP 세션이 있을 때만 레디스 채널을 구독하여,
+ * 다른 서버에서만 사용하는 방의 메세지는 받지도, 파싱하지도 않는다.
+ * 구독 수는 StompSessionRegistry 의 집계를 사용한다.
+ * 첫 구독/마지막 구독 해제 알림은 집계 락 밖에서 순서가 바뀌어 올 수 있으므로, 알림을 받으면 방마다 현재 구독 수와 레디스 구독 여부를 맞춘다.
+ * (relay 모드에서는 외부 브로커가 구독을 관리하므로 사용하지 않는다)
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = StompBrokerConfig.MODE_PROPERTY, havingValue = StompBrokerConfig.SIMPLE, matchIfMissing = true)
+public class ChatRoomTopicManager implements StompSessionRegistry.RoomListener {
+    public static final String ROOM_CHANNEL = "chat:room:%s";
+
+    private final RedisMessageListenerContainer redisContainer;
+    //구독 확인(SubscriptionListener)을 받기 위해 어댑터 없이 직접 등록한다
+    private final RedisMessageSubscriber messageListener;
+    private final HotRoomMessageCache hotRoomMessageCache;
+    private final StompSessionRegistry stompSessionRegistry;
+    //레디스 채널을 구독중인 방
+    private final Set<String> subscribedRooms = ConcurrentHashMap.newKeySet();
+    //같은 방의 구독/해제만 직렬화한다
+    private final Object[] roomLocks = createLocks(64);
+
+    public static ChannelTopic topicOf(String roomApiId) {
+        return new ChannelTopic(String.format(ROOM_CHANNEL, roomApiId));
+    }
+
+    @PostConstruct
+    public void register() {
+        stompSessionRegistry.addRoomListener(this);
+    }
+
+    public int getLocalSubscriberCount(String roomApiId) {
+        return stompSessionRegistry.getRoomSubscriptionCount(roomApiId);
+    }
+
+    @Override
+    public void onFirstSubscribed(String roomApiId) {
+        reconcile(roomApiId);
+    }
+
+    @Override
+    public void onLastUnsubscribed(String roomApiId) {
+        reconcile(roomApiId);
+    }
+
+    private void reconcile(String roomApiId) {
+        synchronized (roomLocks[Math.floorMod(roomApiId.hashCode(), roomLocks.length)]) {
+            boolean subscribe = stompSessionRegistry.getRoomSubscriptionCount(roomApiId) > 0;
+            if (subscribe == subscribedRooms.contains(roomApiId)) {
+                return;
+            }
+            if (subscribe) {
+                redisContainer.addMessageListener(messageListener, topicOf(roomApiId));
+                subscribedRooms.add(roomApiId);
+                log.info("chatRoomTopicManager: subscribed redis channel of room {}", roomApiId);
+                return;
+            }
+            redisContainer.removeMessageListener(messageListener, topicOf(roomApiId));
+            subscribedRooms.remove(roomApiId);
+            //더 이상 새 메세지를 받지 않으므로 캐시된 메세지도 제거한다
+            hotRoomMessageCache.evict(roomApiId);
+            log.info("chatRoomTopicManager: unsubscribed redis channel of room {}", roomApiId);
+        }
+    }
+
+    private static Object[] createLocks(int size) {
+        Object[] locks = new Object[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+}
@@ -0,0 +1,62 @@
+package mutsa.api.service.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import mutsa.common.domain.models.chat.ChatRedis;
+import mutsa.common.repository.redis.chat.ChatSearchRedisRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * 저장된 채팅을 모아두었다가 flush-millis 마다 검색 색인(ChatSearchRedisRepository)에 추가한다.
+ * 채팅 전송(ChatService.sendMessage)은 대기열에 넣기만 하므로 색인 때문에 느려지지 않는다.
+ * 대기열이 가득 차면 색인을 건너뛰고 chat.search.index.dropped 로 집계한다.
+ */
+@Component
+@Slf4j
+public class ChatSearchIndexer {
+    private final ChatSearchRedisRepository chatSearchRedisRepository;
+    private final int batchSize;
+    private final BlockingQueue<ChatRedis> queue;
+    private final Counter droppedCounter;
+
+    public ChatSearchIndexer(
+            ChatSearchRedisRepository chatSearchRedisRepository,
+            MeterRegistry meterRegistry,
+            @Value("${chat.search.queue-capacity:100000}") int queueCapacity,
+            @Value("${chat.search.batch-size:500}") int batchSize
+    ) {
+        this.chatSearchRedisRepository = chatSearchRedisRepository;
+        this.batchSize = batchSize;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.droppedCounter = Counter.builder("chat.search.index.dropped")
+                .description("대기열이 가득 차 색인하지 못한 채팅 수")
+                .register(meterRegistry);
+    }
+
+    public void add(ChatRedis message) {
+        if (!queue.offer(message)) {
+            droppedCounter.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.search.flush-millis:200}")
+    public void flush() {
+        List<ChatRedis> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                chatSearchRedisRepository.index(batch);
+            } catch (Exception e) {
+                log.error("chatSearchIndexer: failed to index {} messages", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+}
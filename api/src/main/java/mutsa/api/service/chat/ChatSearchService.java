@@ -0,0 +1,197 @@
+package mutsa.api.service.chat;
+
+import mutsa.api.dto.chat.ChatHistoryResponseDto;
+import mutsa.api.dto.chat.ChatResponseDto;
+import mutsa.api.service.user.UserModuleService;
+import mutsa.common.domain.models.chat.ChatMessage;
+import mutsa.common.exception.BusinessException;
+import mutsa.common.exception.ErrorCode;
+import mutsa.common.repository.cache.CachedUser;
+import mutsa.common.repository.chat.ChatMessageRepository;
+import mutsa.common.repository.chatroomUser.ChatroomUserRepository;
+import mutsa.common.repository.redis.chat.ChatRedisRepository;
+import mutsa.common.repository.redis.chat.ChatSearchRedisRepository;
+import mutsa.common.repository.redis.chat.ChatSearchRedisRepository.Hit;
+import mutsa.common.repository.redis.chat.ChatSearchTokenizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 내가 속한 채팅방의 채팅을 검색어로 검색한다.
+ * 방마다 가장 드문 토큰의 색인에서 후보를 최신순으로 가져와 본문에 검색어가 모두 포함되는지 확인하며,
+ * 한 페이지가 채워지지 않으면 더 오래된 후보를 이어서 가져온다.(최대 max-rounds 번)
+ * 색인에는 레디스에 남아있는 채팅만 있으므로, 보관된 적 있는 방은 chat_message 테이블에서도 검색하여 최신순으로 합친다.
+ */
+@Service
+public class ChatSearchService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ChatSearchRedisRepository chatSearchRedisRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatRedisRepository chatRedisRepository;
+    private final ChatroomUserRepository chatroomUserRepository;
+    private final UserModuleService userModuleService;
+    private final int maxRounds;
+
+    public ChatSearchService(
+            ChatSearchRedisRepository chatSearchRedisRepository,
+            ChatMessageRepository chatMessageRepository,
+            ChatRedisRepository chatRedisRepository,
+            ChatroomUserRepository chatroomUserRepository,
+            UserModuleService userModuleService,
+            @Value("${chat.search.max-rounds:5}") int maxRounds
+    ) {
+        this.chatSearchRedisRepository = chatSearchRedisRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.chatRedisRepository = chatRedisRepository;
+        this.chatroomUserRepository = chatroomUserRepository;
+        this.userModuleService = userModuleService;
+        this.maxRounds = maxRounds;
+    }
+
+    /**
+     * @param currentUsername
+     * @param keyword         공백으로 구분된 단어가 모두 포함된 채팅을 찾는다
+     * @param before          이전 페이지의 nextCursor(null 이면 최신 채팅부터)
+     * @param limit
+     * @return 검색된 채팅을 최신순으로 반환합니다.
+     */
+    public ChatHistoryResponseDto search(String currentUsername, String keyword, Long before, Integer limit) {
+        List<String> words = ChatSearchTokenizer.words(keyword);
+        if (words.isEmpty()) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        CachedUser user = userModuleService.getCachedByUsername(currentUsername);
+        List<String> roomIds = chatroomUserRepository.findChatroomApiIdsByUserId(user.id());
+        Map<String, String> roomTokens = new HashMap<>(
+                chatSearchRedisRepository.getRarestTokens(roomIds, new ArrayList<>(ChatSearchTokenizer.tokenize(keyword))));
+
+        //다음 페이지 존재 여부 확인을 위해 한 개를 더 찾는다
+        List<ChatResponseDto> found = new ArrayList<>();
+        Double cursor = before == null ? null : before / 1000.0;
+        int batch = size + 1;
+        for (int round = 0; round < maxRounds && found.size() <= size && !roomTokens.isEmpty(); round++) {
+            Map<String, List<Hit>> candidates = chatSearchRedisRepository.getCandidates(roomTokens, cursor, batch);
+
+            //후보가 더 남은 방의 마지막 score 까지만 모든 방의 순서가 확정된다
+            double frontier = Double.NEGATIVE_INFINITY;
+            for (List<Hit> roomHits : candidates.values()) {
+                if (roomHits.size() >= batch) {
+                    frontier = Math.max(frontier, roomHits.get(roomHits.size() - 1).score());
+                }
+            }
+            List<Hit> hits = new ArrayList<>();
+            for (Map.Entry<String, List<Hit>> entry : candidates.entrySet()) {
+                List<Hit> roomHits = entry.getValue();
+                for (Hit hit : roomHits) {
+                    if (hit.score() >= frontier) {
+                        hits.add(hit);
+                    }
+                }
+                if (roomHits.size() < batch && (roomHits.isEmpty() || roomHits.get(roomHits.size() - 1).score() >= frontier)) {
+                    roomTokens.remove(entry.getKey()); //모든 후보를 확인한 방
+                }
+            }
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+
+            Map<String, ChatResponseDto> messages = loadMessages(hits);
+            for (Hit hit : hits) {
+                ChatResponseDto message = messages.get(hit.messageId());
+                if (message != null && ChatSearchTokenizer.matches(message.getMessage(), words)) {
+                    found.add(message);
+                    if (found.size() > size) {
+                        break;
+                    }
+                }
+            }
+            cursor = frontier;
+            batch *= 2;
+        }
+
+        //레디스 후보를 이 시간(ms)까지는 모두 확인했다(Long.MIN_VALUE 면 끝까지 확인)
+        long checkedUntil;
+        if (found.size() > size) {
+            checkedUntil = found.get(found.size() - 1).getTimestamp();
+        } else if (!roomTokens.isEmpty()) {
+            checkedUntil = Math.round(cursor * 1000.0);
+        } else {
+            checkedUntil = Long.MIN_VALUE;
+        }
+        List<ChatResponseDto> merged = mergeArchived(found, roomIds, words, before, checkedUntil, size + 1);
+
+        if (merged.size() > size) {
+            List<ChatResponseDto> page = new ArrayList<>(merged.subList(0, size));
+            return new ChatHistoryResponseDto(page, page.get(size - 1).getTimestamp(), true);
+        }
+        if (checkedUntil != Long.MIN_VALUE) {
+            //max-rounds 안에 한 페이지를 채우지 못한 경우, 확인한 위치부터 이어서 검색한다
+            return new ChatHistoryResponseDto(merged, checkedUntil, true);
+        }
+        Long nextCursor = merged.isEmpty() ? null : merged.get(merged.size() - 1).getTimestamp();
+        return new ChatHistoryResponseDto(merged, nextCursor, false);
+    }
+
+    /**
+     * 보관된 적 있는 방의 채팅을 테이블에서 검색하여 레디스 결과와 최신순으로 합친다.
+     * 레디스 후보를 확인한 범위(checkedUntil 이후)만 조회하므로 합친 결과는 그 범위 안에서 순서가 확정된다.
+     * (보관 중에는 같은 채팅이 양쪽에 있을 수 있어 id 로 중복을 제거한다)
+     */
+    private List<ChatResponseDto> mergeArchived(List<ChatResponseDto> found, List<String> roomIds, List<String> words,
+                                                Long before, long checkedUntil, int limit) {
+        List<String> archivedRoomIds = chatRedisRepository.getArchivedRoomIds(roomIds);
+        if (archivedRoomIds.isEmpty()) {
+            return found;
+        }
+        LocalDateTime from = checkedUntil == Long.MIN_VALUE ? null : toDateTime(checkedUntil);
+        LocalDateTime beforeTime = before == null ? null : toDateTime(before);
+
+        Map<String, ChatResponseDto> merged = new LinkedHashMap<>();
+        found.forEach(message -> merged.put(message.getId(), message));
+        for (ChatMessage message : chatMessageRepository.searchArchived(archivedRoomIds, words, from, beforeTime, limit)) {
+            merged.putIfAbsent(message.getApiId(), ChatResponseDto.fromEntity(message));
+        }
+        List<ChatResponseDto> messages = new ArrayList<>(merged.values());
+        messages.sort(Comparator.comparing(ChatResponseDto::getTimestamp).reversed());
+        return messages;
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 레디스에서 먼저 찾고, 후보 조회 이후 보관되어 레디스에 없는 채팅은 chat_message 테이블에서 찾는다.(둘 다 없으면 삭제된 채팅)
+     */
+    private Map<String, ChatResponseDto> loadMessages(List<Hit> hits) {
+        Map<String, ChatResponseDto> messages = new HashMap<>();
+        chatSearchRedisRepository.getMessages(hits).forEach((id, chat) ->
+                messages.put(id, ChatResponseDto.fromEntity(chat, chat.getChatroomId())));
+
+        Set<String> archivedIds = new HashSet<>();
+        hits.stream()
+                .map(Hit::messageId)
+                .filter(id -> !messages.containsKey(id))
+                .forEach(archivedIds::add);
+        if (!archivedIds.isEmpty()) {
+            for (ChatMessage message : chatMessageRepository.findByApiIdIn(archivedIds)) {
+                messages.put(message.getApiId(), ChatResponseDto.fromEntity(message));
+            }
+        }
+        return messages;
+    }
+}
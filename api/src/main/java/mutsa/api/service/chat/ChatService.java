@@ -1,85 +1,203 @@
 package mutsa.api.service.chat;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
 import com.google.gson.Gson;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import mutsa.api.config.socket.StompBrokerConfig;
+import mutsa.api.dto.chat.ChatHistoryResponseDto;
 import mutsa.api.dto.chat.ChatRequestDto;
 import mutsa.api.dto.chat.ChatResponseDto;
+import mutsa.api.dto.chat.ReadReceiptDto;
 import mutsa.api.service.chatroom.ChatroomService;
 import mutsa.api.service.user.UserModuleService;
+import mutsa.common.domain.models.chat.ChatMessage;
 import mutsa.common.domain.models.chat.ChatRedis;
-import mutsa.common.domain.models.chatroom.Chatroom;
-import mutsa.common.domain.models.user.User;
+import mutsa.common.exception.BusinessException;
+import mutsa.common.exception.ErrorCode;
+import mutsa.common.repository.cache.CachedUser;
+import mutsa.common.repository.chat.ChatMessageRepository;
+import mutsa.common.repository.redis.chat.ChatReadRedisRepository;
 import mutsa.common.repository.redis.chat.ChatRedisRepository;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ChatService {
+    private static final int DEFAULT_PAGE_SIZE = 30;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Gson GSON = new Gson();
+
     private final UserModuleService userModuleService;
     private final ChatroomService chatroomService;
     private final ChatRedisRepository chatRedisRepository;
-    private final ChannelTopic channelTopic;
-    private final RedisTemplate redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final ChatMessageWriter chatMessageWriter;
+    private final HotRoomMessageCache hotRoomMessageCache;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatReadRedisRepository chatReadRedisRepository;
+    private final ChatBroadcaster chatBroadcaster;
+    private final ChatSearchIndexer chatSearchIndexer;
+    private final StompBrokerConfig stompBrokerConfig;
 
     /**
      * @param chatRequestDto
-     * @return 들어온 채팅을 관리합니다.
+     * @return 들어온 채팅을 관리합니다. 저장, 읽음 정보 갱신, 발행은 ChatMessageWriter 에서 모아서 처리하며, 반영되면 완료되는 future 를 반환합니다.
+     * (clientMessageId 가 같은 재전송이면 저장/발행하지 않고 false 로 완료됩니다)
      */
     @Transactional
-    public void sendMessage(ChatRequestDto chatRequestDto, String currentUsername) {
-        Gson gson = new Gson();
-        User user = userModuleService.getByUsername(currentUsername);
-        Chatroom chatroom = chatroomService.getByApiId(chatRequestDto.getRoomApiId());
-        //채팅 저장
-        ChatRedis chatRedis = ChatRedis.of(chatroom, user, chatRequestDto.getMessage());
-        chatRedisRepository.saveMessage(chatRedis); //채팅 저장
-
-        //반환 정보
-        ChatResponseDto chatResponseDto = ChatResponseDto.fromEntity(chatRedis, chatroom.getApiId());
-        String json = gson.toJson(chatResponseDto);
-
-        redisTemplate.convertAndSend(channelTopic.getTopic(), json);
+    public CompletableFuture<Boolean> sendMessage(ChatRequestDto chatRequestDto, String currentUsername) {
+        CachedUser user = userModuleService.getCachedByUsername(currentUsername);
+        String roomApiId = chatRequestDto.getRoomApiId();
+        //참여자 이름만 한번의 쿼리로 조회한다(채팅방, 참여자 엔티티를 로딩하지 않는다)
+        List<String> members = chatroomService.getMemberUsernames(roomApiId);
+        ChatRedis chatRedis = ChatRedis.of(roomApiId, user.username(), chatRequestDto.getMessage());
+        //보낸 사람을 제외한 참여자의 읽지 않은 메세지 수를 증가시킨다
+        List<String> recipients = members.stream()
+                .filter(username -> !username.equals(user.username()))
+                .toList();
+
+        //반환 정보(구독자에게는 이 json 이 다시 파싱되지 않고 그대로 전달된다)
+        ChatResponseDto chatResponseDto = ChatResponseDto.fromEntity(chatRedis, roomApiId);
+        String json = GSON.toJson(chatResponseDto);
+        //클라이언트가 재전송한 채팅은 저장/발행하지 않는다
+        String dedupKey = StringUtils.hasText(chatRequestDto.getClientMessageId())
+                ? ChatRedisRepository.dedupKey(roomApiId, user.username(), chatRequestDto.getClientMessageId())
+                : null;
+
+        boolean relay = stompBrokerConfig.isRelay();
+        //relay 모드는 외부 브로커가 모든 서버의 구독자에게 전달하므로 레디스에는 저장만 한다
+        String channel = relay ? null : ChatRoomTopicManager.topicOf(roomApiId).getTopic();
+        byte[] payload = json.getBytes(StandardCharsets.UTF_8);
+
+        //채팅 저장 + 발행(내보내기 스트림 포함), 저장된 채팅만 검색 색인 대기열에 추가한다
+        return chatMessageWriter.write(chatRedis, recipients, channel, json, dedupKey)
+                .thenApply(saved -> {
+                    if (saved) {
+                        if (relay) {
+                            chatBroadcaster.send(roomApiId, payload);
+                        }
+                        chatSearchIndexer.add(chatRedis);
+                    }
+                    return saved;
+                });
+    }
+
+    /**
+     * @param roomApiId
+     * @return 입장 시 보여줄 최신 메세지 한 페이지(ChatResponseDto json, 이전 메세지는 스크롤 시 커서로 조회합니다)
+     */
+    public List<RawValue> getLastMessages(String roomApiId) {
+        chatroomService.getByApiId(roomApiId);
+        //재접속이 잦은 방은 서버 메모리에 보관된 최신 메세지를 사용한다
+        //(relay 모드에서는 새 메세지가 이 서버를 거치지 않아 캐시되지 않는다)
+        return hotRoomMessageCache.getOrLoad(roomApiId, DEFAULT_PAGE_SIZE,
+                () -> getMessages(roomApiId, null, null, Math.max(hotRoomMessageCache.getCapacity(), DEFAULT_PAGE_SIZE)).getMessages());
     }
 
     /**
      * @param roomApiId
-     * @return 이전 메세지를 불러오는 기능(레디스 정보를 파싱해서 가져옵니다)
+     * @param currentUsername
+     * @param before          이전 페이지의 nextCursor(null 이면 최신 메세지부터)
+     * @param beforeId        이전 페이지의 nextCursorId
+     * @param limit
+     * @return 채팅방 참여자만 이전 메세지를 커서 기반으로 조회합니다.
      */
-    public List<ChatResponseDto> getLastMessages(String roomApiId) {
+    public ChatHistoryResponseDto getMessageHistory(String roomApiId, String currentUsername, Long before, String beforeId, Integer limit) {
+        checkMember(roomApiId, currentUsername);
+
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return getMessages(roomApiId, before, beforeId, size);
+    }
+
+    /**
+     * 채팅방을 보고 있는 동안 클라이언트가 호출하여 읽지 않은 메세지 수를 초기화합니다.
+     *
+     * @param roomApiId
+     * @param currentUsername
+     * @param cursor          마지막으로 읽은 메세지의 timestamp(null 이면 현재 시각)
+     */
+    public void markAsRead(String roomApiId, String currentUsername, Long cursor) {
+        checkMember(roomApiId, currentUsername);
+        chatReadRedisRepository.markRead(currentUsername, roomApiId, cursor == null ? System.currentTimeMillis() : cursor);
+    }
+
+    /**
+     * @param roomApiId
+     * @param currentUsername
+     * @return 다른 참여자가 마지막으로 읽은 메세지 시각(읽음 표시), 읽은 적이 없으면 readCursor 가 null
+     */
+    public List<ReadReceiptDto> getReadReceipts(String roomApiId, String currentUsername) {
+        List<String> members = checkMember(roomApiId, currentUsername);
+        return members.stream()
+                .filter(username -> !username.equals(currentUsername))
+                .map(username -> new ReadReceiptDto(username, chatReadRedisRepository.getReadCursor(username, roomApiId)))
+                .toList();
+    }
+
+    /**
+     * @return 채팅방 참여자 이름
+     */
+    private List<String> checkMember(String roomApiId, String currentUsername) {
+        List<String> members = chatroomService.getMemberUsernames(roomApiId);
+        if (!members.contains(currentUsername)) {
+            throw new BusinessException(ErrorCode.CHATROOM_PERMISSION_DENIED);
+        }
+        return members;
+    }
+
+    /**
+     * @return 레디스 정보를 파싱해서 before 이전의 메세지를 최신순으로 가져옵니다.
+     * 레디스 보관 범위를 넘어가는 경우 chat_message 테이블에서 이어서 가져옵니다.
+     */
+    private ChatHistoryResponseDto getMessages(String roomApiId, Long before, String beforeId, int size) {
+        //다음 페이지 존재 여부 확인을 위해 한 개를 더 조회한다
+        List<ChatRedis> values = chatRedisRepository.getMessagesBefore(roomApiId, before, beforeId, size + 1);
 
         List<ChatResponseDto> responseDtos = new ArrayList<>();
-        if (chatroomService.getByApiId(roomApiId) != null) {
-
-            int offset = 0;
-            int size = 200;
-            Set<String> values = chatRedisRepository.getMessages(roomApiId, offset, size);
-            for (String value : values) {
-                ChatResponseDto chatResponseDto = null;
-                try {
-                    ChatRedis chat = objectMapper.readValue(value, ChatRedis.class);
-                    chatResponseDto = ChatResponseDto.fromEntity(chat, roomApiId);
-                } catch (JsonProcessingException e) {
-                    throw new RuntimeException(e);
-                }
-                responseDtos.add(chatResponseDto);
-            }
-        } else {
-            responseDtos.add(new ChatResponseDto("ADMIN", "", "빈방임", roomApiId));
+        for (ChatRedis chat : values) {
+            responseDtos.add(ChatResponseDto.fromEntity(chat, roomApiId));
+        }
+
+        //보관된 적 없는 방은 테이블을 조회하지 않는다
+        if (responseDtos.size() <= size && chatRedisRepository.isArchived(roomApiId)) {
+            ChatResponseDto last = responseDtos.isEmpty() ? null : responseDtos.get(responseDtos.size() - 1);
+            Long cursor = last == null ? before : last.getTimestamp();
+            String cursorId = last == null ? beforeId : last.getId();
+            getArchivedMessages(roomApiId, cursor, cursorId, size + 1 - responseDtos.size())
+                    .forEach(message -> responseDtos.add(ChatResponseDto.fromEntity(message)));
         }
 
-        return responseDtos;
+        boolean hasNext = responseDtos.size() > size;
+        List<ChatResponseDto> page = hasNext ? new ArrayList<>(responseDtos.subList(0, size)) : responseDtos;
+        ChatResponseDto last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return new ChatHistoryResponseDto(page, last == null ? null : last.getTimestamp(), last == null ? null : last.getId(), hasNext);
+    }
+
+    /**
+     * 레디스와 같은 (생성 시간, 채팅 id) 순서로 조회하여, 같은 시각의 메세지가 레디스와 테이블에 나뉘어 있어도 누락되지 않는다.
+     */
+    private List<ChatMessage> getArchivedMessages(String roomApiId, Long before, String beforeId, int size) {
+        PageRequest pageRequest = PageRequest.of(0, size);
+        if (before == null) {
+            return chatMessageRepository.findByChatroomApiIdOrderByCreatedAtDescApiIdDesc(roomApiId, pageRequest);
+        }
+        LocalDateTime beforeTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(before), ZoneId.systemDefault());
+        if (beforeId == null) {
+            return chatMessageRepository.findByChatroomApiIdAndCreatedAtBeforeOrderByCreatedAtDescApiIdDesc(roomApiId, beforeTime, pageRequest);
+        }
+        return chatMessageRepository.findBeforeCursor(roomApiId, beforeTime, beforeId, pageRequest);
     }
 }
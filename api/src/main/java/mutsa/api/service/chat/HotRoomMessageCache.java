@@ -0,0 +1,257 @@
+package mutsa.api.service.chat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import mutsa.api.dto.chat.ChatResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 최근에 사용된 방의 최신 메세지를 서버 메모리에 보관한다.
+ * 방마다 capacity 개의 메세지를 발행된 json 그대로(최신순) 보관하며, 조회 시에도 다시 파싱하지 않고 그대로 반환한다.
+ * 방 수는 maxRooms 를 넘으면 가장 오래 사용되지 않은 방부터(LRU), ttl 동안 조회되지 않은 방은 sweep-millis 마다 제거된다.
+ * <ul>
+ *     <li>새 메세지는 RedisMessageSubscriber 에서 추가되므로, 레디스 채널 구독이 확인된(onSubscribed) 방만 캐시한다.
+ *     (relay 모드에서는 레디스 채널을 구독하지 않으므로 조회한 메세지를 그대로 반환한다)</li>
+ *     <li>캐시를 채울 때는 로딩을 시작하기 전부터 도착한 메세지를 모아두었다가 채팅 id 로 합치므로,
+ *     로딩과 구독 사이에 발행된 메세지도 누락되지 않는다.(파싱은 이때만 한다)</li>
+ *     <li>이 서버에 구독자가 없는 방은 ChatRoomTopicManager 에서 제거한다.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class HotRoomMessageCache {
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final int maxRooms;
+    private final long ttlMillis;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Map<String, RoomBuffer> rooms;
+    //레디스 채널 구독이 확인된 방(이 방들만 새 메세지를 빠짐없이 받는다)
+    private final Set<String> subscribedRooms = new HashSet<>();
+
+    public HotRoomMessageCache(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${chat.cache.capacity:50}") int capacity,
+            @Value("${chat.cache.max-rooms:1000}") int maxRooms,
+            @Value("${chat.cache.ttl-seconds:600}") long ttlSeconds
+    ) {
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.maxRooms = maxRooms;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.rooms = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RoomBuffer> eldest) {
+                return size() > HotRoomMessageCache.this.maxRooms;
+            }
+        };
+        this.hitCounter = Counter.builder("chat.history.cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("chat.history.cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("chat.history.cache.rooms", this, HotRoomMessageCache::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param roomApiId
+     * @param size   반환할 메세지 수(capacity 이하)
+     * @param loader 캐시에 없을 때 최신 메세지 capacity 개를 조회하는 함수
+     * @return 최신순 메세지 size 개(ChatResponseDto json)
+     */
+    public List<RawValue> getOrLoad(String roomApiId, int size, Supplier<List<ChatResponseDto>> loader) {
+        RoomBuffer buffer = null;
+        synchronized (this) {
+            RoomBuffer cached = rooms.get(roomApiId);
+            if (cached != null && cached.warm && !cached.isExpired(System.currentTimeMillis())) {
+                hitCounter.increment();
+                cached.lastAccess = System.currentTimeMillis();
+                return cached.latest(size);
+            }
+            //구독이 확인된 방만 캐시한다. 로딩 중에 도착한 메세지는 pending 에 모아두었다가 합친다
+            if (subscribedRooms.contains(roomApiId)) {
+                buffer = new RoomBuffer();
+                rooms.put(roomApiId, buffer);
+            }
+        }
+        missCounter.increment();
+
+        List<ChatResponseDto> loaded;
+        try {
+            loaded = loader.get();
+        } catch (RuntimeException e) {
+            if (buffer != null) {
+                synchronized (this) {
+                    rooms.remove(roomApiId, buffer);
+                }
+            }
+            throw e;
+        }
+        List<byte[]> encoded = encode(loaded);
+        if (buffer == null) {
+            return toRawValues(encoded, size);
+        }
+        synchronized (this) {
+            buffer.load(loaded, encoded);
+            //로딩 중에 제거된 방(구독자가 모두 떠남)은 다시 캐시하지 않는다
+            if (rooms.get(roomApiId) == buffer) {
+                buffer.warm = true;
+            }
+            return buffer.latest(size);
+        }
+    }
+
+    /**
+     * 레디스로 발행된 메세지를 캐시된 방에만 추가한다.(파싱하지 않는다)
+     *
+     * @param roomApiId
+     * @param payload   ChatResponseDto json
+     */
+    public synchronized void append(String roomApiId, byte[] payload) {
+        RoomBuffer buffer = rooms.get(roomApiId);
+        if (buffer != null) {
+            buffer.add(payload);
+        }
+    }
+
+    /**
+     * 레디스 채널 구독이 확인되었다.(이후에 발행된 메세지는 append 로 들어온다)
+     */
+    public synchronized void onSubscribed(String roomApiId) {
+        subscribedRooms.add(roomApiId);
+    }
+
+    /**
+     * 레디스 채널 구독이 해제되어 더 이상 새 메세지를 받지 않으므로 캐시된 메세지도 제거한다.
+     */
+    public synchronized void evict(String roomApiId) {
+        subscribedRooms.remove(roomApiId);
+        rooms.remove(roomApiId);
+    }
+
+    /**
+     * ttl 동안 조회되지 않은 방을 제거한다.(조회되지 않는 방의 메세지가 계속 쌓여있지 않도록)
+     */
+    @Scheduled(fixedDelayString = "${chat.cache.sweep-millis:60000}")
+    public synchronized void evictExpired() {
+        long now = System.currentTimeMillis();
+        rooms.values().removeIf(buffer -> buffer.isExpired(now));
+    }
+
+    public synchronized int size() {
+        return rooms.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private List<byte[]> encode(List<ChatResponseDto> messages) {
+        List<byte[]> encoded = new ArrayList<>(messages.size());
+        for (ChatResponseDto message : messages) {
+            try {
+                encoded.add(objectMapper.writeValueAsBytes(message));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return encoded;
+    }
+
+    private static List<RawValue> toRawValues(Collection<byte[]> messages, int size) {
+        List<RawValue> result = new ArrayList<>(Math.min(size, messages.size()));
+        Iterator<byte[]> iterator = messages.iterator();
+        while (iterator.hasNext() && result.size() < size) {
+            result.add(new RawValue(new String(iterator.next(), StandardCharsets.UTF_8)));
+        }
+        return result;
+    }
+
+    private class RoomBuffer {
+        private final Deque<byte[]> messages = new ArrayDeque<>(capacity);
+        private final List<byte[]> pending = new ArrayList<>();
+        private boolean warm;
+        private long lastAccess = System.currentTimeMillis();
+
+        private boolean isExpired(long now) {
+            return now - lastAccess > ttlMillis;
+        }
+
+        private void add(byte[] payload) {
+            if (!warm) {
+                pending.add(payload);
+                if (pending.size() > capacity) {
+                    pending.remove(0);
+                }
+                return;
+            }
+            messages.addFirst(payload);
+            if (messages.size() > capacity) {
+                messages.removeLast();
+            }
+        }
+
+        /**
+         * @param loaded  조회한 최신순 메세지
+         * @param encoded loaded 의 json
+         */
+        private void load(List<ChatResponseDto> loaded, List<byte[]> encoded) {
+            Set<String> ids = new HashSet<>();
+            for (int i = 0; i < Math.min(loaded.size(), capacity); i++) {
+                messages.addLast(encoded.get(i));
+                ids.add(loaded.get(i).getId());
+            }
+            //조회 결과에 이미 포함된 메세지는 제외하고, 이후에 도착한 메세지만 도착한 순서대로 앞에 추가한다
+            for (byte[] payload : pending) {
+                String id = readId(payload);
+                if (id == null || ids.add(id)) {
+                    messages.addFirst(payload);
+                }
+            }
+            pending.clear();
+            while (messages.size() > capacity) {
+                messages.removeLast();
+            }
+        }
+
+        private String readId(byte[] payload) {
+            try {
+                JsonNode id = objectMapper.readTree(payload).get("id");
+                return id == null || id.isNull() ? null : id.asText();
+            } catch (IOException e) {
+                log.warn("hotRoomMessageCache: failed to read id of pending message", e);
+                return null;
+            }
+        }
+
+        private List<RawValue> latest(int size) {
+            return toRawValues(messages, size);
+        }
+    }
+}
@@ -1,42 +1,77 @@
 package mutsa.api.service.chat;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import mutsa.api.dto.chat.ChatResponseDto;
-import mutsa.common.exception.BusinessException;
-import mutsa.common.exception.ErrorCode;
+import mutsa.api.config.socket.StompBrokerConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.data.redis.connection.SubscriptionListener;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class RedisMessageSubscriber implements MessageListener {
-    private final ObjectMapper objectMapper;
-    private final RedisTemplate redisTemplate;
-    private final SimpMessageSendingOperations messagingTemplate;
+@ConditionalOnProperty(name = StompBrokerConfig.MODE_PROPERTY, havingValue = StompBrokerConfig.SIMPLE, matchIfMissing = true)
+public class RedisMessageSubscriber implements MessageListener, SubscriptionListener {
+    private static final String ROOM_CHANNEL_PREFIX = String.format(ChatRoomTopicManager.ROOM_CHANNEL, "");
+
+    private final ChatBroadcaster chatBroadcaster;
+    private final HotRoomMessageCache hotRoomMessageCache;
 
     /**
      * 여기서 메세지를 다시 구독자들에게 전송합니다.(레디스 pub/sub)
+     * 발행된 본문은 이미 ChatResponseDto 의 json 이므로 다시 파싱하지 않고 바이트 그대로 전달합니다.
+     * 방 id 는 채널 이름(chat:room:{roomApiId})에서 가져옵니다.
      * @param message message must not be {@literal null}.
      * @param pattern pattern matching the channel (if specified) - can be {@literal null}.
      */
     @Override
     public void onMessage(final Message message, final byte[] pattern) {
-        try {
-            String publishMessage = (String) redisTemplate.getStringSerializer().deserialize(message.getBody());
-            ChatResponseDto chatResponseDto = objectMapper.readValue(publishMessage, ChatResponseDto.class);
+        String roomApiId = getRoomApiId(message.getChannel());
+        if (roomApiId == null) {
+            return;
+        }
+
+        chatBroadcaster.send(roomApiId, message.getBody());
+        hotRoomMessageCache.append(roomApiId, message.getBody());
+    }
+
+    /**
+     * 레디스가 채널 구독을 확인한 이후에 발행된 메세지만 onMessage 로 들어오므로, 이때부터 캐시를 채울 수 있다.
+     */
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        String roomApiId = getRoomApiId(channel);
+        if (roomApiId != null) {
+            hotRoomMessageCache.onSubscribed(roomApiId);
+        }
+    }
+
+    @Override
+    public void onChannelUnsubscribed(byte[] channel, long count) {
+        String roomApiId = getRoomApiId(channel);
+        if (roomApiId != null) {
+            hotRoomMessageCache.evict(roomApiId);
+        }
+    }
 
-            log.info("redisMessageSubscriber: data from {}", chatResponseDto);
-            log.info("redisMessageSubscriber: data to {}", "/sub/chat/room/" + chatResponseDto.getChatroomApiId());
-            messagingTemplate.convertAndSend("/sub/chat/room/" + chatResponseDto.getChatroomApiId(), chatResponseDto);
+    @Override
+    public void onPatternSubscribed(byte[] pattern, long count) {
+    }
+
+    @Override
+    public void onPatternUnsubscribed(byte[] pattern, long count) {
+    }
 
-        } catch (Exception e) {
-            throw new BusinessException(ErrorCode.CHAT_NOT_FOUND);
+    private String getRoomApiId(byte[] channelBytes) {
+        String channel = new String(channelBytes, StandardCharsets.UTF_8);
+        if (!channel.startsWith(ROOM_CHANNEL_PREFIX)) {
+            log.warn("redisMessageSubscriber: unknown channel {}", channel);
+            return null;
         }
+        return channel.substring(ROOM_CHANNEL_PREFIX.length());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,215 @@
+package mutsa.api.service.chat;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 이 서버의 STOMP 세션을 유저별, 채팅방(/sub/chat/room/{roomApiId})별로 집계한다.
+ * 세션 -> 구독 -> 채팅방 상태는 이 클래스만 관리하고, 다른 컴포넌트는 집계 값을 읽거나 RoomListener 로 변경을 받는다.
+ * 채팅방 구독 변경은 ChatPresenceService 에 전달하여 접속 상태로 사용한다.
+ */
+@Component
+public class StompSessionRegistry {
+    private final ChatPresenceService chatPresenceService;
+
+    //sessionId -> 세션 정보
+    private final Map<String, SessionInfo> sessions = new HashMap<>();
+    //username -> 세션 수
+    private final Map<String, Integer> userSessions = new HashMap<>();
+    //roomApiId -> 구독 수
+    private final Map<String, Integer> roomSubscriptions = new HashMap<>();
+    private int subscriptionCount;
+    private final List<RoomListener> roomListeners = new CopyOnWriteArrayList<>();
+
+    public StompSessionRegistry(ChatPresenceService chatPresenceService, MeterRegistry meterRegistry) {
+        this.chatPresenceService = chatPresenceService;
+        Gauge.builder("chat.websocket.sessions", this, StompSessionRegistry::getSessionCount)
+                .register(meterRegistry);
+        Gauge.builder("chat.websocket.users", this, StompSessionRegistry::getUserCount)
+                .register(meterRegistry);
+        Gauge.builder("chat.websocket.subscriptions", this, StompSessionRegistry::getSubscriptionCount)
+                .register(meterRegistry);
+        Gauge.builder("chat.websocket.rooms", this, StompSessionRegistry::getRoomCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 채팅방의 첫 구독/마지막 구독 해제를 받을 리스너를 등록한다.
+     */
+    public void addRoomListener(RoomListener listener) {
+        roomListeners.add(listener);
+    }
+
+    @EventListener
+    public void handleConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (user == null || sessionId == null) {
+            return;
+        }
+        synchronized (this) {
+            if (sessions.putIfAbsent(sessionId, new SessionInfo(user.getName())) == null) {
+                userSessions.merge(user.getName(), 1, Integer::sum);
+            }
+        }
+    }
+
+    @EventListener
+    public void handleSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String roomApiId = extractRoomApiId(accessor.getDestination());
+        if (roomApiId == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+
+        String username;
+        String previous;
+        boolean previousEmptied = false;
+        boolean first;
+        synchronized (this) {
+            SessionInfo session = sessions.get(accessor.getSessionId());
+            if (session == null) {
+                return;
+            }
+            username = session.username;
+            previous = session.rooms.put(accessor.getSubscriptionId(), roomApiId);
+            if (previous != null) {
+                previousEmptied = release(previous);
+            }
+            first = roomSubscriptions.merge(roomApiId, 1, Integer::sum) == 1;
+            subscriptionCount++;
+        }
+        if (previousEmptied) {
+            roomListeners.forEach(listener -> listener.onLastUnsubscribed(previous));
+        }
+        if (first) {
+            roomListeners.forEach(listener -> listener.onFirstSubscribed(roomApiId));
+        }
+        if (previous != null) {
+            chatPresenceService.leave(previous, username);
+        }
+        chatPresenceService.join(roomApiId, username);
+    }
+
+    @EventListener
+    public void handleUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String username;
+        String roomApiId;
+        boolean emptied;
+        synchronized (this) {
+            SessionInfo session = sessions.get(accessor.getSessionId());
+            if (session == null || accessor.getSubscriptionId() == null) {
+                return;
+            }
+            username = session.username;
+            roomApiId = session.rooms.remove(accessor.getSubscriptionId());
+            if (roomApiId == null) {
+                return;
+            }
+            emptied = release(roomApiId);
+        }
+        if (emptied) {
+            roomListeners.forEach(listener -> listener.onLastUnsubscribed(roomApiId));
+        }
+        chatPresenceService.leave(roomApiId, username);
+    }
+
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        SessionInfo session;
+        List<String> emptiedRooms = new ArrayList<>();
+        synchronized (this) {
+            session = sessions.remove(event.getSessionId());
+            if (session == null) {
+                return;
+            }
+            userSessions.computeIfPresent(session.username, (key, value) -> value > 1 ? value - 1 : null);
+            session.rooms.values().forEach(roomApiId -> {
+                if (release(roomApiId)) {
+                    emptiedRooms.add(roomApiId);
+                }
+            });
+        }
+        emptiedRooms.forEach(roomApiId -> roomListeners.forEach(listener -> listener.onLastUnsubscribed(roomApiId)));
+        session.rooms.values().forEach(roomApiId -> chatPresenceService.leave(roomApiId, session.username));
+    }
+
+    public synchronized int getSessionCount() {
+        return sessions.size();
+    }
+
+    public synchronized int getUserCount() {
+        return userSessions.size();
+    }
+
+    public synchronized int getSubscriptionCount() {
+        return subscriptionCount;
+    }
+
+    public synchronized int getRoomCount() {
+        return roomSubscriptions.size();
+    }
+
+    public synchronized int getUserSessionCount(String username) {
+        return userSessions.getOrDefault(username, 0);
+    }
+
+    public synchronized int getRoomSubscriptionCount(String roomApiId) {
+        return roomSubscriptions.getOrDefault(roomApiId, 0);
+    }
+
+    /**
+     * @return 채팅방의 마지막 구독이 해제되었으면 true(리스너는 락을 해제한 뒤에 호출한다)
+     */
+    private boolean release(String roomApiId) {
+        subscriptionCount--;
+        return roomSubscriptions.computeIfPresent(roomApiId, (key, value) -> value > 1 ? value - 1 : null) == null;
+    }
+
+    private String extractRoomApiId(String destination) {
+        if (destination == null || !destination.startsWith(ChatBroadcaster.ROOM_DESTINATION)) {
+            return null;
+        }
+        String roomApiId = destination.substring(ChatBroadcaster.ROOM_DESTINATION.length());
+        if (roomApiId.isEmpty() || roomApiId.contains("/")) {
+            return null; //presence 구독 등 하위 destination 은 제외
+        }
+        return roomApiId;
+    }
+
+    /**
+     * 이 서버에서 채팅방의 구독 수가 0 -> 1, 1 -> 0 이 될 때 호출된다.
+     * 집계 락을 해제한 뒤에 호출하므로(레디스 구독 등 오래 걸리는 작업이 다른 세션의 집계를 막지 않도록)
+     * 같은 방의 호출이 다른 스레드에서 순서가 바뀌어 올 수 있다. 리스너는 getRoomSubscriptionCount 로 현재 상태를 확인한다.
+     */
+    public interface RoomListener {
+        void onFirstSubscribed(String roomApiId);
+
+        void onLastUnsubscribed(String roomApiId);
+    }
+
+    private static class SessionInfo {
+        private final String username;
+        //subscriptionId -> roomApiId
+        private final Map<String, String> rooms = new HashMap<>();
+
+        private SessionInfo(String username) {
+            this.username = username;
+        }
+    }
+}
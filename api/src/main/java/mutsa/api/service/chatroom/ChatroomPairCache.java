@@ -0,0 +1,37 @@
+package mutsa.api.service.chatroom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 1:1 채팅방 키(Chatroom.pairKey) -> 채팅방 id 를 서버 메모리에 보관한다.(LRU)
+ * 채팅방은 삭제되지 않으므로 값이 바뀌지 않지만, 저장이 롤백된 경우를 위해 조회에 실패하면 호출자가 evict 한다.
+ */
+@Component
+public class ChatroomPairCache {
+    private final Map<String, Long> chatroomIds;
+
+    public ChatroomPairCache(@Value("${chat.room-cache.max-size:10000}") int maxSize) {
+        this.chatroomIds = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized Long get(String pairKey) {
+        return chatroomIds.get(pairKey);
+    }
+
+    public synchronized void put(String pairKey, Long chatroomId) {
+        chatroomIds.put(pairKey, chatroomId);
+    }
+
+    public synchronized void evict(String pairKey) {
+        chatroomIds.remove(pairKey);
+    }
+}
@@ -0,0 +1,136 @@
+package mutsa.api.service.chatroom;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mutsa.common.domain.models.chatroom.Chatroom;
+import mutsa.common.domain.models.chatroomUser.ChatroomUser;
+import mutsa.common.repository.chatroom.ChatroomRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * pairKey 가 추가되기 전에 생성된 채팅방에 참여자 id 로 pairKey 를 채운다.
+ * 이미 같은 두 사람의 방에 pairKey 가 있으면(중복 방) 기존 방을 사용하도록 비워둔다.
+ * <ul>
+ *     <li>여러 서버가 동시에 기동해도 레디스 락을 잡은 서버 하나만 실행하고, 끝까지 채우면 완료 기록을 남겨 다시 실행하지 않는다.</li>
+ *     <li>pairKey 가 없는 방만 대상으로 하므로 중간에 실패하거나 완료 기록이 사라져 다시 실행되어도 결과는 같다.</li>
+ *     <li>실패해도 서버 기동을 막지 않고, 남은 방은 다음 기동 때 채운다.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ChatroomPairKeyBackfill {
+    static final String LOCK_KEY = "chat:pair-key-backfill:lock";
+    static final String DONE_KEY = "chat:pair-key-backfill:done";
+    //락을 잡은 서버의 토큰과 같을 때만 해제한다(락 유지 시간을 넘긴 실행이 다른 서버의 락을 지우지 않도록)
+    private static final RedisScript<Long> UNLOCK_SCRIPT = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final ChatroomRepository chatroomRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate redisTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(DONE_KEY))) {
+            return;
+        }
+        String token = UUID.randomUUID().toString();
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, token, Duration.ofMinutes(10));
+        if (!Boolean.TRUE.equals(locked)) {
+            log.info("chatroomPairKeyBackfill: running on another server, skipped");
+            return;
+        }
+        try {
+            long updated = backfillAll();
+            redisTemplate.opsForValue().set(DONE_KEY, Long.toString(System.currentTimeMillis()));
+            if (updated > 0) {
+                log.info("chatroomPairKeyBackfill: set pair key of {} chatrooms", updated);
+            }
+        } catch (RuntimeException e) {
+            log.error("chatroomPairKeyBackfill: failed, remaining chatrooms will be filled on next startup", e);
+        } finally {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(LOCK_KEY), token);
+        }
+    }
+
+    private long backfillAll() {
+        long lastId = 0L;
+        long updated = 0L;
+        while (true) {
+            long from = lastId;
+            List<Long> chatroomIds = transactionTemplate.execute(status ->
+                    chatroomRepository.findTop500ByIdGreaterThanAndPairKeyIsNullOrderByIdAsc(from).stream()
+                            .map(Chatroom::getId)
+                            .toList());
+            if (chatroomIds == null || chatroomIds.isEmpty()) {
+                return updated;
+            }
+            updated += backfillBatch(chatroomIds);
+            lastId = chatroomIds.get(chatroomIds.size() - 1);
+        }
+    }
+
+    /**
+     * 실행 중에 새로 생성된 방과 pairKey 가 겹치면(유니크 제약) 배치 전체가 롤백되므로, 그 배치만 방마다 나눠서 다시 채운다.
+     */
+    private int backfillBatch(List<Long> chatroomIds) {
+        try {
+            Integer updated = transactionTemplate.execute(status -> fill(chatroomIds));
+            return updated == null ? 0 : updated;
+        } catch (DataIntegrityViolationException e) {
+            int updated = 0;
+            for (Long chatroomId : chatroomIds) {
+                try {
+                    Integer one = transactionTemplate.execute(status -> fill(List.of(chatroomId)));
+                    updated += one == null ? 0 : one;
+                } catch (DataIntegrityViolationException duplicated) {
+                    log.warn("chatroomPairKeyBackfill: duplicated chatroom id {}", chatroomId);
+                }
+            }
+            return updated;
+        }
+    }
+
+    private int fill(List<Long> chatroomIds) {
+        Set<String> assigned = new HashSet<>();
+        int updated = 0;
+        //같은 두 사람의 방이 여러 개면 먼저 생성된(id 가 작은) 방에 채운다
+        List<Chatroom> chatrooms = chatroomRepository.findAllById(chatroomIds).stream()
+                .sorted(Comparator.comparing(Chatroom::getId))
+                .toList();
+        for (Chatroom chatroom : chatrooms) {
+            List<ChatroomUser> users = chatroom.getUsers();
+            if (chatroom.getPairKey() != null || users.size() != 2) {
+                continue;
+            }
+            String pairKey = Chatroom.pairKeyOf(users.get(0).getUser().getId(), users.get(1).getUser().getId());
+            if (!assigned.add(pairKey) || chatroomRepository.existsByPairKey(pairKey)) {
+                log.warn("chatroomPairKeyBackfill: duplicated chatroom {} for pair {}", chatroom.getApiId(), pairKey);
+                continue;
+            }
+            chatroom.setPairKey(pairKey);
+            updated++;
+        }
+        //유니크 제약 위반을 이 트랜잭션 안에서 확인한다
+        chatroomRepository.flush();
+        return updated;
+    }
+}
@@ -2,6 +2,7 @@ package mutsa.api.service.chatroom;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import mutsa.api.dto.chat.ChatResponseDto;
 import mutsa.api.dto.chat.ChatRoomDetailDto;
 import mutsa.api.dto.chat.ChatroomRequestDto;
 import mutsa.api.dto.chat.ChatroomResponseDto;
@@ -14,12 +15,22 @@ import mutsa.common.domain.models.user.User;
 import mutsa.common.dto.chatroom.ChatroomUserResult;
 import mutsa.common.exception.BusinessException;
 import mutsa.common.exception.ErrorCode;
+import mutsa.common.repository.cache.CachedUser;
+import mutsa.common.repository.chat.ChatMessageRepository;
 import mutsa.common.repository.chatroom.ChatroomRepository;
 import mutsa.common.repository.chatroomUser.ChatroomUserRepository;
+import mutsa.common.repository.redis.chat.ChatReadRedisRepository;
+import mutsa.common.repository.redis.chat.ChatRedisRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -32,21 +43,37 @@ import static mutsa.common.exception.ErrorCode.ORDER_NOT_FOUND;
 public class ChatroomService {
     private final ChatroomRepository chatroomRepository;
     private final ChatroomUserRepository chatroomUserRepository;
+    private final ChatroomPairCache chatroomPairCache;
     private final ArticleModuleService articleModuleService;
     private final UserModuleService userModuleService;
+    private final ChatReadRedisRepository chatReadRedisRepository;
+    private final ChatRedisRepository chatRedisRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * @param dto
      * @param username
      * @return 이미 채팅방이 있는 경우는 기존의 방을 리턴, 아닌경우 새로운 방을 리턴한다
+     * 같은 두 사람의 방이 동시에 생성되어 pairKey 유니크 제약에 걸리면, 새 트랜잭션에서 먼저 생성된 방을 찾아 리턴한다.
      */
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ChatRoomDetailDto createChatRoom(ChatroomRequestDto dto, String username) {
+        try {
+            return transactionTemplate.execute(status -> findOrCreateChatRoom(dto, username));
+        } catch (DataIntegrityViolationException e) {
+            log.info("chatService: chatroom was created concurrently, returning the existing one", e);
+            return transactionTemplate.execute(status -> findOrCreateChatRoom(dto, username));
+        }
+    }
+
+    private ChatRoomDetailDto findOrCreateChatRoom(ChatroomRequestDto dto, String username) {
         User suggester = userModuleService.getByUsername(username);//제안하는 사람
         Article article = articleModuleService.getByApiId(dto.getArticleApiId());
         User seller = article.getUser();//지금 사려고 하는 아이템의 판매자
 
-        Optional<Chatroom> byChatroomWithUsers = chatroomUserRepository.findByChatroomWithUsers(seller, suggester);
+        String pairKey = Chatroom.pairKeyOf(seller.getId(), suggester.getId());
+        Optional<Chatroom> byChatroomWithUsers = findByPairKey(pairKey);
         if (!byChatroomWithUsers.isEmpty()) { //이미 해당 유저와의 채팅방이 존재한다.
             Chatroom chatroom = byChatroomWithUsers.get();
             if (!chatroom.getArticleApiId().equals(dto.getArticleApiId())) {
@@ -65,7 +92,8 @@ public class ChatroomService {
         }
 
         //채팅방 생성
-        Chatroom chatroom = chatroomRepository.save(Chatroom.of(dto.getArticleApiId()));
+        Chatroom chatroom = chatroomRepository.save(Chatroom.of(dto.getArticleApiId(), pairKey));
+        chatroomPairCache.put(pairKey, chatroom.getId());
         log.info("chatService: Success on CreateChatRoom " + chatroom.getArticleApiId());
 
         //유저들과 연결(매핑 테이블 생성)
@@ -78,19 +106,47 @@ public class ChatroomService {
 
     /**
      * @param username
-     * @return 내가 속한 채팅방을 반환(상대방의 이름으로 된 채팅방)
+     * @return 내가 속한 채팅방을 반환(상대방의 이름으로 된 채팅방, 게시글 정보, 최신 메세지, 읽지 않은 메세지 수 포함)
      */
     public List<ChatroomResponseDto> findMyChatroom(String username) {
-        User user = userModuleService.getByUsername(username);//현재 내가 누구인가
+        CachedUser user = userModuleService.getCachedByUsername(username);//현재 내가 누구인가
 
-        //chat room 중에 내가 속한 방이 있다면 모두 보여준다.
-        List<ChatroomUserResult> chatrooms = chatroomUserRepository.findByUser(user);
+        //chat room 중에 내가 속한 방이 있다면 게시글 정보와 함께 한번에 조회한다.
+        List<ChatroomUserResult> chatrooms = chatroomUserRepository.findByUserId(user.id());
+        List<String> roomIds = chatrooms.stream().map(ChatroomUserResult::getChatroom).toList();
+
+        //모든 방의 읽지 않은 메세지 수, 최신 메세지를 방 개수와 상관없이 한번에 조회한다
+        Map<String, Long> unreadCounts = chatReadRedisRepository.getUnreadCounts(username, roomIds);
+        Map<String, ChatResponseDto> lastMessages = getLastMessages(roomIds);
 
         return chatrooms.stream()
-                .map(o -> new ChatroomResponseDto(o.getChatroom(), o.getUser()))
+                .map(o -> {
+                    ChatroomResponseDto dto = ChatroomResponseDto.fromResult(o);
+                    dto.setLastMessage(lastMessages.get(o.getChatroom()));
+                    dto.setUnreadCount(unreadCounts.getOrDefault(o.getChatroom(), 0L));
+                    return dto;
+                })
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 레디스에서 파이프라인으로 조회하고, 레디스 보관 기간이 지나 메세지가 없는 방만 chat_message 테이블에서 조회한다.
+     */
+    private Map<String, ChatResponseDto> getLastMessages(List<String> roomIds) {
+        Map<String, ChatResponseDto> lastMessages = new HashMap<>();
+        chatRedisRepository.getLatestMessages(roomIds)
+                .forEach((roomId, chat) -> lastMessages.put(roomId, ChatResponseDto.fromEntity(chat, roomId)));
+
+        List<String> archivedRoomIds = roomIds.stream()
+                .filter(roomId -> !lastMessages.containsKey(roomId))
+                .toList();
+        if (!archivedRoomIds.isEmpty()) {
+            chatMessageRepository.findLatestByChatroomApiIdIn(archivedRoomIds)
+                    .forEach(message -> lastMessages.putIfAbsent(message.getChatroomApiId(), ChatResponseDto.fromEntity(message)));
+        }
+        return lastMessages;
+    }
+
 
     /**
      * @param chatroomApiId
@@ -129,11 +185,43 @@ public class ChatroomService {
         throw new BusinessException(ErrorCode.CHATROOM_PERMISSION_DENIED);
     }
 
+    /**
+     * 두 유저의 1:1 채팅방을 pairKey 유니크 인덱스로 조회한다.(최근 조회한 방은 id 로 바로 조회)
+     */
+    private Optional<Chatroom> findByPairKey(String pairKey) {
+        Long chatroomId = chatroomPairCache.get(pairKey);
+        if (chatroomId != null) {
+            Optional<Chatroom> cached = chatroomRepository.findById(chatroomId);
+            if (cached.isPresent()) {
+                return cached;
+            }
+            chatroomPairCache.evict(pairKey);
+        }
+
+        Optional<Chatroom> chatroom = chatroomRepository.findByPairKey(pairKey);
+        chatroom.ifPresent(found -> chatroomPairCache.put(pairKey, found.getId()));
+        return chatroom;
+    }
+
     public Chatroom getByApiId(String apiId) {
         return chatroomRepository.findByApiId(apiId)
                 .orElseThrow(() -> new BusinessException(ORDER_NOT_FOUND));
     }
 
+    /**
+     * @param apiId
+     * @return 채팅방 참여자 이름(채팅방 엔티티와 참여자를 로딩하지 않고 한번의 쿼리로 조회한다)
+     */
+    public List<String> getMemberUsernames(String apiId) {
+        List<String> usernames = apiId == null ? List.of() : chatroomUserRepository.findUsernamesByChatroomApiId(apiId);
+        if (usernames.isEmpty()) {
+            throw new BusinessException(ORDER_NOT_FOUND);
+        }
+        return usernames.stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     public Chatroom getById(Long id) {
         return chatroomRepository.findById(id)
                 .orElseThrow(() -> new BusinessException(ORDER_NOT_FOUND));
@@ -20,6 +20,7 @@ import mutsa.common.exception.BusinessException;
 import mutsa.common.exception.ErrorCode;
 import mutsa.common.repository.image.ImageRepository;
 import mutsa.common.repository.user.UserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,9 +32,7 @@ public class ImageModuleService {
 
     @Transactional
     public List<Image> saveAll(List<ImagesRequestDto> imagesRequestDtos, String refApiId, ImageReference imgRefType) {
-        User currentUser = userRepository
-                .findByUsername(SecurityUtil.getCurrentUsername())
-                .orElseThrow(() -> new BusinessException(ErrorCode.SECURITY_CONTEXT_ERROR));
+        User currentUser = getCurrentUser();
 
         if (imagesRequestDtos == null || imagesRequestDtos.isEmpty()) {
             return null;
@@ -55,9 +54,27 @@ public class ImageModuleService {
             );
         }
 
-        images = imageRepository.saveAll(images);
+        try {
+            images = imageRepository.saveAll(images);
+        } catch (DataIntegrityViolationException e) {
+            //이미지의 외래키는 유저뿐이고 나머지 값은 검증된 요청이므로, 토큰의 유저가 탈퇴한 경우이다
+            throw new BusinessException(ErrorCode.USER_NOT_FOUND);
+        }
         return images;
     }
+
+    /**
+     * 토큰에 유저 id 가 있으면 조회하지 않고 프록시를 연관관계(외래키)에만 사용한다.
+     */
+    private User getCurrentUser() {
+        Long userId = SecurityUtil.getCurrentUserId();
+        if (userId != null) {
+            return userRepository.getReferenceById(userId);
+        }
+        return userRepository
+                .findByUsername(SecurityUtil.getCurrentUsername())
+                .orElseThrow(() -> new BusinessException(ErrorCode.SECURITY_CONTEXT_ERROR));
+    }
 //    @Transactional
 //    public List<Image> saveAllReviewImage(List<ImagesRequestDto> imagesRequestDtos, String reviewApiId) {
 //        User currentUser = userRepository
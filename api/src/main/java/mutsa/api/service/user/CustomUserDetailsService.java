@@ -4,7 +4,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import mutsa.api.config.security.CustomPrincipalDetails;
 import mutsa.common.domain.models.user.User;
-import mutsa.common.repository.cache.UserCacheRepository;
 import mutsa.common.repository.user.UserRepository;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -17,14 +16,13 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class CustomUserDetailsService implements UserDetailsService {
     private final UserRepository userRepository;
-    private final UserCacheRepository userCacheRepository;
 
     @Override
     public CustomPrincipalDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         log.info("loadUserByUsername : {}", username);
-        User user = userCacheRepository.getUser(username).orElseGet(() ->
-                userRepository.findByUsername(username).orElseThrow(() ->
-                        new UsernameNotFoundException("not found username:" + username)));
+        //인증에는 비밀번호가 필요하므로 캐시(CachedUser)가 아닌 엔티티를 조회한다
+        User user = userRepository.findByUsername(username).orElseThrow(() ->
+                new UsernameNotFoundException("not found username:" + username));
         return CustomPrincipalDetails.of(user, null);
 
     }
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import mutsa.common.domain.models.user.User;
 import mutsa.common.exception.BusinessException;
 import mutsa.common.exception.ErrorCode;
+import mutsa.common.repository.cache.CachedUser;
 import mutsa.common.repository.cache.UserCacheRepository;
 import mutsa.common.repository.user.UserRepository;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -33,15 +34,24 @@ public class UserModuleService {
                 .orElseThrow(() -> new BusinessException(USER_NOT_FOUND));
     }
 
+    /**
+     * 변경하거나 연관관계로 사용하는 경우 유저 엔티티를 조회한다.(캐시를 사용하지 않는다)
+     */
     public User getByUsername(String username) {
-        if (userCacheRepository.getUser(username).isEmpty()) {
-            User user = userRepository.findByUsername(username).orElseThrow(() ->
-                    new BusinessException(USER_NOT_FOUND));
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new BusinessException(USER_NOT_FOUND));
+    }
+
+    /**
+     * 조회만 하는 경우 캐시된 유저 정보를 사용한다.(서버 메모리 -> 레디스 -> DB)
+     */
+    public CachedUser getCachedByUsername(String username) {
+        return userCacheRepository.getUser(username).orElseGet(() -> {
+            User user = getByUsername(username);
 
             //유저 정보가 없는 경우 다시 캐싱한다.
-            userCacheRepository.setUser(user);
-        }
-        return userCacheRepository.getUser(username).get();
+            return userCacheRepository.setUser(user);
+        });
     }
 
     public Optional<User> getByEmail(String email) {
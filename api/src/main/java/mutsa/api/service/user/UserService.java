@@ -121,10 +121,12 @@ public class UserService {
 
     @Transactional
     public void signupOauth(String currentUsername, Oauth2InfoUserDto signupAuthUserDto) {
-        User user = userModuleService.getByUsername(currentUsername);
+        //캐시된 유저는 영속 상태가 아니므로 변경은 조회한 엔티티에 한다
+        User user = findUsername(currentUsername);
         Address address = Address.of(signupAuthUserDto.getZipcode(), signupAuthUserDto.getCity(), signupAuthUserDto.getStreet());
         user.updateAddress(address);
         user.setAvailable();
+        userCacheRepository.updateUserAfterCommit(user);
     }
 
     public UserInfoDto findUserInfo(String username) {
@@ -156,6 +158,7 @@ public class UserService {
         }
 
         findUser.updatePassword(bCryptPasswordEncoder.encode(passwordChangeDto.getNewPassword()));
+        userCacheRepository.updateUserAfterCommit(findUser);
     }
 
     @Transactional
@@ -193,18 +196,21 @@ public class UserService {
         User user = findUsername(currentUsername);
 
         user.updateImageUrl(profileChangeDto.getImageUrl().replace("\\", "").replace("\"", ""));
+        userCacheRepository.updateUserAfterCommit(user);
     }
 
     @Transactional
     public void updateEmail(String currentUsername, EmailChangeDto email) {
         User findUser = findUsername(currentUsername);
         findUser.updateEmail(email.getEmail());
+        userCacheRepository.updateUserAfterCommit(findUser);
     }
 
     @Transactional
     public void updateAddress(String currentUsername, Address address) {
         User findUser = findUsername(currentUsername);
         findUser.updateAddress(address);
+        userCacheRepository.updateUserAfterCommit(findUser);
     }
 
     public boolean isDuplicateEmail(String email) {
@@ -33,7 +33,15 @@ public class ArticleUtil {
         }
     }
 
+    /**
+     * 토큰에 유저 id 가 있으면 조회하지 않고 프록시를 반환한다.(필드를 읽는 경우에만 그때 조회된다)
+     * 연관관계 설정과 id 비교에는 조회가 필요 없다. 탈퇴한 유저는 저장 시 외래키 오류가 되므로 저장하는 쪽에서 USER_NOT_FOUND 로 처리한다.
+     */
     public User getUserFromSecurityContext() {
+        Long userId = SecurityUtil.getCurrentUserId();
+        if (userId != null) {
+            return userRepository.getReferenceById(userId);
+        }
         return userRepository.findByUsername(SecurityUtil.getCurrentUsername())
                 .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND));
     }
@@ -47,8 +55,8 @@ public class ArticleUtil {
         User curUser = getUserFromSecurityContext();
         Article article = getArticleByApiId(requestDto.getApiId());
 
-        //  현재 로그인 한 유저가 어드민 권한일 경우 인증 통과
-        if (curUser.hasRole(RoleStatus.ROLE_ADMIN)) {
+        //  현재 로그인 한 유저가 어드민 권한일 경우 인증 통과(토큰의 권한으로 확인한다)
+        if (SecurityUtil.hasAuthority(RoleStatus.ROLE_ADMIN.name())) {
             return article;
         }
 
@@ -62,7 +70,7 @@ public class ArticleUtil {
         User curUser = getUserFromSecurityContext();
         Article article = getArticleByApiId(apiId);
 
-        if (curUser.hasRole(RoleStatus.ROLE_ADMIN)) {
+        if (SecurityUtil.hasAuthority(RoleStatus.ROLE_ADMIN.name())) {
             return article;
         }
 
@@ -0,0 +1,93 @@
+package mutsa.api.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 검증된 access token 의 해시(SHA-256) -> JWTInfo 를 서버 메모리에 보관한다.(LRU)
+ * 같은 토큰으로 오는 요청은 서명 검증과 claim 파싱을 다시 하지 않는다.
+ * 토큰 원문은 보관하지 않으며, 토큰의 만료시간(exp)이 지난 항목은 조회 시 제거된다.
+ * 적중률은 jwt.decode.cache(result=hit|miss) 로 집계한다.
+ */
+@Component
+public class JwtTokenCache {
+    private final Map<String, JwtTokenProvider.JWTInfo> tokens;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public JwtTokenCache(
+            MeterRegistry meterRegistry,
+            @Value("${jwt.cache.max-size:10000}") int maxSize
+    ) {
+        this.tokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JwtTokenProvider.JWTInfo> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hitCounter = Counter.builder("jwt.decode.cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("jwt.decode.cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("jwt.decode.cache.size", this, JwtTokenCache::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return 캐시에 없거나 만료된 토큰이면 null
+     */
+    public JwtTokenProvider.JWTInfo get(String key) {
+        JwtTokenProvider.JWTInfo jwtInfo;
+        synchronized (this) {
+            jwtInfo = tokens.get(key);
+            if (jwtInfo != null && isExpired(jwtInfo)) {
+                tokens.remove(key);
+                jwtInfo = null;
+            }
+        }
+        (jwtInfo == null ? missCounter : hitCounter).increment();
+        return jwtInfo;
+    }
+
+    public void put(String key, JwtTokenProvider.JWTInfo jwtInfo) {
+        //만료시간이 없는 토큰은 캐시하지 않는다
+        if (jwtInfo.getExpiresAt() == null || isExpired(jwtInfo)) {
+            return;
+        }
+        synchronized (this) {
+            tokens.put(key, jwtInfo);
+        }
+    }
+
+    public synchronized int size() {
+        return tokens.size();
+    }
+
+    /**
+     * @return 토큰의 SHA-256 해시(base64)
+     */
+    public static String keyOf(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isExpired(JwtTokenProvider.JWTInfo jwtInfo) {
+        return jwtInfo.getExpiresAt().getTime() <= System.currentTimeMillis();
+    }
+}
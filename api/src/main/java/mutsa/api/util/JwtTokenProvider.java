@@ -1,6 +1,7 @@
 package mutsa.api.util;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
@@ -12,7 +13,6 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.Builder;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import mutsa.api.config.jwt.JwtConfig;
@@ -26,23 +26,40 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtTokenProvider {
     private static final String BEARER = "Bearer ";
     public static final String REFRESH_TOKEN = "refresh_token";
     private static final String AUTHORITIES = "authorities";
+    private static final String USER_ID = "uid";
+    private static final String API_ID = "apiId";
     private final JwtConfig jwtConfig;
+    private final JwtTokenCache jwtTokenCache;
+    //JWTVerifier 는 thread-safe 하므로 요청마다 만들지 않고 공유한다
+    private final JWTVerifier verifier;
+
+    public JwtTokenProvider(JwtConfig jwtConfig, JwtTokenCache jwtTokenCache) {
+        this.jwtConfig = jwtConfig;
+        this.jwtTokenCache = jwtTokenCache;
+        this.verifier = JWT.require(jwtConfig.getEncodedSecretKey()).build();
+    }
 
     public TokenDto createAccessToken(HttpServletRequest request, CustomPrincipalDetails details) {
         Instant expiresAt = Instant.now().plusSeconds(Long.parseLong(jwtConfig.getAccessTokenExpire()));
-        String accessToken = BEARER + JWT.create()
+        JWTCreator.Builder builder = JWT.create()
                 .withSubject(details.getUsername())
                 .withIssuer(request.getRequestURI())
                 .withIssuedAt(Date.from(Instant.now()))
                 .withExpiresAt(Date.from(expiresAt))
-                .withClaim(AUTHORITIES, getAuthorities(details.getAuthorities())) //이게 없으면 에러가 발생한다(CustomAuthorizationFilter)
-                .sign(jwtConfig.getEncodedSecretKey());
+                .withClaim(AUTHORITIES, getAuthorities(details.getAuthorities())); //이게 없으면 에러가 발생한다(CustomAuthorizationFilter)
+        //요청마다 유저를 다시 조회하지 않도록 식별자를 함께 담는다(CustomAuthorizationFilter)
+        if (details.getId() != null) {
+            builder.withClaim(USER_ID, details.getId());
+        }
+        if (details.getApiId() != null) {
+            builder.withClaim(API_ID, details.getApiId());
+        }
+        String accessToken = BEARER + builder.sign(jwtConfig.getEncodedSecretKey());
         return new TokenDto(accessToken, expiresAt.getNano());
     }
 
@@ -60,6 +77,7 @@ public class JwtTokenProvider {
 
     /**
      * 1. 토큰이 정상적인지 검증(위조, 만료 여부) 2. Access Token인지 Refresh Token인지 구분
+     * 검증된 토큰은 만료시간까지 JwtTokenCache 에 보관하여 다시 검증하지 않는다.
      *
      * @param token
      * @return
@@ -67,30 +85,25 @@ public class JwtTokenProvider {
      */
     public JWTInfo decodeToken(String token)
             throws JWTVerificationException {
-        JWTVerifier verifier = JWT.require(jwtConfig.getEncodedSecretKey()).build();
-
-        DecodedJWT decodedJWT = verifier.verify(token);
-        String username = decodedJWT.getSubject();
-
-        String[] authoritiesJWT = decodedJWT.getClaim(AUTHORITIES)
-                .asArray(String.class);
-
-        if (authoritiesJWT != null) {
-            Collection<SimpleGrantedAuthority> authorities = new ArrayList<>();
-            Arrays.stream(authoritiesJWT).forEach(authority -> {
-                authorities.add(new SimpleGrantedAuthority(authority));
-            });
+        String key = JwtTokenCache.keyOf(token);
+        JWTInfo cached = jwtTokenCache.get(key);
+        if (cached != null) {
+            return cached;
         }
 
-        return JWTInfo.builder()
-                .username(username)
-                .authorities(authoritiesJWT)
+        DecodedJWT decodedJWT = verifier.verify(token);
+        JWTInfo jwtInfo = JWTInfo.builder()
+                .userId(decodedJWT.getClaim(USER_ID).asLong())
+                .apiId(decodedJWT.getClaim(API_ID).asString())
+                .username(decodedJWT.getSubject())
+                .authorities(decodedJWT.getClaim(AUTHORITIES).asArray(String.class))
+                .expiresAt(decodedJWT.getExpiresAt())
                 .build();
+        jwtTokenCache.put(key, jwtInfo);
+        return jwtInfo;
     }
 
     public JWTInfo decodeRefreshToken(String refreshToken) {
-        JWTVerifier verifier = JWT.require(jwtConfig.getEncodedSecretKey()).build();
-
         DecodedJWT decodedJWT = verifier.verify(refreshToken);
         String username = decodedJWT.getSubject();
 
@@ -111,7 +124,7 @@ public class JwtTokenProvider {
 
     public boolean validateToken(String token) {
         try {
-            JWT.require(jwtConfig.getEncodedSecretKey()).build().verify(token);
+            decodeToken(token);
             return true;
         } catch (SignatureException e) { // 유효하지 않은 JWT 서명
             log.info("not valid jwt signature");
@@ -131,7 +144,11 @@ public class JwtTokenProvider {
     @Builder
     @ToString
     public static class JWTInfo {
+        //이전에 발급된 토큰에는 없으므로 null 일 수 있다
+        private final Long userId;
+        private final String apiId;
         private final String username;
         private final String[] authorities;
+        private final Date expiresAt;
     }
 }
@@ -1,9 +1,11 @@
 package mutsa.api.util;
 
 import lombok.extern.slf4j.Slf4j;
+import mutsa.api.config.security.CustomPrincipalDetails;
 import mutsa.common.exception.BusinessException;
 import mutsa.common.exception.ErrorCode;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -27,4 +29,34 @@ public class SecurityUtil {
 
         return username;
     }
+
+    /**
+     * access token 에 담긴 유저 id(CustomAuthorizationFilter)
+     *
+     * @return 유저 id 가 없는 토큰(이전에 발급된 토큰)이거나 다른 인증인 경우 null
+     */
+    public static Long getCurrentUserId() {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null) {
+            log.debug("context에 정보가 없습니다.");
+            throw new BusinessException(ErrorCode.SECURITY_CONTEXT_ERROR);
+        }
+
+        if (authentication.getPrincipal() instanceof CustomPrincipalDetails principalDetails) {
+            return principalDetails.getId();
+        }
+        return null;
+    }
+
+    public static boolean hasAuthority(String authority) {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null) {
+            return false;
+        }
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(authority::equals);
+    }
 }
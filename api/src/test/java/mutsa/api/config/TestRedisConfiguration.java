@@ -5,22 +5,22 @@ import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import mutsa.api.config.redis.RedisConfig;
-import mutsa.api.service.chat.RedisMessageSubscriber;
-import mutsa.common.domain.models.user.User;
+import mutsa.api.config.thread.VirtualThreadConfig;
+import mutsa.common.repository.cache.CachedUser;
+import mutsa.common.repository.cache.CachedUserRedisSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
-import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.util.StringUtils;
 import redis.embedded.RedisServer;
@@ -134,41 +134,38 @@ public class TestRedisConfiguration {
 
 
     @Bean
-    public StringRedisTemplate chatRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
-        //채팅을 불러오는 템플릿
-        return new StringRedisTemplate(redisConnectionFactory);
-    }
-
-    @Bean
-    public RedisTemplate<String, User> userRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
-        //유저 캐싱 저장용
-        RedisTemplate<String, User> redisTemplate = new RedisTemplate<>();
+    public RedisTemplate<String, byte[]> chatRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        //채팅을 불러오는 템플릿(값은 ChatRedisCodec 으로 인코딩된 바이트)
+        RedisTemplate<String, byte[]> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(redisConnectionFactory);
         redisTemplate.setKeySerializer(new StringRedisSerializer());
-        redisTemplate.setValueSerializer(new Jackson2JsonRedisSerializer<User>(User.class));
+        redisTemplate.setValueSerializer(RedisSerializer.byteArray());
         return redisTemplate;
     }
 
-
     @Bean
-    MessageListenerAdapter messageListener(RedisMessageSubscriber redisMessageSubscriber) {
-        return new MessageListenerAdapter(redisMessageSubscriber);
+    public RedisTemplate<String, CachedUser> userRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        //유저 캐싱 저장용(값은 CachedUserRedisSerializer 로 인코딩된 바이트)
+        RedisTemplate<String, CachedUser> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(redisConnectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new CachedUserRedisSerializer());
+        return redisTemplate;
     }
 
 
     @Bean
     RedisMessageListenerContainer redisContainer(
             RedisConnectionFactory redisConnectionFactory,
-            MessageListenerAdapter messageListener
+            VirtualThreadConfig virtualThreadConfig
     ) {
+        //채팅방 채널은 구독자가 생길 때 ChatRoomTopicManager 에서 동적으로 등록한다
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(redisConnectionFactory);
-        container.addMessageListener(messageListener, topic());
+        SimpleAsyncTaskExecutor listenerExecutor = virtualThreadConfig.createListenerExecutor();
+        if (listenerExecutor != null) {
+            container.setTaskExecutor(listenerExecutor);
+        }
         return container;
     }
-
-    @Bean
-    ChannelTopic topic() {
-        return new ChannelTopic("MESSAGE");
-    }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package mutsa.api.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+/**
+ * relay 모드 테스트용 내장 STOMP 브로커(ActiveMQ Artemis, STOMP acceptor 만 연다).
+ * test 와 relay 프로필을 함께 활성화하면 chat.broker.relay.port 로 브로커를 띄우므로,
+ * 테스트에서는 findAvailablePort() 로 구한 포트를 @DynamicPropertySource 로 넘긴다.
+ * <p>
+ * 브로커 릴레이는 컨텍스트가 시작될 때(SmartLifecycle) 연결하므로 빈 초기화 시점에 띄워두면 된다.
+ */
+@Configuration
+@Profile("test & relay")
+@Slf4j
+public class TestStompBrokerConfiguration {
+    @Value("${chat.broker.relay.port}")
+    private int port;
+    private EmbeddedActiveMQ broker;
+
+    @PostConstruct
+    public void stompBroker() throws Exception {
+        ConfigurationImpl configuration = new ConfigurationImpl();
+        configuration.setPersistenceEnabled(false);
+        configuration.setSecurityEnabled(false);
+        configuration.setJMXManagementEnabled(false);
+        configuration.addAcceptorConfiguration("stomp", "tcp://localhost:" + port + "?protocols=STOMP");
+
+        broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(configuration);
+        broker.start();
+        log.info("embedded stomp broker started on {}", port);
+    }
+
+    @PreDestroy
+    public void stopStompBroker() throws Exception {
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+
+    public static int findAvailablePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException("Not Found Available port", e);
+        }
+    }
+}
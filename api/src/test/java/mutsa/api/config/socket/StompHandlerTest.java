@@ -0,0 +1,164 @@
+package mutsa.api.config.socket;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import mutsa.api.service.chat.ChatRateLimiter;
+import mutsa.api.util.JwtTokenProvider;
+import mutsa.common.exception.BusinessException;
+import mutsa.common.exception.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StompHandlerTest {
+    private static final String TOKEN_EXPIRES_AT = "tokenExpiresAt";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private StompHandler stompHandler;
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @BeforeEach
+    public void init() {
+        jwtTokenProvider = mock(JwtTokenProvider.class);
+        stompHandler = new StompHandler(jwtTokenProvider, mock(ChatRateLimiter.class));
+    }
+
+    @Test
+    @DisplayName("CONNECT 시 토큰의 사용자를 세션과 Principal 에 저장한다")
+    void connect() {
+        //given
+        Date expiresAt = Date.from(Instant.now().plusSeconds(60));
+        when(jwtTokenProvider.decodeToken("token1")).thenReturn(jwtInfo("user1", expiresAt));
+        Map<String, Object> session = new HashMap<>();
+        StompHeaderAccessor accessor = accessor(StompCommand.CONNECT, session, "Bearer token1", null);
+
+        //when
+        stompHandler.preSend(message(accessor), channel);
+
+        //then
+        assertThat(session.get(StompHandler.USERNAME)).isEqualTo("user1");
+        assertThat(session.get(TOKEN_EXPIRES_AT)).isEqualTo(expiresAt.getTime());
+        assertThat(accessor.getUser().getName()).isEqualTo("user1");
+    }
+
+    @Test
+    @DisplayName("CONNECT 에 토큰이 없으면 ACCESS_TOKEN_NOT_FOUND, 검증에 실패하면 ACCESS_TOKEN_EXPIRED 로 거절한다")
+    void connectWithoutValidToken() {
+        //given
+        when(jwtTokenProvider.decodeToken("expired"))
+                .thenThrow(new JWTVerificationException("expired"));
+
+        //when, then
+        assertErrorCode(() -> stompHandler.preSend(message(accessor(StompCommand.CONNECT, new HashMap<>(), null, null)), channel),
+                ErrorCode.ACCESS_TOKEN_NOT_FOUND);
+        assertErrorCode(() -> stompHandler.preSend(message(accessor(StompCommand.CONNECT, new HashMap<>(), "Bearer expired", null)), channel),
+                ErrorCode.ACCESS_TOKEN_EXPIRED);
+    }
+
+    @Test
+    @DisplayName("세션의 토큰이 만료된 뒤 새 토큰 없이 보낸 프레임은 ACCESS_TOKEN_EXPIRED 로 거절한다")
+    void expiredSession() {
+        //given
+        Map<String, Object> session = session("user1", System.currentTimeMillis() - 1);
+        StompHeaderAccessor accessor = accessor(StompCommand.SUBSCRIBE, session, null, principal("user1"));
+
+        //when, then
+        assertErrorCode(() -> stompHandler.preSend(message(accessor), channel), ErrorCode.ACCESS_TOKEN_EXPIRED);
+    }
+
+    @Test
+    @DisplayName("만료된 세션은 같은 사용자의 새 토큰으로 다시 인증된다")
+    void reauthenticate() {
+        //given
+        Date expiresAt = Date.from(Instant.now().plusSeconds(60));
+        when(jwtTokenProvider.decodeToken("token2")).thenReturn(jwtInfo("user1", expiresAt));
+        Map<String, Object> session = session("user1", System.currentTimeMillis() - 1);
+        StompHeaderAccessor accessor = accessor(StompCommand.SUBSCRIBE, session, "Bearer token2", principal("user1"));
+
+        //when
+        stompHandler.preSend(message(accessor), channel);
+
+        //then
+        assertThat(session.get(TOKEN_EXPIRES_AT)).isEqualTo(expiresAt.getTime());
+    }
+
+    @Test
+    @DisplayName("다른 사용자의 토큰으로 다시 인증하면 거절하고 세션을 바꾸지 않는다")
+    void reauthenticateWithOtherUser() {
+        //given
+        long expiredAt = System.currentTimeMillis() - 1;
+        when(jwtTokenProvider.decodeToken("token2"))
+                .thenReturn(jwtInfo("user2", Date.from(Instant.now().plusSeconds(60))));
+        Map<String, Object> session = session("user1", expiredAt);
+        StompHeaderAccessor accessor = accessor(StompCommand.SEND, session, "Bearer token2", principal("user1"));
+
+        //when, then
+        assertErrorCode(() -> stompHandler.preSend(message(accessor), channel), ErrorCode.ACCESS_TOKEN_USER_MISMATCH);
+        assertThat(session.get(StompHandler.USERNAME)).isEqualTo("user1");
+        assertThat(session.get(TOKEN_EXPIRES_AT)).isEqualTo(expiredAt);
+    }
+
+    private void assertErrorCode(Runnable runnable, ErrorCode errorCode) {
+        assertThatThrownBy(runnable::run)
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getErrorCode())
+                .isEqualTo(errorCode);
+    }
+
+    private JwtTokenProvider.JWTInfo jwtInfo(String username, Date expiresAt) {
+        return JwtTokenProvider.JWTInfo.builder()
+                .username(username)
+                .authorities(new String[]{"ROLE_USER"})
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    private Map<String, Object> session(String username, long expiresAt) {
+        Map<String, Object> session = new HashMap<>();
+        session.put(StompHandler.USERNAME, username);
+        session.put(TOKEN_EXPIRES_AT, expiresAt);
+        return session;
+    }
+
+    private Principal principal(String username) {
+        return new UsernamePasswordAuthenticationToken(username, null, List.of());
+    }
+
+    private StompHeaderAccessor accessor(StompCommand command, Map<String, Object> session, String authorization, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId("session1");
+        accessor.setSessionAttributes(session);
+        if (command == StompCommand.SEND) {
+            accessor.setDestination("/pub/other");
+        }
+        if (authorization != null) {
+            accessor.setNativeHeader("Authorization", authorization);
+        }
+        if (user != null) {
+            accessor.setUser(user);
+        }
+        accessor.setLeaveMutable(true);
+        return accessor;
+    }
+
+    private Message<byte[]> message(StompHeaderAccessor accessor) {
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -6,12 +6,17 @@ import mutsa.api.ApiApplication;
 import mutsa.api.config.TestRedisConfiguration;
 import mutsa.api.dto.chat.ChatRoomDetailDto;
 import mutsa.api.dto.chat.ChatroomRequestDto;
+import mutsa.api.service.chat.ChatService;
 import mutsa.api.service.chatroom.ChatroomService;
 import mutsa.api.util.SecurityUtil;
 import mutsa.common.domain.models.article.Article;
+import mutsa.common.domain.models.chat.ChatRedis;
+import mutsa.common.domain.models.chatroom.Chatroom;
 import mutsa.common.domain.models.user.User;
 import mutsa.common.repository.article.ArticleRepository;
 import mutsa.common.repository.chatroom.ChatroomRepository;
+import mutsa.common.repository.redis.chat.ChatRedisRepository;
+import mutsa.common.repository.redis.chat.ChatSearchRedisRepository;
 import mutsa.common.repository.user.UserRepository;
 import org.junit.jupiter.api.*;
 import org.mockito.MockedStatic;
@@ -29,6 +34,9 @@ import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.mockStatic;
@@ -56,6 +64,12 @@ class ChatroomControllerTest {
     @Autowired
     private ChatroomRepository chatroomRepository;
     @Autowired
+    private ChatRedisRepository chatRedisRepository;
+    @Autowired
+    private ChatService chatService;
+    @Autowired
+    private ChatSearchRedisRepository chatSearchRedisRepository;
+    @Autowired
     private RedisTemplate<String, String> redisTemplate;
     private static MockedStatic<SecurityUtil> securityUtilMockedStatic;
 
@@ -164,6 +178,8 @@ class ChatroomControllerTest {
                 .andExpect(jsonPath("$[0].roomName").value(chatRoom1.getRoomName()))
                 .andExpect(jsonPath("$[1].chatroomApiId").value(chatRoom2.getChatroomApiId()))
                 .andExpect(jsonPath("$[1].roomName").value(chatRoom2.getRoomName()))
+                .andExpect(jsonPath("$[0].articleTitle").value(article.getTitle()))
+                .andExpect(jsonPath("$[1].articleTitle").value(article3.getTitle()))
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
@@ -194,4 +210,114 @@ class ChatroomControllerTest {
                 .andExpect(jsonPath("articleUsername").value(chatroom.getArticleUsername()))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("채팅방 이전 메세지 커서 조회")
+    void getMessages() throws Exception {
+        //given
+        when(SecurityUtil.getCurrentUsername()).thenReturn(consumer.getUsername());
+        ChatroomRequestDto dto1 = new ChatroomRequestDto(article.getApiId());
+        ChatRoomDetailDto chatRoomDetail = chatroomService.createChatRoom(dto1, consumer.getUsername());
+        Chatroom chatroom = chatroomRepository.findByApiId(chatRoomDetail.getChatroomApiId()).get();
+        for (int i = 0; i < 3; i++) {
+            chatRedisRepository.saveMessage(ChatRedis.of(chatroom, consumer, "message" + i));
+            Thread.sleep(5);
+        }
+
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/chat/room/{chatroomId}/messages", chatroom.getApiId())
+                        .param("limit", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andDo(MockMvcRestDocumentation.document("api/chatroom/채팅방 이전 메세지 조회",
+                        Preprocessors.preprocessRequest(prettyPrint()),
+                        Preprocessors.preprocessResponse(prettyPrint())));
+        //then
+        resultActions
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("messages", hasSize(2)))
+                .andExpect(jsonPath("messages[0].message").value("message2"))
+                .andExpect(jsonPath("messages[1].message").value("message1"))
+                .andExpect(jsonPath("hasNext").value(true))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @DisplayName("채팅 검색")
+    void searchMessages() throws Exception {
+        //given
+        when(SecurityUtil.getCurrentUsername()).thenReturn(consumer.getUsername());
+        ChatroomRequestDto dto1 = new ChatroomRequestDto(article.getApiId());
+        ChatRoomDetailDto chatRoomDetail = chatroomService.createChatRoom(dto1, consumer.getUsername());
+        Chatroom chatroom = chatroomRepository.findByApiId(chatRoomDetail.getChatroomApiId()).get();
+        List<ChatRedis> chats = new ArrayList<>();
+        for (String message : List.of("오늘 저녁 약속", "안녕하세요", "내일 저녁은 어때요")) {
+            ChatRedis chat = ChatRedis.of(chatroom, consumer, message);
+            chatRedisRepository.saveMessage(chat);
+            chats.add(chat);
+            Thread.sleep(5);
+        }
+        chatSearchRedisRepository.index(chats);
+
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/chat/room/search")
+                        .param("keyword", "저녁")
+                        .param("limit", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andDo(MockMvcRestDocumentation.document("api/chatroom/채팅 검색",
+                        Preprocessors.preprocessRequest(prettyPrint()),
+                        Preprocessors.preprocessResponse(prettyPrint())));
+        //then
+        resultActions
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("messages", hasSize(1)))
+                .andExpect(jsonPath("messages[0].message").value("내일 저녁은 어때요"))
+                .andExpect(jsonPath("messages[0].chatroomApiId").value(chatroom.getApiId()))
+                .andExpect(jsonPath("hasNext").value(true))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @DisplayName("채팅방 읽음 처리")
+    void readRoom() throws Exception {
+        //given
+        when(SecurityUtil.getCurrentUsername()).thenReturn(consumer.getUsername());
+        ChatroomRequestDto dto1 = new ChatroomRequestDto(article.getApiId());
+        ChatRoomDetailDto chatRoomDetail = chatroomService.createChatRoom(dto1, consumer.getUsername());
+
+        //when
+        ResultActions resultActions = mockMvc.perform(post("/api/chat/room/{chatroomId}/read", chatRoomDetail.getChatroomApiId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andDo(MockMvcRestDocumentation.document("api/chatroom/채팅방 읽음 처리",
+                        Preprocessors.preprocessRequest(prettyPrint()),
+                        Preprocessors.preprocessResponse(prettyPrint())));
+        //then
+        resultActions.andExpect(status().is2xxSuccessful());
+        assertThat(chatroomService.findMyChatroom(consumer.getUsername()).get(0).getUnreadCount()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("채팅방 읽음 표시 조회")
+    void getReadReceipts() throws Exception {
+        //given
+        when(SecurityUtil.getCurrentUsername()).thenReturn(seller.getUsername());
+        ChatroomRequestDto dto1 = new ChatroomRequestDto(article.getApiId());
+        ChatRoomDetailDto chatRoomDetail = chatroomService.createChatRoom(dto1, consumer.getUsername());
+        chatService.markAsRead(chatRoomDetail.getChatroomApiId(), consumer.getUsername(), 1000L);
+
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/chat/room/{chatroomId}/read", chatRoomDetail.getChatroomApiId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andDo(MockMvcRestDocumentation.document("api/chatroom/채팅방 읽음 표시 조회",
+                        Preprocessors.preprocessRequest(prettyPrint()),
+                        Preprocessors.preprocessResponse(prettyPrint())));
+        //then
+        resultActions.andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].username").value(consumer.getUsername()))
+                .andExpect(jsonPath("$[0].readCursor").value(1000L));
+    }
+}
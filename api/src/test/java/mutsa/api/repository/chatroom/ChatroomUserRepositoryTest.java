@@ -12,6 +12,7 @@ import mutsa.common.repository.chatroomUser.ChatroomUserRepository;
 import mutsa.common.repository.user.UserRepository;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -47,19 +48,20 @@ class ChatroomUserRepositoryTest {
     }
 
     @Test
-    public void testFindByChatroomWithUsers() {
+    @DisplayName("두 유저의 1:1 채팅방을 유저 순서와 상관없이 pairKey 로 조회한다")
+    public void testFindByPairKey() {
         //given
-        ChatroomUser chatroomUser1 = ChatroomUser.of(user1, chatroom1);
-        ChatroomUser chatroomUser2 = ChatroomUser.of(user2, chatroom1);
-        chatroomUserRepository.save(chatroomUser1);
-        chatroomUserRepository.save(chatroomUser2);
+        Chatroom chatroom = chatroomRepository.save(Chatroom.of("chatroom3", Chatroom.pairKeyOf(user1.getId(), user2.getId())));
+        chatroomUserRepository.save(ChatroomUser.of(user1, chatroom));
+        chatroomUserRepository.save(ChatroomUser.of(user2, chatroom));
 
         //when
-        Optional<Chatroom> result = chatroomUserRepository.findByChatroomWithUsers(user1, user2);
+        Optional<Chatroom> result = chatroomRepository.findByPairKey(Chatroom.pairKeyOf(user2.getId(), user1.getId()));
 
         //then
-        Assertions.assertThat(result.isPresent()).isTrue();
-        Assertions.assertThat(result.get().getArticleApiId()).isEqualTo("chatroom1");
+        Assertions.assertThat(result).isPresent();
+        Assertions.assertThat(result.get().getApiId()).isEqualTo(chatroom.getApiId());
+        Assertions.assertThat(chatroomRepository.findByPairKey(Chatroom.pairKeyOf(user1.getId(), user1.getId()))).isEmpty();
     }
 
     @Test
@@ -19,6 +19,8 @@ import mutsa.common.domain.models.article.Article;
 import mutsa.common.domain.models.article.ArticleStatus;
 import mutsa.common.domain.models.article.ArticleType;
 import mutsa.common.domain.models.user.User;
+import mutsa.common.exception.BusinessException;
+import mutsa.common.exception.ErrorCode;
 import mutsa.common.repository.article.ArticleRepository;
 import mutsa.common.repository.user.UserRepository;
 import org.junit.jupiter.api.*;
@@ -96,6 +98,26 @@ public class ArticleServiceTest {
         Assertions.assertEquals(requestDto.getPrice(), responseDto.getPrice());
     }
 
+    @Test
+    @DisplayName("Article Service 생성 테스트 - 토큰의 유저가 탈퇴한 경우 USER_NOT_FOUND")
+    public void saveWithDeletedUserTest() {
+        CustomPrincipalDetails deleted = CustomPrincipalDetails.of(999999999L, "deleted-api-id", "deleted", new String[]{"ROLE_USER"});
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                deleted,
+                null,
+                deleted.getAuthorities()
+        ));
+        ArticleCreateRequestDto requestDto = new ArticleCreateRequestDto();
+        requestDto.setTitle("Article1");
+        requestDto.setDescription("Article1 Desc");
+        requestDto.setPrice(10000L);
+        requestDto.setArticleType(ArticleType.SELL);
+
+        BusinessException exception = Assertions.assertThrows(BusinessException.class, () -> articleService.save(requestDto));
+
+        Assertions.assertEquals(ErrorCode.USER_NOT_FOUND, exception.getErrorCode());
+    }
+
     @Test
     @DisplayName("Article Service 수정 테스트")
     public void updateTest() {
@@ -0,0 +1,174 @@
+package mutsa.api.service.chat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mutsa.common.domain.models.chat.ChatRedis;
+import mutsa.common.repository.export.ChatExportEvent;
+import mutsa.common.repository.export.ChatExportSink;
+import mutsa.common.repository.export.FileChatExportSink;
+import mutsa.common.repository.redis.chat.ChatExportRedisRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChatExporterTest {
+    private final StreamRepository stream = new StreamRepository();
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void init() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("스트림의 채팅을 내보내기 로그에 json 한 줄씩 기록하고 마지막 위치를 커밋한다")
+    void exportToFile(@TempDir Path dir) {
+        //given
+        FileChatExportSink sink = new FileChatExportSink(dir.resolve("chat-export.jsonl").toString());
+        ChatExporter chatExporter = exporter(sink, 1);
+        ChatRedis first = stream.add(chat("room1", "첫번째"));
+        ChatRedis second = stream.add(chat("room2", "두번째"));
+
+        //when
+        chatExporter.flush();
+        chatExporter.flush();
+
+        //then
+        assertThat(sink.readAll()).extracting(ChatExportEvent::id, ChatExportEvent::roomId, ChatExportEvent::content)
+                .containsExactly(
+                        tuple(first.getId(), "room1", "첫번째"),
+                        tuple(second.getId(), "room2", "두번째"));
+        assertThat(stream.getOffset()).isEqualTo("2-0");
+    }
+
+    @Test
+    @DisplayName("기록에 실패하면 커밋하지 않고, 다음 flush 에 같은 위치부터 다시 보낸다")
+    void retryFailedBatch(@TempDir Path dir) {
+        //given
+        FileChatExportSink file = new FileChatExportSink(dir.resolve("chat-export.jsonl").toString());
+        AtomicBoolean available = new AtomicBoolean(false);
+        ChatExportSink sink = events -> {
+            if (!available.get()) {
+                throw new IllegalStateException("sink unavailable");
+            }
+            file.write(events);
+        };
+        ChatExporter chatExporter = exporter(sink, 10);
+        ChatRedis chat = stream.add(chat("room1", "hello"));
+
+        //when
+        chatExporter.flush();
+        List<ChatExportEvent> whileUnavailable = file.readAll();
+        String offsetWhileUnavailable = stream.getOffset();
+        available.set(true);
+        chatExporter.flush();
+
+        //then
+        assertThat(whileUnavailable).isEmpty();
+        assertThat(offsetWhileUnavailable).isEqualTo("0-0");
+        assertThat(file.readAll()).extracting(ChatExportEvent::id).containsExactly(chat.getId());
+        assertThat(stream.getOffset()).isEqualTo("1-0");
+    }
+
+    @Test
+    @DisplayName("읽을 수 없는 항목은 건너뛰고 집계하며, 오프셋은 그 뒤로 넘어간다")
+    void skipUndecodableEntry(@TempDir Path dir) {
+        //given
+        FileChatExportSink sink = new FileChatExportSink(dir.resolve("chat-export.jsonl").toString());
+        ChatExporter chatExporter = exporter(sink, 10);
+        ChatRedis first = stream.add(chat("room1", "첫번째"));
+        stream.add(null); //읽을 수 없는 항목
+        ChatRedis third = stream.add(chat("room1", "세번째"));
+
+        //when
+        chatExporter.flush();
+
+        //then
+        assertThat(sink.readAll()).extracting(ChatExportEvent::id).containsExactly(first.getId(), third.getId());
+        assertThat(stream.getOffset()).isEqualTo("3-0");
+        assertThat(meterRegistry.counter("chat.export.skipped").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("다른 서버가 락을 잡고 있으면 옮기지 않는다")
+    void skipWhenLocked(@TempDir Path dir) {
+        //given
+        FileChatExportSink sink = new FileChatExportSink(dir.resolve("chat-export.jsonl").toString());
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        stream.add(chat("room1", "hello"));
+
+        //when
+        exporter(sink, 10).flush();
+
+        //then
+        assertThat(sink.readAll()).isEmpty();
+        assertThat(stream.getOffset()).isEqualTo("0-0");
+    }
+
+    private ChatExporter exporter(ChatExportSink sink, int batchSize) {
+        return new ChatExporter(Optional.of(sink), stream, redisTemplate, meterRegistry, batchSize);
+    }
+
+    private ChatRedis chat(String roomId, String content) {
+        return ChatRedis.of(UUID.randomUUID().toString(), roomId, "user1", content, LocalDateTime.now());
+    }
+
+    /**
+     * 레디스 스트림 대신 메모리에 추가된 순서대로 보관한다.(id: "{순번}-0", null 은 읽을 수 없는 항목)
+     */
+    private static class StreamRepository extends ChatExportRedisRepository {
+        private final List<ChatRedis> messages = new ArrayList<>();
+        private String offset = "0-0";
+
+        private StreamRepository() {
+            super(null);
+        }
+
+        private ChatRedis add(ChatRedis message) {
+            messages.add(message);
+            return message;
+        }
+
+        @Override
+        public String getOffset() {
+            return offset;
+        }
+
+        @Override
+        public void commit(String offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public List<Entry> read(String after, int count) {
+            int from = Integer.parseInt(after.substring(0, after.indexOf('-')));
+            List<Entry> entries = new ArrayList<>();
+            for (int i = from; i < messages.size() && entries.size() < count; i++) {
+                entries.add(new Entry((i + 1) + "-0", messages.get(i)));
+            }
+            return entries;
+        }
+    }
+}
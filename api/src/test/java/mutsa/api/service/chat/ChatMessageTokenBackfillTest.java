@@ -0,0 +1,74 @@
+package mutsa.api.service.chat;
+
+import mutsa.api.ApiApplication;
+import mutsa.api.config.TestRedisConfiguration;
+import mutsa.common.domain.models.chat.ChatMessage;
+import mutsa.common.domain.models.chat.ChatRedis;
+import mutsa.common.repository.chat.ChatMessageRepository;
+import mutsa.common.repository.chat.ChatMessageTokenRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = {ApiApplication.class, TestRedisConfiguration.class})
+@ActiveProfiles("test")
+@Transactional
+class ChatMessageTokenBackfillTest {
+    private static final String ROOM = "backfill-room";
+
+    @Autowired
+    private ChatMessageTokenBackfill chatMessageTokenBackfill;
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+    @Autowired
+    private ChatMessageTokenRepository chatMessageTokenRepository;
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    public void init() {
+        //기동 시 실행된 기록을 지운다
+        redisTemplate.getConnectionFactory().getConnection().flushDb();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        redisTemplate.getConnectionFactory().getConnection().flushDb();
+    }
+
+    @Test
+    @DisplayName("토큰 없이 보관된 채팅의 토큰을 채워 검색되게 하고, 다시 실행해도 결과는 같다")
+    void backfill() {
+        //given
+        //토큰 테이블이 추가되기 전에 보관된 채팅
+        chatMessageRepository.save(ChatMessage.from(
+                ChatRedis.of(UUID.randomUUID().toString(), ROOM, "user1", "Apple pie", LocalDateTime.now().minusDays(40))));
+
+        //when
+        chatMessageTokenBackfill.backfill();
+        long tokens = chatMessageTokenRepository.count();
+        redisTemplate.delete(ChatMessageTokenBackfill.DONE_KEY);
+        chatMessageTokenBackfill.backfill();
+
+        //then
+        assertThat(tokens).isPositive();
+        assertThat(chatMessageTokenRepository.count()).isEqualTo(tokens);
+        assertThat(chatMessageRepository.searchArchived(List.of(ROOM), List.of("pie"), null, null, 10))
+                .extracting(ChatMessage::getContent)
+                .containsExactly("Apple pie");
+        assertThat(redisTemplate.hasKey(ChatMessageTokenBackfill.DONE_KEY)).isTrue();
+        assertThat(redisTemplate.hasKey(ChatMessageTokenBackfill.LOCK_KEY)).isFalse();
+    }
+}
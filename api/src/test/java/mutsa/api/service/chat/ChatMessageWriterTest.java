@@ -0,0 +1,89 @@
+package mutsa.api.service.chat;
+
+import mutsa.common.domain.models.chat.ChatRedis;
+import mutsa.common.exception.BusinessException;
+import mutsa.common.exception.ErrorCode;
+import mutsa.common.repository.redis.chat.ChatRedisRepository;
+import mutsa.common.repository.redis.chat.PendingChatMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChatMessageWriterTest {
+
+    @Test
+    @DisplayName("대기열이 가득 차면 저장하지 않고 CHAT_WRITER_BUSY 로 실패한다")
+    void rejectWhenQueueIsFull() throws Exception {
+        //given
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ChatRedisRepository chatRedisRepository = mock(ChatRedisRepository.class);
+        when(chatRedisRepository.saveAndPublishAll(anyList(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            List<PendingChatMessage> messages = invocation.getArgument(0);
+            return Collections.nCopies(messages.size(), true);
+        });
+        ChatMessageWriter writer = new ChatMessageWriter(chatRedisRepository, 0, 1, 1, 120, "", 0);
+        writer.start();
+
+        //when
+        CompletableFuture<Boolean> first = write(writer);
+        flushing.await(5, TimeUnit.SECONDS); //첫 채팅이 저장중인 동안
+        CompletableFuture<Boolean> queued = write(writer);
+        CompletableFuture<Boolean> rejected = write(writer);
+        release.countDown();
+
+        //then
+        assertThatThrownBy(rejected::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(BusinessException.class);
+        assertThat(rejected.handle((saved, e) -> ((BusinessException) e).getErrorCode()).get())
+                .isEqualTo(ErrorCode.CHAT_WRITER_BUSY);
+        assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        writer.stop();
+    }
+
+    @Test
+    @DisplayName("종료 이후에 들어온 채팅도 반영되어 future 가 완료된다")
+    void writeAfterStop() throws Exception {
+        //given
+        ChatRedisRepository chatRedisRepository = mock(ChatRedisRepository.class);
+        when(chatRedisRepository.saveAndPublishAll(anyList(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            List<PendingChatMessage> messages = invocation.getArgument(0);
+            return Collections.nCopies(messages.size(), true);
+        });
+        ChatMessageWriter writer = new ChatMessageWriter(chatRedisRepository, 5, 100, 100, 120, "", 0);
+        writer.start();
+        CompletableFuture<Boolean> beforeStop = write(writer);
+
+        //when
+        writer.stop();
+        CompletableFuture<Boolean> afterStop = write(writer);
+
+        //then
+        assertThat(beforeStop.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(afterStop.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private CompletableFuture<Boolean> write(ChatMessageWriter writer) {
+        ChatRedis chat = ChatRedis.of(UUID.randomUUID().toString(), "room1", "user1", "hello", LocalDateTime.now());
+        return writer.write(chat, List.of("user2"), "chat:room:room1", "{}", null);
+    }
+}
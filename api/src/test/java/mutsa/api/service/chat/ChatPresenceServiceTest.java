@@ -0,0 +1,104 @@
+package mutsa.api.service.chat;
+
+import mutsa.api.ApiApplication;
+import mutsa.api.config.TestRedisConfiguration;
+import mutsa.common.repository.redis.chat.ChatPresenceRedisRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(classes = {ApiApplication.class, TestRedisConfiguration.class})
+@ActiveProfiles("test")
+class ChatPresenceServiceTest {
+    private static final String ROOM = "presence-room";
+
+    @Autowired
+    private ChatPresenceService chatPresenceService;
+    @Autowired
+    private ChatPresenceRedisRepository chatPresenceRedisRepository;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+    @SpyBean
+    private ChatBroadcaster chatBroadcaster;
+
+    @AfterEach
+    public void tearDown() {
+        redisTemplate.getConnectionFactory().getConnection().flushDb();
+    }
+
+    @Test
+    @DisplayName("접속/입력중 상태는 레디스에만 저장되고, 마지막 세션이 떠나면 제거된다")
+    void joinAndTyping() {
+        //given
+        chatPresenceService.join(ROOM, "user1");
+        chatPresenceService.join(ROOM, "user1");
+        chatPresenceService.join(ROOM, "user2");
+
+        //when
+        chatPresenceService.typing(ROOM, "user1", true);
+        chatPresenceService.leave(ROOM, "user1");
+        ChatPresenceRedisRepository.Presence stillOnline = chatPresenceRedisRepository.getPresences(List.of(ROOM)).get(ROOM);
+        chatPresenceService.leave(ROOM, "user1");
+        ChatPresenceRedisRepository.Presence left = chatPresenceRedisRepository.getPresences(List.of(ROOM)).get(ROOM);
+
+        //then
+        assertThat(stillOnline.online()).containsExactlyInAnyOrder("user1", "user2");
+        assertThat(stillOnline.typing()).containsExactly("user1");
+        assertThat(left.online()).containsExactly("user2");
+        assertThat(left.typing()).isEmpty();
+        assertThat(redisTemplate.hasKey("room:" + ROOM)).isFalse();
+    }
+
+    @Test
+    @DisplayName("이 서버에서 떠나도 다른 서버에 세션이 남아 있는 유저는 접속중으로 유지된다")
+    void leaveWhileConnectedToOtherServer() {
+        //given
+        chatPresenceRedisRepository.setOnline(ROOM, "user1", UUID.randomUUID().toString(), 60_000); //다른 서버의 세션
+        chatPresenceService.join(ROOM, "user1");
+
+        //when
+        chatPresenceService.leave(ROOM, "user1");
+        ChatPresenceRedisRepository.Presence presence = chatPresenceRedisRepository.getPresences(List.of(ROOM)).get(ROOM);
+
+        //then
+        assertThat(presence.online()).containsExactly("user1");
+    }
+
+    @Test
+    @DisplayName("다른 서버에서 상태가 바뀐 방은 이 서버에 구독자가 있을 때만 전달한다")
+    void flushOnlyLocalRooms() {
+        //given
+        String otherRoom = "presence-other-room";
+        chatPresenceService.join(ROOM, "user1");
+        chatPresenceService.flush();
+
+        //when
+        chatPresenceService.onMessage(new DefaultMessage(ChatPresenceRedisRepository.PRESENCE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                ROOM.getBytes(StandardCharsets.UTF_8)), null);
+        chatPresenceService.onMessage(new DefaultMessage(ChatPresenceRedisRepository.PRESENCE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                otherRoom.getBytes(StandardCharsets.UTF_8)), null);
+        chatPresenceService.flush();
+
+        //then
+        verify(chatBroadcaster, atLeastOnce()).sendPresence(eq(ROOM), any());
+        verify(chatBroadcaster, never()).sendPresence(eq(otherRoom), any());
+        chatPresenceService.leave(ROOM, "user1");
+    }
+}
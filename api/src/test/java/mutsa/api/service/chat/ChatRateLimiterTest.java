@@ -0,0 +1,108 @@
+package mutsa.api.service.chat;
+
+import mutsa.api.ApiApplication;
+import mutsa.api.config.TestRedisConfiguration;
+import mutsa.common.exception.BusinessException;
+import mutsa.common.exception.ErrorCode;
+import mutsa.common.repository.redis.chat.ChatRateLimitRedisRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(classes = {ApiApplication.class, TestRedisConfiguration.class})
+@ActiveProfiles("test")
+class ChatRateLimiterTest {
+    @Autowired
+    private ChatRateLimiter chatRateLimiter;
+    @Autowired
+    private ChatRateLimitRedisRepository chatRateLimitRedisRepository;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        redisTemplate.getConnectionFactory().getConnection().flushDb();
+    }
+
+    @Test
+    @DisplayName("유저마다 burst 만큼 연속으로 보낼 수 있고, 넘으면 거절된다")
+    void userLimit() {
+        //given
+        for (int i = 0; i < 10; i++) {
+            chatRateLimiter.acquireUser("rate-user1");
+        }
+
+        //when, then
+        assertThatThrownBy(() -> chatRateLimiter.acquireUser("rate-user1"))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.CHAT_RATE_LIMITED);
+        chatRateLimiter.acquireUser("rate-user2");
+    }
+
+    @Test
+    @DisplayName("burst 만큼 연속으로 보낸 뒤 초당 per-second 로 계속 보내도 window 한도에 걸리지 않는다")
+    void burstThenSteadyRate() throws InterruptedException {
+        //given
+        //window 동안 초당 5개씩 보낸 전송(5 * 10)이 이미 합산된 상태
+        chatRateLimitRedisRepository.addAndCount(Map.of("user:rate-user4", 50L), System.currentTimeMillis() / 1000, 10);
+        for (int i = 0; i < 10; i++) {
+            chatRateLimiter.acquireUser("rate-user4");
+        }
+
+        //when
+        chatRateLimiter.sync();
+        Thread.sleep(250); //초당 5개 속도로 token 하나가 다시 찬다
+
+        //then
+        chatRateLimiter.acquireUser("rate-user4");
+    }
+
+    @Test
+    @DisplayName("다른 서버의 전송까지 합산하여 window 한도를 넘은 채팅방은 거절된다")
+    void roomLimitAcrossServers() {
+        //given
+        //다른 서버에서 이미 window 한도(60 + 30 * 10)만큼 보낸 상태
+        chatRateLimitRedisRepository.addAndCount(Map.of("room:rate-room", 360L), System.currentTimeMillis() / 1000, 10);
+        chatRateLimiter.acquireUser("rate-user3");
+        chatRateLimiter.acquireRoom("rate-room");
+
+        //when
+        chatRateLimiter.sync();
+
+        //then
+        assertThatThrownBy(() -> chatRateLimiter.acquireRoom("rate-room"))
+                .isInstanceOf(BusinessException.class);
+        chatRateLimiter.acquireRoom("rate-room2");
+        assertThat(chatRateLimitRedisRepository.addAndCount(Map.of("user:rate-user3", 0L), System.currentTimeMillis() / 1000, 10))
+                .containsEntry("user:rate-user3", 1L);
+    }
+
+    @Test
+    @DisplayName("거절 중인 채팅방은 이 서버의 전송이 없어도 동기화마다 다시 확인하여, 한도 아래로 내려가면 해제된다")
+    void recheckBlockedRoom() {
+        //given
+        long now = System.currentTimeMillis() / 1000;
+        chatRateLimitRedisRepository.addAndCount(Map.of("room:rate-room3", 360L), now, 10);
+        chatRateLimiter.acquireRoom("rate-room3");
+        chatRateLimiter.sync();
+        assertThatThrownBy(() -> chatRateLimiter.acquireRoom("rate-room3"))
+                .isInstanceOf(BusinessException.class);
+
+        //when
+        //window 가 지나 다른 서버의 전송 수가 만료된 상태
+        redisTemplate.delete(redisTemplate.keys(String.format(ChatRateLimitRedisRepository.RATE_KEY, "room:rate-room3", "*")));
+        chatRateLimiter.sync();
+
+        //then
+        chatRateLimiter.acquireRoom("rate-room3");
+    }
+}
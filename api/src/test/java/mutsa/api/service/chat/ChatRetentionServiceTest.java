@@ -0,0 +1,154 @@
+package mutsa.api.service.chat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import lombok.extern.slf4j.Slf4j;
+import mutsa.api.ApiApplication;
+import mutsa.api.config.TestRedisConfiguration;
+import mutsa.api.dto.chat.ChatResponseDto;
+import mutsa.common.domain.models.chat.ChatMessage;
+import mutsa.common.domain.models.chat.ChatRedis;
+import mutsa.common.domain.models.chatroom.Chatroom;
+import mutsa.common.domain.models.user.User;
+import mutsa.common.repository.chat.ChatMessageRepository;
+import mutsa.common.repository.chatroom.ChatroomRepository;
+import mutsa.common.repository.redis.chat.ChatRedisRepository;
+import mutsa.common.repository.redis.chat.ChatSearchRedisRepository;
+import mutsa.common.repository.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = {ApiApplication.class, TestRedisConfiguration.class})
+@ActiveProfiles("test")
+@Transactional
+@Slf4j
+class ChatRetentionServiceTest {
+    @Autowired
+    private ChatRetentionService chatRetentionService;
+    @Autowired
+    private ChatService chatService;
+    @Autowired
+    private ChatRedisRepository chatRedisRepository;
+    @Autowired
+    private ChatSearchRedisRepository chatSearchRedisRepository;
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+    @Autowired
+    private ChatroomRepository chatroomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    private User user;
+    private Chatroom chatroom;
+
+    @BeforeEach
+    public void init() throws InterruptedException {
+        user = userRepository.save(User.of("user1", "password", "email1@", "oauthName1", null, "user1"));
+        chatroom = chatroomRepository.save(Chatroom.of("article"));
+        for (int i = 0; i < 3; i++) {
+            chatRedisRepository.saveMessage(ChatRedis.of(chatroom, user, "message" + i));
+            Thread.sleep(5);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        redisTemplate.getConnectionFactory().getConnection().flushDb();
+    }
+
+    @Test
+    @DisplayName("보관 기간이 지난 채팅은 테이블로 옮겨지고, 조회 시 이어서 읽힌다")
+    void archiveRoom() throws JsonProcessingException {
+        //given
+        double cutoffScore = chatRedisRepository.getTimeToDouble(LocalDateTime.now().plusMinutes(1));
+
+        //when
+        long archived = chatRetentionService.archiveRoom(chatroom.getApiId(), cutoffScore);
+        List<ChatResponseDto> messages = new ArrayList<>();
+        for (RawValue rawValue : chatService.getLastMessages(chatroom.getApiId())) {
+            messages.add(objectMapper.readValue((String) rawValue.rawValue(), ChatResponseDto.class));
+        }
+
+        //then
+        assertThat(archived).isEqualTo(3);
+        assertThat(chatRedisRepository.getMessagesBefore(chatroom.getApiId(), null, 10)).isEmpty();
+        assertThat(chatMessageRepository.count()).isEqualTo(3);
+        assertThat(chatMessageRepository.searchArchived(List.of(chatroom.getApiId()), List.of("message1"), null, null, 10))
+                .extracting(ChatMessage::getContent)
+                .containsExactly("message1");
+        assertThat(messages).extracting(ChatResponseDto::getMessage)
+                .containsExactly("message2", "message1", "message0");
+        assertThat(chatRedisRepository.isArchived(chatroom.getApiId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("테이블로 옮긴 채팅은 검색 색인에서도 제거하고, 레디스에 남은 채팅의 색인은 유지한다")
+    void archiveRemovesIndex() {
+        //given
+        List<ChatRedis> chats = chatRedisRepository.getMessagesBefore(chatroom.getApiId(), null, 10);
+        chatSearchRedisRepository.index(chats);
+        ChatRedis latest = ChatRedis.of(chatroom, user, "latest");
+        chatRedisRepository.saveMessage(latest);
+        chatSearchRedisRepository.index(List.of(latest));
+        double cutoffScore = chatRedisRepository.getTimeToDouble(latest.getCreatedAt());
+
+        //when
+        long archived = chatRetentionService.archiveRoom(chatroom.getApiId(), cutoffScore);
+
+        //then
+        assertThat(archived).isEqualTo(3);
+        assertThat(redisTemplate.keys(String.format(ChatSearchRedisRepository.INDEX_KEY, chatroom.getApiId(), "*")))
+                .containsExactlyInAnyOrder(
+                        String.format(ChatSearchRedisRepository.INDEX_KEY, chatroom.getApiId(), "la"),
+                        String.format(ChatSearchRedisRepository.INDEX_KEY, chatroom.getApiId(), "at"),
+                        String.format(ChatSearchRedisRepository.INDEX_KEY, chatroom.getApiId(), "te"),
+                        String.format(ChatSearchRedisRepository.INDEX_KEY, chatroom.getApiId(), "es"),
+                        String.format(ChatSearchRedisRepository.INDEX_KEY, chatroom.getApiId(), "st"));
+        assertThat(redisTemplate.opsForZSet().zCard(String.format(ChatSearchRedisRepository.INDEX_KEY, chatroom.getApiId(), "es")))
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("다른 서버가 잡은 락은 해제하지 않는다")
+    void keepLockOfOtherServer() {
+        //given
+        redisTemplate.opsForValue().set("chat:retention:lock", "other-server");
+
+        //when
+        chatRetentionService.archiveExpiredMessages();
+
+        //then
+        assertThat(redisTemplate.opsForValue().get("chat:retention:lock")).isEqualTo("other-server");
+    }
+
+    @Test
+    @DisplayName("보관 작업이 끝나면 자신의 락만 해제하고, 이미 보관된 방을 다시 기록한다")
+    void releaseOwnLockAndMarkArchivedRooms() {
+        //given
+        chatMessageRepository.save(ChatMessage.from(ChatRedis.of(chatroom, user, "archived")));
+
+        //when
+        chatRetentionService.archiveExpiredMessages();
+
+        //then
+        assertThat(redisTemplate.hasKey("chat:retention:lock")).isFalse();
+        assertThat(chatRedisRepository.isArchived(chatroom.getApiId())).isTrue();
+    }
+}
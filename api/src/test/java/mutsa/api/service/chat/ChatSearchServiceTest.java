@@ -0,0 +1,117 @@
+package mutsa.api.service.chat;
+
+import mutsa.api.ApiApplication;
+import mutsa.api.config.TestRedisConfiguration;
+import mutsa.api.dto.chat.ChatHistoryResponseDto;
+import mutsa.api.dto.chat.ChatRoomDetailDto;
+import mutsa.api.dto.chat.ChatroomRequestDto;
+import mutsa.api.dto.chat.ChatResponseDto;
+import mutsa.api.service.chatroom.ChatroomService;
+import mutsa.common.domain.models.article.Article;
+import mutsa.common.domain.models.chat.ChatMessage;
+import mutsa.common.domain.models.chat.ChatRedis;
+import mutsa.common.domain.models.chatroom.Chatroom;
+import mutsa.common.domain.models.user.User;
+import mutsa.common.repository.article.ArticleRepository;
+import mutsa.common.repository.chat.ChatMessageRepository;
+import mutsa.common.repository.chatroom.ChatroomRepository;
+import mutsa.common.repository.redis.chat.ChatRedisRepository;
+import mutsa.common.repository.redis.chat.ChatSearchRedisRepository;
+import mutsa.common.repository.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = {ApiApplication.class, TestRedisConfiguration.class})
+@ActiveProfiles("test")
+@Transactional
+class ChatSearchServiceTest {
+    @Autowired
+    private ChatSearchService chatSearchService;
+    @Autowired
+    private ChatroomService chatroomService;
+    @Autowired
+    private ChatSearchRedisRepository chatSearchRedisRepository;
+    @Autowired
+    private ChatRedisRepository chatRedisRepository;
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+    @Autowired
+    private ChatroomRepository chatroomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ArticleRepository articleRepository;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+    private User seller, consumer, stranger;
+    private Chatroom chatroom;
+
+    @BeforeEach
+    public void init() {
+        seller = userRepository.save(User.of("user1", "password", "email1@", "oauthName1", null, "user1"));
+        consumer = userRepository.save(User.of("user2", "password", "email2@", "oauthName2", null, "user2"));
+        stranger = userRepository.save(User.of("user3", "password", "email3@", "oauthName3", null, "user3"));
+        Article article = articleRepository.save(
+                Article.builder()
+                        .title("Pre Article 1")
+                        .description("Pre Article 1 desc")
+                        .user(seller)
+                        .build()
+        );
+        ChatRoomDetailDto chatRoomDetail = chatroomService.createChatRoom(new ChatroomRequestDto(article.getApiId()), consumer.getUsername());
+        chatroom = chatroomRepository.findByApiId(chatRoomDetail.getChatroomApiId()).get();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        redisTemplate.getConnectionFactory().getConnection().flushDb();
+    }
+
+    @Test
+    @DisplayName("레디스와 보관된 채팅을 함께 검색하고, 커서로 다음 페이지를 조회한다")
+    void searchWithCursor() {
+        //given
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<ChatRedis> chats = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String content = i % 2 == 0 ? "Apple pie " + i : "banana " + i;
+            chats.add(ChatRedis.of(UUID.randomUUID().toString(), chatroom.getApiId(), seller.getUsername(), content, now.minusMinutes(5 - i)));
+        }
+        //가장 오래된 채팅은 chat_message 테이블로 보관되어(토큰과 함께) 레디스 색인에 없는 상태
+        chatMessageRepository.archive(List.of(ChatMessage.from(chats.get(0))));
+        chatRedisRepository.markArchived(List.of(chatroom.getApiId()));
+        chats.subList(1, chats.size()).forEach(chatRedisRepository::saveMessage);
+        chatSearchRedisRepository.index(chats.subList(1, chats.size()));
+
+        //when
+        ChatHistoryResponseDto first = chatSearchService.search(consumer.getUsername(), "apple", null, 2);
+        ChatHistoryResponseDto second = chatSearchService.search(consumer.getUsername(), "apple", first.getNextCursor(), 2);
+        ChatHistoryResponseDto phrase = chatSearchService.search(consumer.getUsername(), "pie 2", null, 10);
+        ChatHistoryResponseDto archivedOnly = chatSearchService.search(consumer.getUsername(), "pie 0", null, 10);
+        ChatHistoryResponseDto others = chatSearchService.search(stranger.getUsername(), "apple", null, 10);
+
+        //then
+        assertThat(first.getMessages()).extracting(ChatResponseDto::getMessage).containsExactly("Apple pie 4", "Apple pie 2");
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(second.getMessages()).extracting(ChatResponseDto::getMessage).containsExactly("Apple pie 0");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(phrase.getMessages()).extracting(ChatResponseDto::getMessage).containsExactly("Apple pie 2");
+        assertThat(archivedOnly.getMessages()).extracting(ChatResponseDto::getMessage).containsExactly("Apple pie 0");
+        assertThat(archivedOnly.isHasNext()).isFalse();
+        assertThat(others.getMessages()).isEmpty();
+    }
+}
@@ -0,0 +1,211 @@
+package mutsa.api.service.chat;
+
+import com.auth0.jwt.JWT;
+import mutsa.api.ApiApplication;
+import mutsa.api.config.TestRedisConfiguration;
+import mutsa.api.config.TestStompBrokerConfiguration;
+import mutsa.api.config.jwt.JwtConfig;
+import mutsa.api.config.socket.StompBrokerConfig;
+import mutsa.api.dto.chat.ChatRequestDto;
+import mutsa.api.dto.chat.ChatRoomDetailDto;
+import mutsa.api.dto.chat.ChatroomRequestDto;
+import mutsa.api.service.chatroom.ChatroomService;
+import mutsa.common.domain.models.article.Article;
+import mutsa.common.domain.models.user.User;
+import mutsa.common.repository.article.ArticleRepository;
+import mutsa.common.repository.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 내장 STOMP 브로커(TestStompBrokerConfiguration)를 relay 모드로 사용하여
+ * ChatService.sendMessage 의 broadcast 가 외부 브로커를 거쳐 구독자에게 전달되는지 확인한다.
+ */
+@SpringBootTest(
+        classes = {ApiApplication.class, TestRedisConfiguration.class, TestStompBrokerConfiguration.class},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT
+)
+@ActiveProfiles({"test", "relay"})
+class ChatServiceRelayTest {
+    private static final int BROKER_PORT = TestStompBrokerConfiguration.findAvailablePort();
+
+    @DynamicPropertySource
+    static void brokerProperties(DynamicPropertyRegistry registry) {
+        registry.add("chat.broker.relay.port", () -> BROKER_PORT);
+    }
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ChatService chatService;
+    @Autowired
+    private ChatroomService chatroomService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ArticleRepository articleRepository;
+    @Autowired
+    private JwtConfig jwtConfig;
+    @Autowired
+    private StompBrokerConfig stompBrokerConfig;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    private WebSocketStompClient stompClient;
+    private final List<StompSession> sessions = new ArrayList<>();
+    private User seller, consumer;
+    private String roomApiId;
+
+    @BeforeEach
+    public void init() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        seller = userRepository.save(User.of("seller-" + suffix, "password", "seller-" + suffix + "@", null, null, "seller"));
+        consumer = userRepository.save(User.of("consumer-" + suffix, "password", "consumer-" + suffix + "@", null, null, "consumer"));
+        Article article = articleRepository.save(
+                Article.builder()
+                        .title("Relay Article")
+                        .description("Relay Article desc")
+                        .user(seller)
+                        .build()
+        );
+        ChatRoomDetailDto chatRoomDetail = chatroomService.createChatRoom(new ChatroomRequestDto(article.getApiId()), consumer.getUsername());
+        roomApiId = chatRoomDetail.getChatroomApiId();
+
+        ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setTaskScheduler(taskScheduler);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sessions.forEach(session -> {
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        });
+        redisTemplate.getConnectionFactory().getConnection().flushDb();
+    }
+
+    @Test
+    @DisplayName("relay 모드에서 sendMessage 로 저장된 채팅은 외부 브로커를 거쳐 구독자에게 전달된다")
+    void broadcastThroughRelay() throws Exception {
+        //given
+        assertThat(stompBrokerConfig.isRelay()).isTrue();
+        BlockingQueue<String> received = subscribe(seller);
+
+        //when
+        Boolean saved = chatService.sendMessage(new ChatRequestDto("hello relay", roomApiId, "MESSAGE"), consumer.getUsername())
+                .get(10, TimeUnit.SECONDS);
+
+        //then
+        assertThat(saved).isTrue();
+        assertThat(poll(received, "hello relay")).contains(consumer.getUsername());
+    }
+
+    @Test
+    @DisplayName("relay 모드에서 /pub/chat/message 로 보낸 채팅이 같은 방의 다른 구독자에게 전달된다")
+    void sendThroughRelay() throws Exception {
+        //given
+        BlockingQueue<String> received = subscribe(seller);
+        StompSession publisher = connect(consumer);
+
+        //when
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination("/pub/chat/message");
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        publisher.send(headers, ("{\"message\":\"hello stomp\",\"roomApiId\":\"" + roomApiId + "\",\"type\":\"message\"}")
+                .getBytes(StandardCharsets.UTF_8));
+
+        //then
+        assertThat(poll(received, "hello stomp")).contains(consumer.getUsername());
+    }
+
+    /**
+     * 브로커가 구독을 등록한 뒤(RECEIPT)에 반환한다.
+     */
+    private BlockingQueue<String> subscribe(User user) throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        StompSession session = connect(user);
+        session.setAutoReceipt(true);
+        CountDownLatch subscribed = new CountDownLatch(1);
+        session.subscribe("/sub/chat/room/" + roomApiId, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add(new String((byte[]) payload, StandardCharsets.UTF_8));
+            }
+        }).addReceiptTask(subscribed::countDown);
+        assertThat(subscribed.await(10, TimeUnit.SECONDS)).isTrue();
+        return received;
+    }
+
+    /**
+     * 입장 시 받는 최신 메세지 목록(SubscribeMapping) 등은 건너뛰고 content 가 담긴 채팅을 기다린다.
+     */
+    private String poll(BlockingQueue<String> received, String content) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            String payload = received.poll(100, TimeUnit.MILLISECONDS);
+            if (payload != null && payload.startsWith("{") && payload.contains(content)) {
+                return payload;
+            }
+        }
+        return null;
+    }
+
+    private StompSession connect(User user) throws Exception {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + createToken(user.getUsername()));
+        StompSession session = stompClient.connectAsync("ws://localhost:" + port + "/ws", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() {
+                }).get(10, TimeUnit.SECONDS);
+        sessions.add(session);
+        return session;
+    }
+
+    private String createToken(String username) {
+        return JWT.create()
+                .withSubject(username)
+                .withIssuedAt(Date.from(Instant.now()))
+                .withExpiresAt(Date.from(Instant.now().plusSeconds(3600)))
+                .withClaim("authorities", List.of("ROLE_USER"))
+                .sign(jwtConfig.getEncodedSecretKey());
+    }
+}
@@ -0,0 +1,185 @@
+package mutsa.api.service.chat;
+
+import mutsa.api.ApiApplication;
+import mutsa.api.config.TestRedisConfiguration;
+import mutsa.api.dto.chat.ChatHistoryResponseDto;
+import mutsa.api.dto.chat.ChatRequestDto;
+import mutsa.api.dto.chat.ChatRoomDetailDto;
+import mutsa.api.dto.chat.ChatroomRequestDto;
+import mutsa.api.dto.chat.ChatResponseDto;
+import mutsa.api.dto.chat.ReadReceiptDto;
+import mutsa.api.service.chatroom.ChatroomService;
+import mutsa.common.domain.models.article.Article;
+import mutsa.common.domain.models.chat.ChatMessage;
+import mutsa.common.domain.models.chat.ChatRedis;
+import mutsa.common.domain.models.chatroom.Chatroom;
+import mutsa.common.domain.models.user.User;
+import mutsa.common.repository.article.ArticleRepository;
+import mutsa.common.repository.chat.ChatMessageRepository;
+import mutsa.common.repository.chatroom.ChatroomRepository;
+import mutsa.common.repository.redis.chat.ChatReadRedisRepository;
+import mutsa.common.repository.redis.chat.ChatRedisRepository;
+import mutsa.common.repository.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = {ApiApplication.class, TestRedisConfiguration.class})
+@ActiveProfiles("test")
+@Transactional
+class ChatServiceTest {
+    @Autowired
+    private ChatService chatService;
+    @Autowired
+    private ChatroomService chatroomService;
+    @Autowired
+    private ChatRedisRepository chatRedisRepository;
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+    @Autowired
+    private ChatroomRepository chatroomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ArticleRepository articleRepository;
+    @Autowired
+    private ChatReadRedisRepository chatReadRedisRepository;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+    private User seller, consumer;
+    private Chatroom chatroom;
+
+    @BeforeEach
+    public void init() {
+        seller = userRepository.save(User.of("user1", "password", "email1@", "oauthName1", null, "user1"));
+        consumer = userRepository.save(User.of("user2", "password", "email2@", "oauthName2", null, "user2"));
+        Article article = articleRepository.save(
+                Article.builder()
+                        .title("Pre Article 1")
+                        .description("Pre Article 1 desc")
+                        .user(seller)
+                        .build()
+        );
+        ChatRoomDetailDto chatRoomDetail = chatroomService.createChatRoom(new ChatroomRequestDto(article.getApiId()), consumer.getUsername());
+        chatroom = chatroomRepository.findByApiId(chatRoomDetail.getChatroomApiId()).get();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        redisTemplate.getConnectionFactory().getConnection().flushDb();
+    }
+
+    @Test
+    @DisplayName("같은 밀리초에 저장된 메세지가 페이지 경계에 걸쳐도 누락되거나 중복되지 않는다")
+    void pagingWithSameTimestamp() {
+        //given
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ChatRedis chat = ChatRedis.of(UUID.randomUUID().toString(), chatroom.getApiId(), seller.getUsername(), "message" + i, now);
+            chatRedisRepository.saveMessage(chat);
+            ids.add(chat.getId());
+        }
+
+        //when
+        List<String> received = readAll(2);
+
+        //then
+        assertThat(received).containsExactlyElementsOf(ids.stream().sorted(Comparator.reverseOrder()).toList());
+    }
+
+    @Test
+    @DisplayName("같은 밀리초의 메세지가 레디스와 보관 테이블에 나뉘어 있어도 이어서 조회된다")
+    void pagingAcrossArchiveBoundary() {
+        //given
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<ChatRedis> chats = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            chats.add(ChatRedis.of(UUID.randomUUID().toString(), chatroom.getApiId(), seller.getUsername(), "message" + i, now));
+        }
+        chats.sort(Comparator.comparing(ChatRedis::getId));
+        //보관 작업은 같은 시각이면 id 가 작은 채팅부터 옮긴다
+        chats.subList(0, 2).forEach(chat -> chatMessageRepository.save(ChatMessage.from(chat)));
+        chats.subList(2, 4).forEach(chatRedisRepository::saveMessage);
+        chatRedisRepository.markArchived(List.of(chatroom.getApiId()));
+
+        //when
+        List<String> received = readAll(1);
+
+        //then
+        assertThat(received).containsExactlyElementsOf(chats.stream().map(ChatRedis::getId).sorted(Comparator.reverseOrder()).toList());
+    }
+
+    @Test
+    @DisplayName("보관된 적 없는 방은 보관 테이블을 조회하지 않는다")
+    void skipArchiveForUnarchivedRoom() {
+        //given
+        ChatRedis chat = ChatRedis.of(UUID.randomUUID().toString(), chatroom.getApiId(), seller.getUsername(), "archived", LocalDateTime.now());
+        chatMessageRepository.save(ChatMessage.from(chat));
+
+        //when
+        List<String> beforeMarked = readAll(10);
+        chatRedisRepository.markArchived(List.of(chatroom.getApiId()));
+        List<String> afterMarked = readAll(10);
+
+        //then
+        assertThat(beforeMarked).isEmpty();
+        assertThat(afterMarked).containsExactly(chat.getId());
+    }
+
+    @Test
+    @DisplayName("읽음 처리는 읽은 위치 이후의 메세지 수로 다시 계산하고, 이전 위치로의 읽음 처리는 무시한다")
+    void markAsReadRecountsUnread() throws InterruptedException {
+        //given
+        for (int i = 0; i < 3; i++) {
+            chatService.sendMessage(new ChatRequestDto("message" + i, chatroom.getApiId(), "MESSAGE"), seller.getUsername()).join();
+            Thread.sleep(2); //메세지마다 다른 시각으로 저장한다
+        }
+        List<Long> timestamps = chatService.getMessageHistory(chatroom.getApiId(), consumer.getUsername(), null, null, 10)
+                .getMessages().stream().map(ChatResponseDto::getTimestamp).toList();
+
+        //when
+        chatService.markAsRead(chatroom.getApiId(), consumer.getUsername(), timestamps.get(1));
+        long afterRead = unreadCount();
+        chatService.markAsRead(chatroom.getApiId(), consumer.getUsername(), timestamps.get(2));
+        long afterStaleRead = unreadCount();
+        List<ReadReceiptDto> receipts = chatService.getReadReceipts(chatroom.getApiId(), seller.getUsername());
+
+        //then
+        assertThat(afterRead).isEqualTo(1);
+        assertThat(afterStaleRead).isEqualTo(1);
+        assertThat(receipts).hasSize(1);
+        assertThat(receipts.get(0).getUsername()).isEqualTo(consumer.getUsername());
+        assertThat(receipts.get(0).getReadCursor()).isEqualTo(timestamps.get(1));
+    }
+
+    private long unreadCount() {
+        return chatReadRedisRepository.getUnreadCounts(consumer.getUsername(), List.of(chatroom.getApiId()))
+                .get(chatroom.getApiId());
+    }
+
+    private List<String> readAll(int limit) {
+        List<String> received = new ArrayList<>();
+        ChatHistoryResponseDto page = chatService.getMessageHistory(chatroom.getApiId(), consumer.getUsername(), null, null, limit);
+        received.addAll(page.getMessages().stream().map(ChatResponseDto::getId).toList());
+        while (page.isHasNext()) {
+            page = chatService.getMessageHistory(chatroom.getApiId(), consumer.getUsername(), page.getNextCursor(), page.getNextCursorId(), limit);
+            received.addAll(page.getMessages().stream().map(ChatResponseDto::getId).toList());
+        }
+        return received;
+    }
+}
@@ -0,0 +1,132 @@
+package mutsa.api.service.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mutsa.api.dto.chat.ChatResponseDto;
+import mutsa.common.domain.models.chat.ChatRedis;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotRoomMessageCacheTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private HotRoomMessageCache cache;
+
+    @BeforeEach
+    public void init() {
+        cache = new HotRoomMessageCache(objectMapper, new SimpleMeterRegistry(), 10, 100, 600);
+    }
+
+    @Test
+    @DisplayName("구독이 확인된 방은 캐시하고, 발행된 json 을 파싱하지 않고 그대로 반환한다")
+    void appendRawPayload() throws Exception {
+        //given
+        cache.onSubscribed("room1");
+        AtomicInteger loads = new AtomicInteger();
+        cache.getOrLoad("room1", 10, () -> {
+            loads.incrementAndGet();
+            return List.of(message("first"));
+        });
+        //바이트를 그대로 보관하는지 확인하기 위해 키 순서가 다른 json 을 발행한다
+        String published = "{\"message\":\"second\",\"id\":\"" + UUID.randomUUID() + "\"}";
+
+        //when
+        cache.append("room1", published.getBytes());
+        List<RawValue> messages = cache.getOrLoad("room1", 10, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        //then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(messages).hasSize(2);
+        assertThat(messages.get(0).rawValue()).isEqualTo(published);
+    }
+
+    @Test
+    @DisplayName("로딩 중에 발행된 메세지는 채팅 id 로 합쳐 누락이나 중복 없이 캐시된다")
+    void mergePendingById() throws Exception {
+        //given
+        cache.onSubscribed("room1");
+        ChatResponseDto saved = message("saved during load");
+        ChatResponseDto published = message("published during load");
+
+        //when
+        List<RawValue> loaded = cache.getOrLoad("room1", 10, () -> {
+            //조회 직전에 저장되어 조회 결과와 구독 양쪽에 들어온 메세지 + 조회 이후에 발행된 메세지
+            cache.append("room1", json(saved));
+            cache.append("room1", json(published));
+            return List.of(saved, message("older"));
+        });
+
+        //then
+        assertThat(messagesOf(loaded)).containsExactly("published during load", "saved during load", "older");
+    }
+
+    @Test
+    @DisplayName("구독이 확인되지 않은 방은 캐시하지 않는다")
+    void skipUnsubscribedRoom() {
+        //given
+        AtomicInteger loads = new AtomicInteger();
+
+        //when
+        cache.getOrLoad("room1", 10, () -> {
+            loads.incrementAndGet();
+            return List.of(message("first"));
+        });
+        cache.getOrLoad("room1", 10, () -> {
+            loads.incrementAndGet();
+            return List.of(message("first"));
+        });
+
+        //then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("ttl 동안 조회되지 않은 방은 조회하지 않아도 제거된다")
+    void evictExpired() throws InterruptedException {
+        //given
+        cache = new HotRoomMessageCache(objectMapper, new SimpleMeterRegistry(), 10, 100, 0);
+        cache.onSubscribed("room1");
+        cache.getOrLoad("room1", 10, () -> List.of(message("first")));
+        Thread.sleep(5);
+
+        //when
+        cache.evictExpired();
+
+        //then
+        assertThat(cache.size()).isZero();
+    }
+
+    private ChatResponseDto message(String content) {
+        ChatRedis chat = ChatRedis.of(UUID.randomUUID().toString(), "room1", "user1", content, LocalDateTime.now());
+        return ChatResponseDto.fromEntity(chat, "room1");
+    }
+
+    private byte[] json(ChatResponseDto message) {
+        try {
+            return objectMapper.writeValueAsBytes(message);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<String> messagesOf(List<RawValue> values) throws Exception {
+        List<String> messages = new ArrayList<>();
+        for (RawValue value : values) {
+            messages.add(objectMapper.readValue((String) value.rawValue(), ChatResponseDto.class).getMessage());
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,87 @@
+package mutsa.api.service.chat;
+
+import mutsa.api.ApiApplication;
+import mutsa.api.config.TestRedisConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = {ApiApplication.class, TestRedisConfiguration.class})
+@ActiveProfiles("test")
+class StompSessionRegistryTest {
+    private static final String ROOM = "registry-room";
+
+    @Autowired
+    private StompSessionRegistry stompSessionRegistry;
+    @Autowired
+    private ChatRoomTopicManager chatRoomTopicManager;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        redisTemplate.getConnectionFactory().getConnection().flushDb();
+    }
+
+    @Test
+    @DisplayName("세션과 채팅방 구독 수를 집계하고, 연결이 끊기면 해당 세션의 구독을 함께 제거한다")
+    void trackSessions() {
+        //given
+        Principal user = new UsernamePasswordAuthenticationToken("user1", null);
+        stompSessionRegistry.handleConnected(new SessionConnectedEvent(this, message(StompCommand.CONNECTED, "s1", null, null), user));
+        stompSessionRegistry.handleConnected(new SessionConnectedEvent(this, message(StompCommand.CONNECTED, "s2", null, null), user));
+
+        //when
+        stompSessionRegistry.handleSubscribe(new SessionSubscribeEvent(this,
+                message(StompCommand.SUBSCRIBE, "s1", "sub-0", ChatBroadcaster.ROOM_DESTINATION + ROOM), user));
+        stompSessionRegistry.handleSubscribe(new SessionSubscribeEvent(this,
+                message(StompCommand.SUBSCRIBE, "s1", "sub-1", ChatBroadcaster.ROOM_DESTINATION + ROOM + ChatBroadcaster.PRESENCE_SUFFIX), user));
+        stompSessionRegistry.handleSubscribe(new SessionSubscribeEvent(this,
+                message(StompCommand.SUBSCRIBE, "s2", "sub-0", ChatBroadcaster.ROOM_DESTINATION + ROOM), user));
+        int subscribed = stompSessionRegistry.getRoomSubscriptionCount(ROOM);
+        int localSubscribed = chatRoomTopicManager.getLocalSubscriberCount(ROOM);
+        stompSessionRegistry.handleUnsubscribe(new SessionUnsubscribeEvent(this,
+                message(StompCommand.UNSUBSCRIBE, "s2", "sub-0", null), user));
+        stompSessionRegistry.handleDisconnect(new SessionDisconnectEvent(this,
+                message(StompCommand.DISCONNECT, "s1", null, null), "s1", CloseStatus.NORMAL, user));
+
+        //then
+        assertThat(subscribed).isEqualTo(2);
+        assertThat(localSubscribed).isEqualTo(2);
+        assertThat(stompSessionRegistry.getRoomSubscriptionCount(ROOM)).isZero();
+        assertThat(chatRoomTopicManager.getLocalSubscriberCount(ROOM)).isZero();
+        assertThat(stompSessionRegistry.getUserSessionCount("user1")).isEqualTo(1);
+        assertThat(stompSessionRegistry.getSessionCount()).isEqualTo(1);
+        assertThat(stompSessionRegistry.getSubscriptionCount()).isZero();
+
+        stompSessionRegistry.handleDisconnect(new SessionDisconnectEvent(this,
+                message(StompCommand.DISCONNECT, "s2", null, null), "s2", CloseStatus.NORMAL, user));
+        assertThat(stompSessionRegistry.getUserSessionCount("user1")).isZero();
+    }
+
+    private Message<byte[]> message(StompCommand command, String sessionId, String subscriptionId, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
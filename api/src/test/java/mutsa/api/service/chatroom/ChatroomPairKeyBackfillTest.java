@@ -0,0 +1,99 @@
+package mutsa.api.service.chatroom;
+
+import mutsa.api.ApiApplication;
+import mutsa.api.config.TestRedisConfiguration;
+import mutsa.common.domain.models.chatroom.Chatroom;
+import mutsa.common.domain.models.chatroomUser.ChatroomUser;
+import mutsa.common.domain.models.user.User;
+import mutsa.common.repository.chatroom.ChatroomRepository;
+import mutsa.common.repository.chatroomUser.ChatroomUserRepository;
+import mutsa.common.repository.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = {ApiApplication.class, TestRedisConfiguration.class})
+@ActiveProfiles("test")
+@Transactional
+class ChatroomPairKeyBackfillTest {
+    @Autowired
+    private ChatroomPairKeyBackfill chatroomPairKeyBackfill;
+    @Autowired
+    private ChatroomRepository chatroomRepository;
+    @Autowired
+    private ChatroomUserRepository chatroomUserRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    private User user1, user2;
+
+    @BeforeEach
+    public void init() {
+        //기동 시 실행된 기록을 지운다
+        redisTemplate.getConnectionFactory().getConnection().flushDb();
+        user1 = userRepository.save(User.of("user1", "password", "email1@", "oauthName1", null, "user1"));
+        user2 = userRepository.save(User.of("user2", "password", "email2@", "oauthName2", null, "user2"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        redisTemplate.getConnectionFactory().getConnection().flushDb();
+    }
+
+    @Test
+    @DisplayName("pairKey 가 없는 방에 채우고, 같은 두 사람의 중복 방은 비워둔다. 다시 실행해도 결과는 같다")
+    void backfill() {
+        //given
+        Chatroom legacy = legacyChatroom("legacy");
+        Chatroom duplicated = legacyChatroom("duplicated");
+
+        //when
+        chatroomPairKeyBackfill.backfill();
+        redisTemplate.delete(ChatroomPairKeyBackfill.DONE_KEY);
+        chatroomPairKeyBackfill.backfill();
+
+        //then
+        assertThat(chatroomRepository.findById(legacy.getId()).get().getPairKey())
+                .isEqualTo(Chatroom.pairKeyOf(user1.getId(), user2.getId()));
+        assertThat(chatroomRepository.findById(duplicated.getId()).get().getPairKey()).isNull();
+        assertThat(redisTemplate.hasKey(ChatroomPairKeyBackfill.DONE_KEY)).isTrue();
+        assertThat(redisTemplate.hasKey(ChatroomPairKeyBackfill.LOCK_KEY)).isFalse();
+    }
+
+    @Test
+    @DisplayName("다른 서버가 실행중이거나 이미 완료된 경우 실행하지 않는다")
+    void skipWhenLockedOrDone() {
+        //given
+        Chatroom legacy = legacyChatroom("legacy");
+
+        //when
+        redisTemplate.opsForValue().set(ChatroomPairKeyBackfill.LOCK_KEY, "other-server");
+        chatroomPairKeyBackfill.backfill();
+        String whileLocked = chatroomRepository.findById(legacy.getId()).get().getPairKey();
+
+        redisTemplate.delete(ChatroomPairKeyBackfill.LOCK_KEY);
+        redisTemplate.opsForValue().set(ChatroomPairKeyBackfill.DONE_KEY, "done");
+        chatroomPairKeyBackfill.backfill();
+        String whenDone = chatroomRepository.findById(legacy.getId()).get().getPairKey();
+
+        //then
+        assertThat(whileLocked).isNull();
+        assertThat(whenDone).isNull();
+    }
+
+    private Chatroom legacyChatroom(String articleApiId) {
+        Chatroom chatroom = chatroomRepository.save(Chatroom.of(articleApiId));
+        chatroomUserRepository.save(ChatroomUser.of(user1, chatroom));
+        chatroomUserRepository.save(ChatroomUser.of(user2, chatroom));
+        return chatroom;
+    }
+}
@@ -4,14 +4,19 @@ import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import mutsa.api.ApiApplication;
 import mutsa.api.config.TestRedisConfiguration;
+import mutsa.api.dto.chat.ChatRequestDto;
 import mutsa.api.dto.chat.ChatRoomDetailDto;
 import mutsa.api.dto.chat.ChatroomRequestDto;
 import mutsa.api.dto.chat.ChatroomResponseDto;
+import mutsa.api.service.chat.ChatService;
 import mutsa.common.domain.models.article.Article;
+import mutsa.common.domain.models.chatroom.Chatroom;
 import mutsa.common.domain.models.user.User;
 import mutsa.common.exception.BusinessException;
 import mutsa.common.exception.ErrorCode;
 import mutsa.common.repository.article.ArticleRepository;
+import mutsa.common.repository.cache.CachedUser;
+import mutsa.common.repository.chatroom.ChatroomRepository;
 import mutsa.common.repository.user.UserRepository;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterEach;
@@ -20,13 +25,19 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 
 @SpringBootTest(classes = {ApiApplication.class, TestRedisConfiguration.class})
 @ActiveProfiles("test")
@@ -36,11 +47,15 @@ class ChatroomServiceTest {
     @Autowired
     private ChatroomService chatroomService;
     @Autowired
+    private ChatService chatService;
+    @Autowired
     private UserRepository userRepository;
+    @SpyBean
+    private ChatroomRepository chatroomRepository;
     @Autowired
     private ArticleRepository articleRepository;
     @Autowired
-    private RedisTemplate<String, User> userRedisTemplate;
+    private RedisTemplate<String, CachedUser> userRedisTemplate;
     private User seller, seller2, consumer;
     private Article article, article2, article3;
 
@@ -100,6 +115,23 @@ class ChatroomServiceTest {
     }
 
 
+    @Test
+    @DisplayName("같은 두 사람의 방이 동시에 생성되어 pairKey 유니크 제약에 걸리면 먼저 생성된 방을 반환한다")
+    void createChatRoomConcurrently() {
+        //given : 다른 요청이 조회 이후, 저장 이전에 같은 두 사람의 방을 만든 상황
+        String pairKey = Chatroom.pairKeyOf(consumer.getId(), seller.getId());
+        Chatroom created = chatroomRepository.save(Chatroom.of(article.getApiId(), pairKey));
+        doReturn(Optional.empty()).doCallRealMethod().when(chatroomRepository).findByPairKey(pairKey);
+        doThrow(new DataIntegrityViolationException("uk_chatroom_pair_key"))
+                .when(chatroomRepository).save(argThat((Chatroom chatroom) -> chatroom != created && pairKey.equals(chatroom.getPairKey())));
+
+        //when
+        ChatRoomDetailDto chatRoom = chatroomService.createChatRoom(new ChatroomRequestDto(article.getApiId()), consumer.getUsername());
+
+        //then
+        assertThat(chatRoom.getChatroomApiId()).isEqualTo(created.getApiId());
+    }
+
     @Test
     @DisplayName("이미 채팅방이 있는 경우(다른 게시글)")
     void createChatRoom2() {
@@ -114,6 +146,8 @@ class ChatroomServiceTest {
         //then
         assertThat(chatRoom.getRoomName()).isEqualTo(seller.getUsername());
         assertThat(chatRoom.getArticleTitle()).isEqualTo(article2.getTitle());
+        assertThat(chatroomRepository.findByPairKey(Chatroom.pairKeyOf(consumer.getId(), seller.getId())))
+                .hasValueSatisfying(chatroom -> assertThat(chatroom.getApiId()).isEqualTo(chatRoom.getChatroomApiId()));
     }
 
     @Test
@@ -159,6 +193,54 @@ class ChatroomServiceTest {
         assertThat(myChatroom.size()).isEqualTo(2);
         assertThat(myChatroom.get(0).getChatroomApiId()).isEqualTo(chatRoom1.getChatroomApiId());
         assertThat(myChatroom.get(1).getChatroomApiId()).isEqualTo(chatRoom2.getChatroomApiId());
+        assertThat(myChatroom.get(0).getArticleTitle()).isEqualTo(article.getTitle());
+        assertThat(myChatroom.get(1).getArticleTitle()).isEqualTo(article3.getTitle());
+        assertThat(myChatroom.get(0).getLastMessage()).isNull();
+    }
+
+    @Test
+    @DisplayName("읽지 않은 메세지 수 반환")
+    void findMyChatroomsWithUnreadCount() {
+        //given
+        ChatroomRequestDto dto = new ChatroomRequestDto(article.getApiId());
+        ChatRoomDetailDto chatRoom = chatroomService.createChatRoom(dto, consumer.getUsername());
+        for (int i = 0; i < 2; i++) {
+            chatService.sendMessage(new ChatRequestDto("message" + i, chatRoom.getChatroomApiId(), "MESSAGE"),
+                    seller.getUsername()).join();
+        }
+
+        //when
+        List<ChatroomResponseDto> consumerChatrooms = chatroomService.findMyChatroom(consumer.getUsername());
+        List<ChatroomResponseDto> sellerChatrooms = chatroomService.findMyChatroom(seller.getUsername());
+        chatService.markAsRead(chatRoom.getChatroomApiId(), consumer.getUsername(), null);
+        List<ChatroomResponseDto> readChatrooms = chatroomService.findMyChatroom(consumer.getUsername());
+
+        //then
+        assertThat(consumerChatrooms.get(0).getUnreadCount()).isEqualTo(2);
+        assertThat(consumerChatrooms.get(0).getLastMessage().getMessage()).isEqualTo("message1");
+        assertThat(sellerChatrooms.get(0).getUnreadCount()).isEqualTo(0);
+        assertThat(readChatrooms.get(0).getUnreadCount()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("같은 clientMessageId 로 재전송한 메세지는 한번만 저장된다")
+    void sendMessageWithClientMessageId() {
+        //given
+        ChatroomRequestDto dto = new ChatroomRequestDto(article.getApiId());
+        ChatRoomDetailDto chatRoom = chatroomService.createChatRoom(dto, consumer.getUsername());
+        ChatRequestDto request = new ChatRequestDto("message", chatRoom.getChatroomApiId(), "MESSAGE");
+        request.setClientMessageId(UUID.randomUUID().toString());
+
+        //when
+        Boolean first = chatService.sendMessage(request, seller.getUsername()).join();
+        Boolean retried = chatService.sendMessage(request, seller.getUsername()).join();
+        List<ChatroomResponseDto> consumerChatrooms = chatroomService.findMyChatroom(consumer.getUsername());
+
+        //then
+        assertThat(first).isTrue();
+        assertThat(retried).isFalse();
+        assertThat(chatService.getLastMessages(chatRoom.getChatroomApiId())).hasSize(1);
+        assertThat(consumerChatrooms.get(0).getUnreadCount()).isEqualTo(1);
     }
 
     @Test
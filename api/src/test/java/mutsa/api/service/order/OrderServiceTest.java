@@ -20,6 +20,7 @@ import mutsa.common.domain.models.payment.Payment;
 import mutsa.common.domain.models.user.User;
 import mutsa.common.dto.order.OrderResponseDto;
 import mutsa.common.repository.article.ArticleRepository;
+import mutsa.common.repository.cache.CachedUser;
 import mutsa.common.repository.order.OrderRepository;
 import mutsa.common.repository.payment.PaymentRepository;
 import mutsa.common.repository.user.UserRepository;
@@ -57,7 +58,7 @@ class OrderServiceTest {
     @Autowired
     private PaymentRepository paymentRepository;
     @Autowired
-    private RedisTemplate<String, User> userRedisTemplate;
+    private RedisTemplate<String, CachedUser> userRedisTemplate;
     @MockBean
     private ReceiptService receiptService;
     @MockBean
@@ -13,6 +13,7 @@ import mutsa.common.domain.models.review.Review;
 import mutsa.common.domain.models.user.User;
 import mutsa.common.domain.models.order.Order;
 import mutsa.common.repository.article.ArticleRepository;
+import mutsa.common.repository.cache.CachedUser;
 import mutsa.common.repository.order.OrderRepository;
 import mutsa.common.repository.review.ReviewRepository;
 import mutsa.common.repository.user.UserRepository;
@@ -51,7 +52,7 @@ public class ReviewServiceTest {
     @Autowired
     private EntityManager entityManager;
     @Autowired
-    private RedisTemplate<String, User> userRedisTemplate;
+    private RedisTemplate<String, CachedUser> userRedisTemplate;
 
     private User reviewer1, reviewer2, reviewer3, reviewer4;
     private Article article;
@@ -7,6 +7,8 @@ import mutsa.api.config.TestRedisConfiguration;
 import mutsa.common.domain.models.user.User;
 import mutsa.common.exception.BusinessException;
 import mutsa.common.exception.ErrorCode;
+import mutsa.common.repository.cache.CachedUser;
+import mutsa.common.repository.cache.UserCacheRepository;
 import mutsa.common.repository.user.UserRepository;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterEach;
@@ -15,8 +17,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
+import javax.cache.Cache;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -28,9 +32,15 @@ class UserModuleServiceTest {
     @Autowired
     private UserRepository userRepository;
     @Autowired
-    private RedisTemplate<String, User> userRedisTemplate;
+    private RedisTemplate<String, CachedUser> userRedisTemplate;
     @Autowired
     private UserModuleService userModuleService;
+    @Autowired
+    private UserCacheRepository userCacheRepository;
+    @Autowired
+    private Cache<String, CachedUser> userLocalCache;
+    @Autowired
+    private StringRedisTemplate redisTemplate;
     private User testUser;
 
     @BeforeEach
@@ -72,6 +82,81 @@ class UserModuleServiceTest {
         Assertions.assertThat(testUser.getId()).isEqualTo(user.getId());
     }
 
+    @Test
+    void getCachedByUsername_localCache() throws InterruptedException {
+        //given
+        CachedUser cached = userModuleService.getCachedByUsername(testUser.getUsername());
+
+        //when
+        //다른 서버에서 유저 정보를 변경하여 제거 알림을 보낸 경우
+        redisTemplate.convertAndSend(UserCacheRepository.INVALIDATE_CHANNEL, testUser.getUsername());
+        for (int i = 0; i < 50 && userLocalCache.containsKey(testUser.getUsername()); i++) {
+            Thread.sleep(20);
+        }
+
+        //then
+        Assertions.assertThat(cached.id()).isEqualTo(testUser.getId());
+        Assertions.assertThat(cached.apiId()).isEqualTo(testUser.getApiId());
+        Assertions.assertThat(userLocalCache.containsKey(testUser.getUsername())).isFalse();
+        Assertions.assertThat(userCacheRepository.getUser(testUser.getUsername())).isNotEmpty();
+    }
+
+    @Test
+    void getCachedByUsername_staleValueAfterInvalidate() throws InterruptedException {
+        //given
+        CachedUser cached = userModuleService.getCachedByUsername(testUser.getUsername());
+
+        //when
+        //다른 서버가 새 값을 알린 뒤에도 레디스에 이전 값이 남아있는 경우(알림 전에 읽은 값을 L1 에 넣으려는 경우)
+        redisTemplate.convertAndSend(UserCacheRepository.INVALIDATE_CHANNEL, testUser.getUsername() + "\n" + (cached.version() + 1));
+        for (int i = 0; i < 50 && userLocalCache.containsKey(testUser.getUsername()); i++) {
+            Thread.sleep(20);
+        }
+        Optional<CachedUser> stale = userCacheRepository.getUser(testUser.getUsername());
+        boolean staleCached = userLocalCache.containsKey(testUser.getUsername());
+
+        CachedUser updated = new CachedUser(cached.id(), cached.apiId(), cached.username(), "updated", cached.imageUrl(),
+                cached.roles(), cached.version() + 1);
+        userRedisTemplate.opsForValue().set(userCacheRepository.getKey(testUser.getUsername()), updated);
+        userCacheRepository.getUser(testUser.getUsername());
+
+        //then
+        Assertions.assertThat(stale).contains(cached);
+        Assertions.assertThat(staleCached).isFalse();
+        Assertions.assertThat(userLocalCache.get(testUser.getUsername())).isEqualTo(updated);
+    }
+
+    @Test
+    void getCachedByUsername_legacyJson() {
+        //given
+        //이전 포맷(json)으로 저장된 유저가 남아있는 경우
+        String key = userCacheRepository.getKey(testUser.getUsername());
+        redisTemplate.opsForValue().set(key, "{\"username\":\"" + testUser.getUsername() + "\",\"password\":\"...\"}");
+
+        //when
+        CachedUser first = userModuleService.getCachedByUsername(testUser.getUsername());
+        CachedUser cachedInRedis = userRedisTemplate.opsForValue().get(key);
+        userLocalCache.clear();
+        CachedUser second = userCacheRepository.getUser(testUser.getUsername()).orElse(null);
+
+        //then
+        Assertions.assertThat(cachedInRedis).isEqualTo(first);
+        Assertions.assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void evictUser() {
+        //given
+        userModuleService.getCachedByUsername(testUser.getUsername());
+
+        //when
+        userCacheRepository.evictUser(testUser.getUsername());
+
+        //then
+        Assertions.assertThat(userLocalCache.containsKey(testUser.getUsername())).isFalse();
+        Assertions.assertThat(userRedisTemplate.hasKey(userCacheRepository.getKey(testUser.getUsername()))).isFalse();
+    }
+
     @Test
     void getByApiId_fail() {
         Assertions.assertThatThrownBy(() -> userModuleService.getByApiId(UUID.randomUUID().toString()))
@@ -4,11 +4,14 @@ import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import mutsa.api.ApiApplication;
 import mutsa.api.config.TestRedisConfiguration;
+import mutsa.api.dto.user.ProfileChangeDto;
 import mutsa.api.dto.user.SignUpOAuth2UserDto;
 import mutsa.api.dto.user.SignUpUserDto;
 import mutsa.common.domain.models.user.User;
 import mutsa.common.domain.models.user.embedded.OAuth2Type;
 import mutsa.common.exception.BusinessException;
+import mutsa.common.repository.cache.CachedUser;
+import mutsa.common.repository.cache.UserCacheRepository;
 import mutsa.common.repository.user.UserRepository;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterEach;
@@ -19,6 +22,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
 
 import static mutsa.common.exception.ErrorCode.DUPLICATION_USER;
 
@@ -30,9 +34,13 @@ class UserServiceTest {
     @Autowired
     private UserRepository userRepository;
     @Autowired
-    private RedisTemplate<String, User> userRedisTemplate;
+    private RedisTemplate<String, CachedUser> userRedisTemplate;
     @Autowired
     private UserService userService;
+    @Autowired
+    private UserModuleService userModuleService;
+    @Autowired
+    private UserCacheRepository userCacheRepository;
     private User testUser;
 
     @BeforeEach
@@ -96,6 +104,44 @@ class UserServiceTest {
         Assertions.assertThat(availableUser).isFalse();
     }
 
+    @Test
+    @DisplayName("프로필 변경은 트랜잭션이 커밋된 후에 유저 캐시에 반영된다")
+    void updateImageUrlAfterCommit() {
+        //given
+        userModuleService.getCachedByUsername(testUser.getUsername());
+
+        //when
+        userService.updateImageUrl(testUser.getUsername(), new ProfileChangeDto("newUrl"));
+        String beforeCommit = userCacheRepository.getUser(testUser.getUsername()).get().imageUrl();
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        String afterCommit = userCacheRepository.getUser(testUser.getUsername()).get().imageUrl();
+
+        //then
+        Assertions.assertThat(beforeCommit).isEmpty();
+        Assertions.assertThat(afterCommit).isEqualTo("newUrl");
+
+        //커밋된 유저 삭제
+        TestTransaction.start();
+        userRepository.deleteById(testUser.getId());
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+    }
+
+    @Test
+    @DisplayName("롤백된 프로필 변경은 유저 캐시에 반영되지 않는다")
+    void updateImageUrlRollback() {
+        //given
+        userModuleService.getCachedByUsername(testUser.getUsername());
+
+        //when
+        userService.updateImageUrl(testUser.getUsername(), new ProfileChangeDto("newUrl"));
+        TestTransaction.end();
+
+        //then
+        Assertions.assertThat(userCacheRepository.getUser(testUser.getUsername()).get().imageUrl()).isEmpty();
+    }
+
     @Test
     void isAvailableUser2() {
         //when
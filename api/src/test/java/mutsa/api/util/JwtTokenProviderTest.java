@@ -0,0 +1,109 @@
+package mutsa.api.util;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mutsa.api.config.jwt.JwtConfig;
+import mutsa.api.config.security.CustomPrincipalDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtTokenProviderTest {
+    private JwtConfig jwtConfig;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtTokenCache jwtTokenCache;
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    public void init() {
+        jwtConfig = new JwtConfig();
+        ReflectionTestUtils.setField(jwtConfig, "secretKey", "test-secret-key");
+        ReflectionTestUtils.setField(jwtConfig, "accessTokenExpire", "60");
+        meterRegistry = new SimpleMeterRegistry();
+        jwtTokenCache = new JwtTokenCache(meterRegistry, 100);
+        jwtTokenProvider = new JwtTokenProvider(jwtConfig, jwtTokenCache);
+    }
+
+    @Test
+    @DisplayName("검증된 토큰은 캐시에서 가져오고, 적중률을 집계한다")
+    void decodeTokenWithCache() {
+        //given
+        String token = token(Instant.now().plusSeconds(60));
+
+        //when
+        JwtTokenProvider.JWTInfo first = jwtTokenProvider.decodeToken(token);
+        JwtTokenProvider.JWTInfo second = jwtTokenProvider.decodeToken(token);
+
+        //then
+        assertThat(first.getUsername()).isEqualTo("user1");
+        assertThat(first.getAuthorities()).containsExactly("ROLE_USER");
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.get("jwt.decode.cache").tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("jwt.decode.cache").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("만료시간이 지난 토큰은 캐시에 있어도 다시 검증하여 거절한다")
+    void expiredTokenIsNotServedFromCache() throws InterruptedException {
+        //given
+        String token = token(Instant.now().plusMillis(1500));
+        jwtTokenProvider.decodeToken(token);
+
+        //when
+        Thread.sleep(1600);
+
+        //then
+        assertThatThrownBy(() -> jwtTokenProvider.decodeToken(token))
+                .isInstanceOf(TokenExpiredException.class);
+        assertThat(jwtTokenCache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("access token 에 유저 id 와 apiId 를 담아, 디코딩 시 조회 없이 principal 을 만들 수 있다")
+    void accessTokenCarriesUserIdentity() {
+        //given
+        CustomPrincipalDetails details = CustomPrincipalDetails.of(1L, "user1-api-id", "user1", new String[]{"ROLE_USER"});
+        String token = jwtTokenProvider.createAccessToken(new MockHttpServletRequest(), details)
+                .getToken()
+                .substring("Bearer ".length());
+
+        //when
+        JwtTokenProvider.JWTInfo jwtInfo = jwtTokenProvider.decodeToken(token);
+
+        //then
+        assertThat(jwtInfo.getUserId()).isEqualTo(1L);
+        assertThat(jwtInfo.getApiId()).isEqualTo("user1-api-id");
+        assertThat(jwtInfo.getUsername()).isEqualTo("user1");
+        assertThat(jwtInfo.getAuthorities()).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    @DisplayName("유저 id 가 없는 이전 토큰도 디코딩된다")
+    void legacyTokenWithoutUserId() {
+        //when
+        JwtTokenProvider.JWTInfo jwtInfo = jwtTokenProvider.decodeToken(token(Instant.now().plusSeconds(60)));
+
+        //then
+        assertThat(jwtInfo.getUserId()).isNull();
+        assertThat(jwtInfo.getApiId()).isNull();
+        assertThat(jwtInfo.getUsername()).isEqualTo("user1");
+    }
+
+    private String token(Instant expiresAt) {
+        return JWT.create()
+                .withSubject("user1")
+                .withIssuedAt(Date.from(Instant.now()))
+                .withExpiresAt(Date.from(expiresAt))
+                .withArrayClaim("authorities", new String[]{"ROLE_USER"})
+                .sign(jwtConfig.getEncodedSecretKey());
+    }
+}
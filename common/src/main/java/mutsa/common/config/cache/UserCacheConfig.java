@@ -0,0 +1,65 @@
+package mutsa.common.config.cache;
+
+import mutsa.common.repository.cache.CachedUser;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * 유저 캐시의 서버 메모리 계층(L1, Ehcache/JSR-107)
+ * 레디스(L2, UserCacheRepository)보다 먼저 조회하며, 변경된 유저는 레디스 채널로 모든 서버에서 제거된다.
+ * 다른 서버의 제거 알림을 받지 못한 경우를 위해 ttl-seconds 가 지나면 레디스에서 다시 읽는다.
+ */
+@Configuration
+public class UserCacheConfig {
+    public static final String USER_LOCAL_CACHE = "userLocalCache";
+    public static final String USER_INVALIDATED_VERSIONS = "userInvalidatedVersions";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager userCacheManager() {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        //같은 URI 의 CacheManager 는 JVM 안에서 공유되므로 컨텍스트마다 새로 만든다
+        return provider.getCacheManager(URI.create("urn:mutsa:user-cache:" + UUID.randomUUID()),
+                new DefaultConfiguration(getClass().getClassLoader()));
+    }
+
+    @Bean
+    public Cache<String, CachedUser> userLocalCache(
+            CacheManager userCacheManager,
+            @Value("${user.cache.local.max-size:10000}") long maxSize,
+            @Value("${user.cache.local.ttl-seconds:300}") long ttlSeconds
+    ) {
+        //heap 저장소는 값을 복사하지 않고 참조로 보관한다(CachedUser 는 불변)
+        return userCacheManager.createCache(USER_LOCAL_CACHE, Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, CachedUser.class, ResourcePoolsBuilder.heap(maxSize))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ttlSeconds)))));
+    }
+
+    /**
+     * 유저별로 마지막으로 받은 제거 알림의 version
+     * 제거 알림 전에 레디스에서 읽은 이전 값이 L1 에 다시 들어가지 않도록 비교하며, L1 의 ttl 이 지나면 필요 없으므로 같은 ttl 로 보관한다.
+     */
+    @Bean
+    public Cache<String, Long> userInvalidatedVersions(
+            CacheManager userCacheManager,
+            @Value("${user.cache.local.max-size:10000}") long maxSize,
+            @Value("${user.cache.local.ttl-seconds:300}") long ttlSeconds
+    ) {
+        return userCacheManager.createCache(USER_INVALIDATED_VERSIONS, Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, Long.class, ResourcePoolsBuilder.heap(maxSize))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ttlSeconds)))));
+    }
+}
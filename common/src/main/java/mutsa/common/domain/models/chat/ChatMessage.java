@@ -0,0 +1,62 @@
+package mutsa.common.domain.models.chat;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 레디스 보관 기간이 지난 채팅을 보관하는 테이블(cold tier)
+ */
+@Entity
+@Getter
+@Table(name = "chat_message", indexes = {
+        @Index(name = "idx_chat_message_room_created", columnList = "chatroom_api_id, created_at")
+})
+@Builder(access = AccessLevel.PRIVATE)
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ChatMessage implements Serializable {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "chat_message_id")
+    private Long id;
+
+    @Column(name = "api_id", unique = true, nullable = false)
+    private String apiId; //레디스에 저장되어 있던 채팅 id
+
+    @Column(name = "chatroom_api_id", nullable = false)
+    private String chatroomApiId;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt; //채팅을 보낸 시간
+
+    public static ChatMessage from(ChatRedis chat) {
+        return ChatMessage.builder()
+                .apiId(chat.getId())
+                .chatroomApiId(chat.getChatroomId())
+                .username(chat.getUsername())
+                .content(chat.getContent())
+                .createdAt(chat.getCreatedAt())
+                .build();
+    }
+
+    @Override
+    public String toString() {
+        return "ChatMessage{" +
+                "id=" + id +
+                ", apiId='" + apiId + '\'' +
+                ", chatroomApiId='" + chatroomApiId + '\'' +
+                ", username='" + username + '\'' +
+                ", content='" + content + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package mutsa.common.domain.models.chat;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 보관된 채팅(chat_message)의 검색 토큰
+ * 레디스 검색 색인(chat:index:%s:%s)과 같은 토큰(ChatSearchTokenizer)으로, 채팅을 보관할 때 함께 저장한다.
+ * 보관된 채팅은 본문을 읽지 않고 idx_chat_message_token_search 인덱스로 후보를 찾는다.
+ */
+@Entity
+@Getter
+@Table(name = "chat_message_token", indexes = {
+        @Index(name = "idx_chat_message_token_search", columnList = "token, chatroom_api_id, created_at, chat_message_id"),
+        @Index(name = "idx_chat_message_token_message", columnList = "chat_message_id")
+})
+@Builder(access = AccessLevel.PRIVATE)
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ChatMessageToken implements Serializable {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "chat_message_token_id")
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String token;
+
+    @Column(name = "chat_message_id", nullable = false)
+    private Long chatMessageId;
+
+    @Column(name = "chatroom_api_id", nullable = false)
+    private String chatroomApiId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt; //채팅을 보낸 시간(기간 조건과 정렬에 사용)
+
+    public static ChatMessageToken of(ChatMessage message, String token) {
+        return ChatMessageToken.builder()
+                .token(token)
+                .chatMessageId(message.getId())
+                .chatroomApiId(message.getChatroomApiId())
+                .createdAt(message.getCreatedAt())
+                .build();
+    }
+}
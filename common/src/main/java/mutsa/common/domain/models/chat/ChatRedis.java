@@ -23,17 +23,35 @@ public class ChatRedis {
     private LocalDateTime createdAt;
 
     public static ChatRedis of(Chatroom chatroom, User user, String message) {
+        return of(chatroom, user.getUsername(), message);
+    }
+
+    public static ChatRedis of(Chatroom chatroom, String username, String message) {
+        return of(chatroom.getApiId(), username, message);
+    }
+
+    public static ChatRedis of(String chatroomId, String username, String message) {
         ChatRedis chat = ChatRedis.builder()
                 .id(UUID.randomUUID().toString())
                 .content(message)
-                .chatroomId(chatroom.getApiId())
-                .username(user.getUsername())
+                .chatroomId(chatroomId)
+                .username(username)
                 .createdAt(LocalDateTime.now())
                 .build();
 
         return chat;
     }
 
+    public static ChatRedis of(String id, String chatroomId, String username, String content, LocalDateTime createdAt) {
+        return ChatRedis.builder()
+                .id(id)
+                .content(content)
+                .chatroomId(chatroomId)
+                .username(username)
+                .createdAt(createdAt)
+                .build();
+    }
+
     @Override
     public String toString() {
         return "ChatRedis{" +
@@ -15,7 +15,9 @@ import java.util.UUID;
 @Entity
 @Builder
 @Getter
-@Table(name = "chatroom")
+@Table(name = "chatroom", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_chatroom_pair_key", columnNames = "pair_key")
+})
 public class Chatroom extends BaseEntity implements Serializable {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,6 +25,9 @@ public class Chatroom extends BaseEntity implements Serializable {
     private final String apiId = UUID.randomUUID().toString();
     private String articleApiId;
 
+    @Column(name = "pair_key")
+    private String pairKey; //1:1 채팅방 참여자의 id 쌍(작은 id:큰 id), 같은 두 사람의 방은 하나만 존재한다
+
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true, mappedBy = "chatroom")
     @Builder.Default
     private List<ChatroomUser> users = new ArrayList<>();
@@ -33,6 +38,24 @@ public class Chatroom extends BaseEntity implements Serializable {
                 .build();
     }
 
+    public static Chatroom of(String articleApiId, String pairKey) {
+        return Chatroom.builder()
+                .articleApiId(articleApiId)
+                .pairKey(pairKey)
+                .build();
+    }
+
+    /**
+     * @return 두 유저의 순서와 상관없이 같은 값을 갖는 채팅방 키
+     */
+    public static String pairKeyOf(Long userId1, Long userId2) {
+        return Math.min(userId1, userId2) + ":" + Math.max(userId1, userId2);
+    }
+
+    public void setPairKey(String pairKey) {
+        this.pairKey = pairKey;
+    }
+
     public void setArticleApiId(String articleApiId) {
         this.articleApiId = articleApiId;
     }
@@ -6,10 +6,16 @@ import lombok.Getter;
 public class ChatroomUserResult {
     private String user;
     private String chatroom;
+    private String articleApiId;
+    private String articleTitle;
+    private String articleThumbnail;
 
-    public ChatroomUserResult(String user, String chatroom) {
+    public ChatroomUserResult(String user, String chatroom, String articleApiId, String articleTitle, String articleThumbnail) {
         this.user = user;
         this.chatroom = chatroom;
+        this.articleApiId = articleApiId;
+        this.articleTitle = articleTitle;
+        this.articleThumbnail = articleThumbnail;
     }
 
 }
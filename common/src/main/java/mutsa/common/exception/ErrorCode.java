@@ -22,6 +22,8 @@ public enum ErrorCode {
     REFRESH_TOKEN_NOT_IN_COOKIE(HttpStatus.UNAUTHORIZED.value(), "A002", "쿠키에 refresh-token이 없습니다."),
     INVALID_REFRESH_TOKEN(HttpStatus.UNAUTHORIZED.value(), "A003", "쿠키에 저장된 refresh-token이 만료되었거나 인증이 불가능합니다."),
     USER_TOKEN_NOT_AVAILABLE(HttpStatus.UNAUTHORIZED.value(), "A004", "Access token을 재발급 받을 수 없습니다."),
+    ACCESS_TOKEN_NOT_FOUND(HttpStatus.UNAUTHORIZED.value(), "A005", "Authorization 헤더에 access token이 없습니다."),
+    ACCESS_TOKEN_USER_MISMATCH(HttpStatus.FORBIDDEN.value(), "A006", "세션의 사용자와 토큰의 사용자가 다릅니다."),
 
     // user
     USER_NOT_FOUND(HttpStatus.NOT_FOUND.value(), "USER_NOT_FOUND", "해당 유저를 찾을 수 없습니다."),
@@ -63,6 +65,8 @@ public enum ErrorCode {
     CHAT_NOT_FOUND(HttpStatus.NOT_FOUND.value(), "CHAT_NOTFOUND","해당 채팅을 찾지 못했습니다." ),
     INVALID_ROOM_REQUEST(HttpStatus.BAD_REQUEST.value(), "INVALID_REQUEST", "자신의 글에 채팅방을 만들 수 없습니다." ),
     CHATROOM_PERMISSION_DENIED(HttpStatus.FORBIDDEN.value(), "CRR001", "접근권한이 없는 채팅방 입니다." ),
+    CHAT_RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS.value(), "CHAT_RATE_LIMITED", "메세지를 너무 자주 보내고 있습니다. 잠시 후 다시 시도해주세요." ),
+    CHAT_WRITER_BUSY(HttpStatus.SERVICE_UNAVAILABLE.value(), "CHAT_WRITER_BUSY", "채팅 저장이 밀려 있습니다. 잠시 후 다시 시도해주세요." ),
     REFRESH_TOKEN_NOT_FOUND(HttpStatus.NOT_FOUND.value(),"REFRESH_TOKEN_NOT_FOUND" ,"존재하지 않는 리프레시 토큰입니다" ),
     UNKNOWN_OAUTH2_TYPE(HttpStatus.BAD_REQUEST.value()," UNKNOWN_OAUTH2_TYPE" , "허용되지 않은 oauth2 로그인 경로 입니다.");
 
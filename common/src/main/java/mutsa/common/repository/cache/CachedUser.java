@@ -0,0 +1,42 @@
+package mutsa.common.repository.cache;
+
+import mutsa.common.domain.models.user.User;
+
+import java.util.List;
+
+/**
+ * 유저 캐시(UserCacheRepository)에 보관하는 조회 전용 유저 정보
+ * 엔티티와 달리 연관관계가 없어 영속성 컨텍스트 밖에서도 안전하게 사용할 수 있고, 불변이므로 서버 메모리에서 공유한다.
+ * 비밀번호 등 인증에 필요한 정보는 보관하지 않는다.
+ * version 은 값을 만든 시각(epoch millis)으로, 제거 알림보다 먼저 만들어진 값이 L1 에 다시 들어가지 않도록 비교한다.
+ *
+ * @param id
+ * @param apiId
+ * @param username
+ * @param nickname
+ * @param imageUrl
+ * @param roles    권한 이름(ROLE_USER 등)
+ * @param version  값을 만든 시각(epoch millis)
+ */
+public record CachedUser(Long id, String apiId, String username, String nickname, String imageUrl, List<String> roles,
+                         long version) {
+
+    public CachedUser {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+    }
+
+    public static CachedUser from(User user) {
+        return new CachedUser(
+                user.getId(),
+                user.getApiId(),
+                user.getUsername(),
+                user.getNickname(),
+                user.getImageUrl(),
+                user.getRole().stream()
+                        .map(role -> role.getRole().name())
+                        .sorted()
+                        .toList(),
+                System.currentTimeMillis()
+        );
+    }
+}
@@ -0,0 +1,80 @@
+package mutsa.common.repository.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * USER:{username} 에 저장되는 CachedUser 의 바이너리 포맷
+ * <pre>
+ * [encoding:1byte][id:8byte][apiId][username][nickname][imageUrl 존재 여부:1byte][imageUrl][role 수:1byte][role...][version:8byte]
+ * </pre>
+ * encoding 1 로 저장된 값은 version 이 없으므로 0 으로 읽는다.
+ * 문자열은 DataOutputStream.writeUTF(길이 2byte + modified utf8)로 기록한다.
+ * 이전에 json(User 엔티티)으로 저장된 값은 캐시에 없는 것으로 처리하여 다시 저장되도록 한다.
+ */
+public class CachedUserRedisSerializer implements RedisSerializer<CachedUser> {
+    private static final byte VERSION_1 = 1;
+    private static final byte VERSION_2 = 2;
+    private static final byte LEGACY_JSON = '{';
+
+    @Override
+    public byte[] serialize(CachedUser user) throws SerializationException {
+        if (user == null) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION_2);
+            out.writeLong(user.id());
+            out.writeUTF(user.apiId());
+            out.writeUTF(user.username());
+            out.writeUTF(user.nickname());
+            out.writeBoolean(user.imageUrl() != null);
+            if (user.imageUrl() != null) {
+                out.writeUTF(user.imageUrl());
+            }
+            out.writeByte(user.roles().size());
+            for (String role : user.roles()) {
+                out.writeUTF(role);
+            }
+            out.writeLong(user.version());
+        } catch (IOException e) {
+            throw new SerializationException("failed to serialize user " + user.username(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public CachedUser deserialize(byte[] value) throws SerializationException {
+        if (value == null || value.length == 0 || value[0] == LEGACY_JSON) {
+            return null;
+        }
+        if (value[0] != VERSION_1 && value[0] != VERSION_2) {
+            throw new SerializationException("unknown user encoding version: " + value[0]);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value, 1, value.length - 1))) {
+            long id = in.readLong();
+            String apiId = in.readUTF();
+            String username = in.readUTF();
+            String nickname = in.readUTF();
+            String imageUrl = in.readBoolean() ? in.readUTF() : null;
+            int roleCount = in.readUnsignedByte();
+            List<String> roles = new ArrayList<>(roleCount);
+            for (int i = 0; i < roleCount; i++) {
+                roles.add(in.readUTF());
+            }
+            long version = value[0] == VERSION_2 ? in.readLong() : 0L;
+            return new CachedUser(id, apiId, username, nickname, imageUrl, roles, version);
+        } catch (IOException e) {
+            throw new SerializationException("failed to deserialize user", e);
+        }
+    }
+}
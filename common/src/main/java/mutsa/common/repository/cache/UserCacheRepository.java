@@ -1,35 +1,219 @@
 package mutsa.common.repository.cache;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import mutsa.common.domain.models.user.User;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.cache.Cache;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Optional;
 
+/**
+ * 유저 캐시(L1: 서버 메모리 userLocalCache, L2: 레디스 USER:{username})
+ * 엔티티 대신 조회 전용 CachedUser 를 바이너리(CachedUserRedisSerializer)로 보관한다.
+ * <ul>
+ *     <li>조회 경로(setUser)는 레디스에 값이 없을 때만 저장하므로, 변경 전에 DB 에서 읽은 값이 변경된 값을 덮어쓰지 않는다.</li>
+ *     <li>유저 정보를 변경한 트랜잭션은 updateUserAfterCommit 으로 커밋된 후에 레디스를 새 값으로 갱신하고(write-through),
+ *     user:cache:invalidate 채널로 모든 서버의 L1 에서 제거한다. 롤백되면 캐시를 변경하지 않는다.</li>
+ *     <li>제거 알림에는 새 값의 version 이 담긴다. 알림을 받기 전에 레디스에서 읽은 이전 값을 알림 후에 L1 에 넣지 않도록
+ *     유저별 마지막 알림의 version(userInvalidatedVersions)보다 오래된 값은 L1 에 보관하지 않는다.
+ *     version 은 값을 만든 서버의 시각이므로 서버 간 시계 차이보다 짧은 간격의 변경은 구분하지 못하고, 이 경우 L1 ttl 이 지나면 바로잡힌다.</li>
+ * </ul>
+ */
 @Repository
 @RequiredArgsConstructor
 @Slf4j
-public class UserCacheRepository {
-    private final RedisTemplate<String,User> userRedisTemplate;
+public class UserCacheRepository implements MessageListener {
+    public static final String INVALIDATE_CHANNEL = "user:cache:invalidate";
+    private static final char VERSION_DELIMITER = '\n';
+    //읽은 값 그대로일 때만 지운다(그 사이에 write-through 로 저장된 새 값은 남긴다)
+    private static final byte[] DELETE_IF_SAME_SCRIPT = """
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, CachedUser> userRedisTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, CachedUser> userLocalCache;
+    private final Cache<String, Long> userInvalidatedVersions;
+    private final RedisMessageListenerContainer redisContainer;
     //레디스 공간을 효율적으로 사용하기 위해서 Dead time
     private final static Duration USER_CACHE_TTL = Duration.ofDays(2);
 
-    public void setUser(User user) {
+    @PostConstruct
+    public void subscribe() {
+        redisContainer.addMessageListener(this, new ChannelTopic(INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * DB 에서 읽은 유저를 캐시에 없는 경우에만 저장한다.(이미 있는 값은 변경 후 커밋된 값이다)
+     */
+    public CachedUser setUser(User user) {
         String key = getKey(user.getUsername());
-        log.info("Set user to redis {} : {}", key, user);
-        userRedisTemplate.opsForValue().set(key, user,USER_CACHE_TTL);
+        CachedUser cachedUser = CachedUser.from(user);
+        log.info("Set user to redis {} : {}", key, cachedUser);
+        if (Boolean.TRUE.equals(userRedisTemplate.opsForValue().setIfAbsent(key, cachedUser, USER_CACHE_TTL))) {
+            putLocal(cachedUser);
+        }
+        return cachedUser;
     }
 
-    public Optional<User> getUser(String username) {
+    /**
+     * 변경된 유저를 트랜잭션이 커밋된 후에 캐시에 반영한다.
+     * 캐시할 값은 커밋 직전(beforeCommit)의 엔티티 상태로 만들어, 이 호출 이후의 변경도 포함된다.
+     * 트랜잭션 밖에서 호출하면 바로 반영한다.
+     */
+    public void updateUserAfterCommit(User user) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writeThrough(CachedUser.from(user));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private CachedUser cachedUser;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                cachedUser = CachedUser.from(user);
+            }
+
+            @Override
+            public void afterCommit() {
+                writeThrough(cachedUser);
+            }
+        });
+    }
+
+    public Optional<CachedUser> getUser(String username) {
+        CachedUser user = userLocalCache.get(username);
+        if (user != null) {
+            return Optional.of(user);
+        }
+
         String key = getKey(username);
-        User user = userRedisTemplate.opsForValue().get(key);
+        user = getFromRedis(key);
         log.info("Get user from Redis {} : {}", key, user);
+        if (user != null) {
+            putLocal(user);
+        }
         return Optional.ofNullable(user);
     }
 
+    /**
+     * 이전 포맷(json)이거나 읽을 수 없는 값은 캐시에 없는 것으로 처리하고 레디스에서 지운다.
+     * 키가 남아있으면 setUser 의 setIfAbsent 가 새 값을 저장하지 못해 ttl 이 지날 때까지 매번 DB 를 조회하게 된다.
+     */
+    @SuppressWarnings("unchecked")
+    private CachedUser getFromRedis(String key) {
+        byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+        byte[] value = userRedisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(rawKey));
+        if (value == null) {
+            return null;
+        }
+        CachedUser user = null;
+        try {
+            user = ((RedisSerializer<CachedUser>) userRedisTemplate.getValueSerializer()).deserialize(value);
+        } catch (SerializationException e) {
+            log.warn("Failed to read user cache {}", key, e);
+        }
+        if (user == null) {
+            userRedisTemplate.execute((RedisCallback<Long>) connection ->
+                    connection.scriptingCommands().eval(DELETE_IF_SAME_SCRIPT, ReturnType.INTEGER, 1, rawKey, value));
+        }
+        return user;
+    }
+
+    /**
+     * 유저 정보가 변경된 경우 레디스와 모든 서버의 L1 에서 제거한다.
+     */
+    public void evictUser(String username) {
+        long version = System.currentTimeMillis();
+        userRedisTemplate.delete(getKey(username));
+        invalidateLocal(username, version);
+        redisTemplate.convertAndSend(INVALIDATE_CHANNEL, username + VERSION_DELIMITER + version);
+    }
+
+    private void writeThrough(CachedUser cachedUser) {
+        try {
+            userRedisTemplate.opsForValue().set(getKey(cachedUser.username()), cachedUser, USER_CACHE_TTL);
+        } catch (Exception e) {
+            //새 값을 저장하지 못하면 이전 값이 남지 않도록 제거를 시도한다
+            log.error("Failed to update user cache {}", cachedUser.username(), e);
+            evictUser(cachedUser.username());
+            return;
+        }
+        invalidateLocal(cachedUser.username(), cachedUser.version());
+        redisTemplate.convertAndSend(INVALIDATE_CHANNEL, cachedUser.username() + VERSION_DELIMITER + cachedUser.version());
+    }
+
+    /**
+     * 알림 본문은 {username}\n{version} 이며, version 이 없는 알림(이전 버전 서버)은 L1 에서 제거만 한다.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int delimiter = body.lastIndexOf(VERSION_DELIMITER);
+        if (delimiter < 0) {
+            userLocalCache.remove(body);
+            return;
+        }
+        invalidateLocal(body.substring(0, delimiter), Long.parseLong(body.substring(delimiter + 1)));
+    }
+
+    /**
+     * 제거 알림의 version 을 먼저 기록한 뒤 L1 에서 제거한다.(기록된 version 은 줄어들지 않는다)
+     */
+    private void invalidateLocal(String username, long version) {
+        while (true) {
+            Long invalidated = userInvalidatedVersions.get(username);
+            if (invalidated != null && invalidated >= version) {
+                break;
+            }
+            boolean updated = invalidated == null
+                    ? userInvalidatedVersions.putIfAbsent(username, version)
+                    : userInvalidatedVersions.replace(username, invalidated, version);
+            if (updated) {
+                break;
+            }
+        }
+        userLocalCache.remove(username);
+    }
+
+    /**
+     * 마지막 제거 알림보다 오래된 값은 L1 에 넣지 않는다.
+     * 넣는 사이에 알림을 받은 경우에도 남지 않도록, 넣은 뒤에 다시 확인하여 되돌린다.
+     */
+    private void putLocal(CachedUser user) {
+        if (isInvalidated(user)) {
+            return;
+        }
+        userLocalCache.put(user.username(), user);
+        if (isInvalidated(user)) {
+            userLocalCache.remove(user.username(), user);
+        }
+    }
+
+    private boolean isInvalidated(CachedUser user) {
+        Long invalidated = userInvalidatedVersions.get(user.username());
+        return invalidated != null && user.version() < invalidated;
+    }
+
     public String getKey(String username) {
         //레디스 키값 구성시 사용할 Prefix
         return "USER:" + username;
@@ -0,0 +1,47 @@
+package mutsa.common.repository.chat;
+
+import mutsa.common.domain.models.chat.ChatMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ChatMessageRepository extends ChatMessageRepositoryCustom, JpaRepository<ChatMessage, Long> {
+    List<ChatMessage> findByChatroomApiIdOrderByCreatedAtDescApiIdDesc(String chatroomApiId, Pageable pageable);
+
+    List<ChatMessage> findByChatroomApiIdAndCreatedAtBeforeOrderByCreatedAtDescApiIdDesc(String chatroomApiId, LocalDateTime before, Pageable pageable);
+
+    /**
+     * (생성 시간, 채팅 id) 커서 이전의 메세지를 최신순으로 조회한다.(레디스와 같은 순서)
+     */
+    @Query("SELECT m FROM ChatMessage AS m WHERE m.chatroomApiId = :chatroomApiId"
+            + " AND (m.createdAt < :before OR (m.createdAt = :before AND m.apiId < :beforeId))"
+            + " ORDER BY m.createdAt DESC, m.apiId DESC")
+    List<ChatMessage> findBeforeCursor(
+            @Param("chatroomApiId") String chatroomApiId,
+            @Param("before") LocalDateTime before,
+            @Param("beforeId") String beforeId,
+            Pageable pageable
+    );
+
+    @Query("SELECT DISTINCT m.chatroomApiId FROM ChatMessage AS m")
+    List<String> findArchivedChatroomApiIds();
+
+    /**
+     * 방마다 가장 최신 메세지를 한번에 조회한다.(idx_chat_message_room_created 인덱스 사용)
+     */
+    @Query("SELECT m FROM ChatMessage AS m WHERE m.chatroomApiId IN :chatroomApiIds AND m.createdAt = "
+            + "(SELECT MAX(l.createdAt) FROM ChatMessage AS l WHERE l.chatroomApiId = m.chatroomApiId)")
+    List<ChatMessage> findLatestByChatroomApiIdIn(@Param("chatroomApiIds") Collection<String> chatroomApiIds);
+
+    List<ChatMessage> findByApiIdIn(Collection<String> apiIds);
+
+    List<ChatMessage> findTop500ByIdGreaterThanOrderByIdAsc(Long id);
+
+    @Query("SELECT m.apiId FROM ChatMessage AS m WHERE m.apiId IN :apiIds")
+    List<String> findApiIdsByApiIdIn(@Param("apiIds") Collection<String> apiIds);
+}
@@ -0,0 +1,16 @@
+package mutsa.common.repository.chat;
+
+import mutsa.common.domain.models.chat.ChatMessage;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ChatMessageRepositoryCustom {
+    List<ChatMessage> searchArchived(Collection<String> chatroomApiIds, List<String> words,
+                                     LocalDateTime from, LocalDateTime before, int limit);
+
+    void archive(List<ChatMessage> messages);
+
+    int indexArchived(List<ChatMessage> messages);
+}
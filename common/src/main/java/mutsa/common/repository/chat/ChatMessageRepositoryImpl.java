@@ -0,0 +1,116 @@
+package mutsa.common.repository.chat;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.JPQLQuery;
+import jakarta.persistence.EntityManager;
+import mutsa.common.customRepository.Querydsl4RepositorySupport;
+import mutsa.common.domain.models.chat.ChatMessage;
+import mutsa.common.domain.models.chat.ChatMessageToken;
+import mutsa.common.domain.models.chat.QChatMessage;
+import mutsa.common.domain.models.chat.QChatMessageToken;
+import mutsa.common.repository.redis.chat.ChatSearchTokenizer;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ChatMessageRepositoryImpl extends Querydsl4RepositorySupport implements ChatMessageRepositoryCustom {
+    public ChatMessageRepositoryImpl() {
+        super(ChatMessage.class);
+    }
+
+    /**
+     * 보관된 채팅 중 단어가 모두 포함된 채팅을 최신순으로 조회한다.(대소문자 구분 없음)
+     * 검색어의 토큰마다 chat_message_token 인덱스(토큰, 방, 기간)로 후보를 좁히고, 후보의 본문만 단어로 다시 확인한다.
+     *
+     * @param words  소문자로 바꾼 검색어 단어(ChatSearchTokenizer.words)
+     * @param from   이 시간 이후(포함), null 이면 제한 없음
+     * @param before 이 시간 이전(포함하지 않음), null 이면 가장 최신부터
+     */
+    @Override
+    public List<ChatMessage> searchArchived(Collection<String> chatroomApiIds, List<String> words,
+                                            LocalDateTime from, LocalDateTime before, int limit) {
+        Set<String> tokens = new LinkedHashSet<>();
+        words.forEach(word -> tokens.addAll(ChatSearchTokenizer.tokenize(word)));
+        if (tokens.isEmpty() || chatroomApiIds.isEmpty()) {
+            return List.of();
+        }
+
+        QChatMessage chatMessage = QChatMessage.chatMessage;
+        BooleanBuilder where = new BooleanBuilder(chatMessage.chatroomApiId.in(chatroomApiIds));
+        int alias = 0;
+        for (String token : tokens) {
+            where.and(chatMessage.id.in(tokenCandidates("chatMessageToken" + alias++, token, chatroomApiIds, from, before)));
+        }
+        for (String word : words) {
+            where.and(chatMessage.content.containsIgnoreCase(word));
+        }
+        return selectFrom(chatMessage)
+                .where(where)
+                .orderBy(chatMessage.createdAt.desc(), chatMessage.apiId.desc())
+                .limit(limit)
+                .fetch();
+    }
+
+    /**
+     * 보관할 채팅과 검색 토큰을 한 트랜잭션으로 저장한다.
+     */
+    @Override
+    @Transactional
+    public void archive(List<ChatMessage> messages) {
+        EntityManager entityManager = getEntityManager();
+        messages.forEach(entityManager::persist);
+        messages.forEach(message -> persistTokens(entityManager, message));
+    }
+
+    /**
+     * 토큰이 없는 보관된 채팅(토큰 테이블 추가 전에 보관된 채팅)의 검색 토큰을 저장한다.
+     *
+     * @return 토큰을 저장한 채팅 수
+     */
+    @Override
+    @Transactional
+    public int indexArchived(List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return 0;
+        }
+        QChatMessageToken chatMessageToken = QChatMessageToken.chatMessageToken;
+        Set<Long> indexed = new HashSet<>(select(chatMessageToken.chatMessageId).distinct()
+                .from(chatMessageToken)
+                .where(chatMessageToken.chatMessageId.in(messages.stream().map(ChatMessage::getId).toList()))
+                .fetch());
+        EntityManager entityManager = getEntityManager();
+        int count = 0;
+        for (ChatMessage message : messages) {
+            if (!indexed.contains(message.getId()) && persistTokens(entityManager, message)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private JPQLQuery<Long> tokenCandidates(String alias, String token, Collection<String> chatroomApiIds,
+                                            LocalDateTime from, LocalDateTime before) {
+        QChatMessageToken chatMessageToken = new QChatMessageToken(alias);
+        BooleanBuilder where = new BooleanBuilder(chatMessageToken.token.eq(token))
+                .and(chatMessageToken.chatroomApiId.in(chatroomApiIds));
+        if (from != null) {
+            where.and(chatMessageToken.createdAt.goe(from));
+        }
+        if (before != null) {
+            where.and(chatMessageToken.createdAt.lt(before));
+        }
+        return JPAExpressions.select(chatMessageToken.chatMessageId).from(chatMessageToken).where(where);
+    }
+
+    private boolean persistTokens(EntityManager entityManager, ChatMessage message) {
+        Set<String> tokens = ChatSearchTokenizer.tokenize(message.getContent());
+        tokens.forEach(token -> entityManager.persist(ChatMessageToken.of(message, token)));
+        return !tokens.isEmpty();
+    }
+}
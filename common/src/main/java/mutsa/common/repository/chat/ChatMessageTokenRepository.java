@@ -0,0 +1,14 @@
+package mutsa.common.repository.chat;
+
+import mutsa.common.domain.models.chat.ChatMessageToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ChatMessageTokenRepository extends JpaRepository<ChatMessageToken, Long> {
+    @Query("SELECT DISTINCT t.chatMessageId FROM ChatMessageToken AS t WHERE t.chatMessageId IN :chatMessageIds")
+    List<Long> findIndexedChatMessageIds(@Param("chatMessageIds") Collection<Long> chatMessageIds);
+}
@@ -3,8 +3,15 @@ package mutsa.common.repository.chatroom;
 import mutsa.common.domain.models.chatroom.Chatroom;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface ChatroomRepository extends JpaRepository<Chatroom, Long> {
     Optional<Chatroom> findByApiId(String apiId);
+
+    Optional<Chatroom> findByPairKey(String pairKey);
+
+    boolean existsByPairKey(String pairKey);
+
+    List<Chatroom> findTop500ByIdGreaterThanAndPairKeyIsNullOrderByIdAsc(Long id);
 }
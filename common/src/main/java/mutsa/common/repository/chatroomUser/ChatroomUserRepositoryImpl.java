@@ -1,18 +1,18 @@
 package mutsa.common.repository.chatroomUser;
 
 import com.querydsl.core.types.Projections;
-import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
 import lombok.extern.slf4j.Slf4j;
 import mutsa.common.customRepository.Querydsl4RepositorySupport;
-import mutsa.common.domain.models.chatroom.Chatroom;
+import mutsa.common.domain.models.article.QArticle;
+import mutsa.common.domain.models.chatroom.QChatroom;
 import mutsa.common.domain.models.chatroomUser.ChatroomUser;
 import mutsa.common.domain.models.chatroomUser.QChatroomUser;
+import mutsa.common.domain.models.user.QUser;
 import mutsa.common.domain.models.user.User;
 import mutsa.common.dto.chatroom.ChatroomUserResult;
 
 import java.util.List;
-import java.util.Optional;
 
 @Slf4j
 public class ChatroomUserRepositoryImpl extends Querydsl4RepositorySupport implements ChatroomUserRepositoryCustom {
@@ -21,32 +21,71 @@ public class ChatroomUserRepositoryImpl extends Querydsl4RepositorySupport imple
     }
 
 
+    /**
+     * 내가 속한 채팅방의 상대방 이름과 게시글 정보(제목, 썸네일)를 한번의 쿼리로 조회한다.
+     * (게시글이 삭제된 경우 게시글 정보는 null)
+     */
     @Override
-    public Optional<Chatroom> findByChatroomWithUsers(User user1, User user2) {
-        log.info("ChatroomUserRepositoryImpl.findByChatroomWithUsers");
-        QChatroomUser chatroomUser = new QChatroomUser("chatroomUser");
-        JPQLQuery<Chatroom> query = select(chatroomUser.chatroom)
-                .from(chatroomUser)
-                .where(chatroomUser.user.in(user1, user2))
-                .groupBy(chatroomUser.chatroom)
-                .having(chatroomUser.user.countDistinct().eq(2L));
-
-
-        return Optional.ofNullable(query.fetchOne());
+    public List<ChatroomUserResult> findByUser(User user) {
+        return findByUserId(user.getId());
     }
 
+    /**
+     * 유저 엔티티 없이(캐시된 유저의 id 로) 조회한다.
+     */
     @Override
-    public List<ChatroomUserResult> findByUser(User user) {
+    public List<ChatroomUserResult> findByUserId(Long userId) {
         log.info("ChatroomUserRepositoryImpl.findByUser");
         QChatroomUser chatroomUser1 = new QChatroomUser("chatroomUser1");
         QChatroomUser chatroomUser2 = new QChatroomUser("chatroomUser2");
+        QChatroom chatroom = QChatroom.chatroom;
+        QUser otherUser = new QUser("otherUser");
+        QArticle article = QArticle.article;
         JPAQuery<ChatroomUserResult> query = select(Projections.constructor(ChatroomUserResult.class,
-                chatroomUser2.user.username,
-                chatroomUser2.chatroom.apiId))
+                otherUser.username,
+                chatroom.apiId,
+                article.apiId,
+                article.title,
+                article.thumbnail))
                 .from(chatroomUser1)
-                .join(chatroomUser2).on(chatroomUser1.chatroom.eq(chatroomUser2.chatroom))
-                .where(chatroomUser1.user.eq(user).and(chatroomUser2.user.ne(user)));
+                .join(chatroomUser1.chatroom, chatroom)
+                .join(chatroomUser2).on(chatroomUser2.chatroom.eq(chatroom))
+                .join(chatroomUser2.user, otherUser)
+                .leftJoin(article).on(article.apiId.eq(chatroom.articleApiId))
+                .where(chatroomUser1.user.id.eq(userId).and(chatroomUser2.user.id.ne(userId)));
 
         return query.fetch();
     }
-}
\ No newline at end of file
+
+    /**
+     * @return 내가 속한 채팅방의 apiId
+     */
+    @Override
+    public List<String> findChatroomApiIdsByUserId(Long userId) {
+        QChatroomUser chatroomUser = QChatroomUser.chatroomUser;
+        QChatroom chatroom = QChatroom.chatroom;
+        return select(chatroom.apiId)
+                .from(chatroomUser)
+                .join(chatroomUser.chatroom, chatroom)
+                .where(chatroomUser.user.id.eq(userId))
+                .fetch();
+    }
+
+    /**
+     * 채팅방 참여자의 이름만 한번의 쿼리로 조회한다.(채팅방 -> 참여자 -> 유저를 지연 로딩하지 않도록)
+     *
+     * @return 채팅방이 없으면 빈 목록, 참여자가 없는 방이면 null 하나를 담은 목록
+     */
+    @Override
+    public List<String> findUsernamesByChatroomApiId(String chatroomApiId) {
+        QChatroom chatroom = QChatroom.chatroom;
+        QChatroomUser chatroomUser = QChatroomUser.chatroomUser;
+        QUser user = QUser.user;
+        return select(user.username)
+                .from(chatroom)
+                .leftJoin(chatroomUser).on(chatroomUser.chatroom.eq(chatroom))
+                .leftJoin(chatroomUser.user, user)
+                .where(chatroom.apiId.eq(chatroomApiId))
+                .fetch();
+    }
+}
@@ -0,0 +1,32 @@
+package mutsa.common.repository.export;
+
+import com.google.gson.Gson;
+import mutsa.common.domain.models.chat.ChatRedis;
+
+import java.time.ZoneId;
+
+/**
+ * 분석용 내보내기 스트림에 기록되는 채팅 한 건
+ *
+ * @param id        채팅 id(재전송 시 소비자가 중복을 제거하는 기준)
+ * @param roomId    채팅방 apiId, 같은 방의 채팅은 같은 파티션(key)으로 보낸다
+ * @param username
+ * @param content
+ * @param createdAt 생성 시간(epoch millis)
+ */
+public record ChatExportEvent(String id, String roomId, String username, String content, long createdAt) {
+    private static final Gson GSON = new Gson();
+
+    public static ChatExportEvent from(ChatRedis chat) {
+        return new ChatExportEvent(chat.getId(), chat.getChatroomId(), chat.getUsername(), chat.getContent(),
+                chat.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    public static ChatExportEvent fromJson(String json) {
+        return GSON.fromJson(json, ChatExportEvent.class);
+    }
+
+    public String toJson() {
+        return GSON.toJson(this);
+    }
+}
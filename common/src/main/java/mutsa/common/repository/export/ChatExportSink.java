@@ -0,0 +1,18 @@
+package mutsa.common.repository.export;
+
+import java.util.List;
+
+/**
+ * 저장된 채팅을 분석용 로그로 내보내는 저장소(chat.export.sink)
+ * <ul>
+ *     <li>kafka : chat.export.kafka.topic 으로 발행한다(KafkaChatExportSink)</li>
+ *     <li>file : chat.export.file.path 에 json 한 줄씩 추가한다(FileChatExportSink), 로컬/테스트용</li>
+ * </ul>
+ */
+public interface ChatExportSink {
+
+    /**
+     * 모든 이벤트가 기록된 후에 반환한다. 실패하면 예외를 던지고, 호출한 쪽에서 같은 이벤트를 다시 보낸다.
+     */
+    void write(List<ChatExportEvent> events);
+}
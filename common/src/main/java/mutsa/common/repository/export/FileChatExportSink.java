@@ -0,0 +1,60 @@
+package mutsa.common.repository.export;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 카프카 없이 사용하는 내보내기 로그, 한 줄에 채팅 하나(json)를 추가한다.
+ */
+@Repository
+@ConditionalOnProperty(name = "chat.export.sink", havingValue = "file")
+public class FileChatExportSink implements ChatExportSink {
+    private final Path path;
+
+    public FileChatExportSink(@Value("${chat.export.file.path:chat-export.jsonl}") String path) {
+        this.path = Path.of(path);
+    }
+
+    @Override
+    public synchronized void write(List<ChatExportEvent> events) {
+        StringBuilder lines = new StringBuilder();
+        events.forEach(event -> lines.append(event.toJson()).append('\n'));
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                channel.write(ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8)));
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to export " + events.size() + " chats to " + path, e);
+        }
+    }
+
+    public List<ChatExportEvent> readAll() {
+        try {
+            if (!Files.exists(path)) {
+                return List.of();
+            }
+            return Files.readAllLines(path, StandardCharsets.UTF_8).stream()
+                    .filter(line -> !line.isBlank())
+                    .map(ChatExportEvent::fromJson)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package mutsa.common.repository.export;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 채팅방 id 를 key 로 발행하여 같은 방의 채팅은 순서대로 소비된다.
+ * 브로커 주소 등은 spring.kafka.* 설정을 사용한다.
+ */
+@Repository
+@ConditionalOnProperty(name = "chat.export.sink", havingValue = "kafka")
+public class KafkaChatExportSink implements ChatExportSink {
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final String topic;
+    private final long timeoutMillis;
+
+    public KafkaChatExportSink(
+            KafkaTemplate<String, String> kafkaTemplate,
+            @Value("${chat.export.kafka.topic:chat-messages}") String topic,
+            @Value("${chat.export.kafka.timeout-millis:10000}") long timeoutMillis
+    ) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void write(List<ChatExportEvent> events) {
+        //한 배치를 모두 보낸 후 한번에 기다려 producer 가 묶어서 전송하도록 한다
+        CompletableFuture<?>[] futures = events.stream()
+                .map(event -> kafkaTemplate.send(topic, event.roomId(), event.toJson()))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while exporting chats", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("failed to export " + events.size() + " chats to " + topic, e);
+        }
+    }
+}
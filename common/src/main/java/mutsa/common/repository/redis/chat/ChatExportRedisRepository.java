@@ -0,0 +1,105 @@
+package mutsa.common.repository.redis.chat;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mutsa.common.domain.models.chat.ChatRedis;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 분석용 내보내기 스트림
+ * <pre>
+ * chat:export (STREAM) r: 방 id, s: score, m: 메세지(ChatRedisCodec)
+ *   ChatRedisRepository.saveAndPublishAll 의 스크립트에서 ZADD 와 함께 추가하므로(MAXLEN ~) 저장된 채팅은 빠짐없이 기록된다.
+ * chat:export:offset (string) : 내보내기 로그(ChatExportSink)에 기록을 마친 마지막 스트림 id
+ * </pre>
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ChatExportRedisRepository {
+    public static final String EXPORT_KEY = "chat:export";
+    public static final String OFFSET_KEY = "chat:export:offset";
+    static final String ROOM_FIELD = "r";
+    static final String SCORE_FIELD = "s";
+    static final String MESSAGE_FIELD = "m";
+    private static final String FIRST_OFFSET = "0-0";
+
+    private final RedisTemplate<String, byte[]> chatRedisTemplate;
+
+    /**
+     * @return 기록을 마친 마지막 스트림 id, 없으면 스트림의 처음
+     */
+    public String getOffset() {
+        byte[] offset = chatRedisTemplate.opsForValue().get(OFFSET_KEY);
+        return offset == null ? FIRST_OFFSET : new String(offset, StandardCharsets.UTF_8);
+    }
+
+    public void commit(String offset) {
+        chatRedisTemplate.opsForValue().set(OFFSET_KEY, offset.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 읽을 수 없는 항목(알 수 없는 인코딩, 필드 누락)은 message 가 null 인 Entry 로 반환하여,
+     * 호출하는 쪽이 건너뛰고 오프셋을 넘길 수 있게 한다.(같은 위치에서 계속 실패하여 내보내기가 멈추지 않도록)
+     *
+     * @param after 이 id 이후(포함하지 않는다)의 채팅을 추가된 순서로 조회한다.(XRANGE)
+     * @param count
+     */
+    public List<Entry> read(String after, int count) {
+        byte[] key = EXPORT_KEY.getBytes(StandardCharsets.UTF_8);
+        List<ByteRecord> records = chatRedisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xRange(key, Range.rightUnbounded(Range.Bound.exclusive(after)),
+                        Limit.limit().count(count)));
+        if (records == null) {
+            return List.of();
+        }
+        List<Entry> entries = new ArrayList<>(records.size());
+        for (ByteRecord record : records) {
+            String id = record.getId().getValue();
+            try {
+                entries.add(new Entry(id, decode(record)));
+            } catch (RuntimeException e) {
+                log.warn("Failed to decode export entry {}", id, e);
+                entries.add(new Entry(id, null));
+            }
+        }
+        return entries;
+    }
+
+    private ChatRedis decode(ByteRecord record) {
+        String roomId = null;
+        double score = 0;
+        byte[] message = null;
+        for (Map.Entry<byte[], byte[]> field : record.getValue().entrySet()) {
+            if (Arrays.equals(field.getKey(), ROOM_FIELD.getBytes(StandardCharsets.UTF_8))) {
+                roomId = new String(field.getValue(), StandardCharsets.UTF_8);
+            } else if (Arrays.equals(field.getKey(), SCORE_FIELD.getBytes(StandardCharsets.UTF_8))) {
+                score = Double.parseDouble(new String(field.getValue(), StandardCharsets.UTF_8));
+            } else if (Arrays.equals(field.getKey(), MESSAGE_FIELD.getBytes(StandardCharsets.UTF_8))) {
+                message = field.getValue();
+            }
+        }
+        if (roomId == null || message == null) {
+            throw new IllegalStateException("missing field of export entry " + record.getId().getValue());
+        }
+        return ChatRedisCodec.decode(message, roomId, Math.round(score * 1000.0));
+    }
+
+    /**
+     * @param id      스트림 id
+     * @param message 읽을 수 없는 항목이면 null
+     */
+    public record Entry(String id, ChatRedis message) {
+    }
+}
@@ -0,0 +1,160 @@
+package mutsa.common.repository.redis.chat;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 채팅방 접속/입력중 상태(저장하지 않는 임시 정보)
+ * <ul>
+ *     <li>chat:presence:{roomApiId} (zset) : username:nodeId -> 만료 시각(epoch millis)</li>
+ *     <li>chat:typing:{roomApiId} (zset) : username -> 만료 시각(epoch millis)</li>
+ * </ul>
+ * 유저마다 만료 시각을 score 로 두어 TTL 처럼 사용하고, 키 자체에도 TTL 을 걸어 사용하지 않는 방은 레디스에서 사라진다.
+ * 접속 상태는 서버(nodeId)마다 따로 저장하므로, 한 서버에서 유저의 세션이 모두 떠나도 다른 서버에 세션이 남아 있으면 접속중으로 보인다.
+ * 비정상 종료된 서버의 항목은 갱신되지 않아 만료 시각이 지나면 제외된다.
+ */
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+public class ChatPresenceRedisRepository {
+    public static final String ONLINE_KEY = "chat:presence:%s";
+    public static final String TYPING_KEY = "chat:typing:%s";
+    public static final String PRESENCE_CHANNEL = "chat:presence";
+    private static final char NODE_SEPARATOR = ':';
+    private static final int NODE_ID_LENGTH = 36;
+
+    private final StringRedisTemplate redisTemplate;
+
+    public void setOnline(String roomId, String username, String nodeId, long ttlMillis) {
+        add(ONLINE_KEY, roomId, onlineMember(username, nodeId), ttlMillis);
+    }
+
+    public void setTyping(String roomId, String username, long ttlMillis) {
+        add(TYPING_KEY, roomId, username, ttlMillis);
+    }
+
+    public void removeTyping(String roomId, String username) {
+        redisTemplate.opsForZSet().remove(String.format(TYPING_KEY, roomId), username);
+    }
+
+    /**
+     * 이 서버(nodeId)의 접속 상태만 제거한다.
+     */
+    public void remove(String roomId, String username, String nodeId) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.zRem(String.format(ONLINE_KEY, roomId), onlineMember(username, nodeId));
+            stringConnection.zRem(String.format(TYPING_KEY, roomId), username);
+            return null;
+        });
+    }
+
+    /**
+     * 이 서버에 접속중인 유저의 만료 시각을 한번의 파이프라인으로 연장한다.
+     *
+     * @param roomUsers 방 id -> 접속중인 유저
+     * @param nodeId    이 서버의 id
+     * @param ttlMillis
+     */
+    public void refreshOnline(Map<String, Set<String>> roomUsers, String nodeId, long ttlMillis) {
+        if (roomUsers.isEmpty()) {
+            return;
+        }
+        double expiresAt = System.currentTimeMillis() + ttlMillis;
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            roomUsers.forEach((roomId, usernames) -> {
+                String key = String.format(ONLINE_KEY, roomId);
+                usernames.forEach(username -> stringConnection.zAdd(key, expiresAt, onlineMember(username, nodeId)));
+                stringConnection.pExpire(key, ttlMillis);
+            });
+            return null;
+        });
+    }
+
+    /**
+     * 여러 방의 접속중/입력중 유저를 하나의 파이프라인으로 조회한다.(만료된 유저는 제거)
+     *
+     * @param roomIds
+     * @return 방 id -> 상태
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Presence> getPresences(Collection<String> roomIds) {
+        List<String> rooms = new ArrayList<>(roomIds);
+        long now = System.currentTimeMillis();
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String roomId : rooms) {
+                for (String format : List.of(ONLINE_KEY, TYPING_KEY)) {
+                    String key = String.format(format, roomId);
+                    stringConnection.zRemRangeByScore(key, Double.NEGATIVE_INFINITY, now);
+                    stringConnection.zRangeByScore(key, now, Double.POSITIVE_INFINITY);
+                }
+            }
+            return null;
+        });
+
+        Map<String, Presence> presences = new HashMap<>();
+        for (int i = 0; i < rooms.size(); i++) {
+            //방마다 [ZREMRANGEBYSCORE, ZRANGEBYSCORE(online), ZREMRANGEBYSCORE, ZRANGEBYSCORE(typing)]
+            Set<String> online = (Set<String>) results.get(i * 4 + 1);
+            Set<String> typing = (Set<String>) results.get(i * 4 + 3);
+            Set<String> onlineUsers = new LinkedHashSet<>();
+            if (online != null) {
+                online.forEach(member -> onlineUsers.add(usernameOf(member)));
+            }
+            presences.put(rooms.get(i), new Presence(
+                    onlineUsers,
+                    typing == null ? Set.of() : new LinkedHashSet<>(typing)));
+        }
+        return presences;
+    }
+
+    /**
+     * 다른 서버에 방의 상태가 바뀌었음을 알린다.(simple 브로커 사용 시)
+     */
+    public void publishChanged(String roomId) {
+        redisTemplate.convertAndSend(PRESENCE_CHANNEL, roomId);
+    }
+
+    private void add(String format, String roomId, String username, long ttlMillis) {
+        String key = String.format(format, roomId);
+        double expiresAt = System.currentTimeMillis() + ttlMillis;
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.zAdd(key, expiresAt, username);
+            stringConnection.pExpire(key, ttlMillis);
+            return null;
+        });
+    }
+
+    private static String onlineMember(String username, String nodeId) {
+        return username + NODE_SEPARATOR + nodeId;
+    }
+
+    /**
+     * 접속 상태 항목에서 서버 id 를 뗀다.(서버 id 는 고정 길이 UUID)
+     */
+    private static String usernameOf(String member) {
+        int separator = member.length() - NODE_ID_LENGTH - 1;
+        if (separator > 0 && member.charAt(separator) == NODE_SEPARATOR) {
+            return member.substring(0, separator);
+        }
+        return member;
+    }
+
+    public record Presence(Set<String> online, Set<String> typing) {
+    }
+}
@@ -0,0 +1,77 @@
+package mutsa.common.repository.redis.chat;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 채팅 전송 횟수를 모든 서버에서 합산하는 sliding window
+ * <pre>
+ * chat:rate:{key}:{epochSecond} (string) : 해당 초에 모든 서버가 허용한 전송 수 (windowSeconds + 1 초 후 만료)
+ * </pre>
+ */
+@Repository
+@RequiredArgsConstructor
+public class ChatRateLimitRedisRepository {
+    public static final String RATE_KEY = "chat:rate:%s:%s";
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 이 서버에서 허용한 전송 수를 현재 초에 더하고, 최근 windowSeconds 초의 합계를 하나의 파이프라인으로 조회한다.
+     *
+     * @param deltas        key -> 마지막 동기화 이후 이 서버에서 허용한 전송 수(0 이면 더하지 않고 합계만 조회한다)
+     * @param epochSecond   현재 시각(초)
+     * @param windowSeconds
+     * @return key -> 모든 서버에서 최근 windowSeconds 초 동안 허용한 전송 수
+     */
+    public Map<String, Long> addAndCount(Map<String, Long> deltas, long epochSecond, int windowSeconds) {
+        if (deltas.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> keys = new ArrayList<>(deltas.keySet());
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String key : keys) {
+                long delta = deltas.get(key);
+                if (delta > 0) {
+                    String current = String.format(RATE_KEY, key, epochSecond);
+                    stringConnection.incrBy(current, delta);
+                    stringConnection.expire(current, windowSeconds + 1L);
+                }
+
+                String[] window = new String[windowSeconds];
+                for (int i = 0; i < windowSeconds; i++) {
+                    window[i] = String.format(RATE_KEY, key, epochSecond - i);
+                }
+                stringConnection.mGet(window);
+            }
+            return null;
+        });
+
+        Map<String, Long> counts = new HashMap<>();
+        int index = 0;
+        for (String key : keys) {
+            //key 마다 INCRBY, EXPIRE(더한 경우만), MGET 순서로 결과가 있다
+            index += deltas.get(key) > 0 ? 2 : 0;
+            @SuppressWarnings("unchecked")
+            List<String> values = (List<String>) results.get(index++);
+            long sum = 0;
+            if (values != null) {
+                for (String value : values) {
+                    sum += value == null ? 0 : Long.parseLong(value);
+                }
+            }
+            counts.put(key, sum);
+        }
+        return counts;
+    }
+}
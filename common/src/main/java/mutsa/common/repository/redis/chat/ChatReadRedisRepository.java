@@ -0,0 +1,103 @@
+package mutsa.common.repository.redis.chat;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 유저별 채팅방 읽음 정보
+ * <ul>
+ *     <li>chat:unread:{username} (hash) : roomApiId -> 읽지 않은 메세지 수</li>
+ *     <li>chat:read:{username} (hash) : roomApiId -> 마지막으로 읽은 메세지 시각(epoch millis)</li>
+ * </ul>
+ * 메세지 저장 시의 갱신은 ChatRedisRepository.saveAndPublishAll 의 파이프라인에서 함께 처리한다.
+ * 읽음 처리는 MARK_READ_SCRIPT 로 읽은 위치 이후의 메세지 수를 다시 세므로, 동시에 저장된 메세지가 있어도 수가 어긋나지 않는다.
+ */
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+public class ChatReadRedisRepository {
+    public static final String UNREAD_KEY = "chat:unread:%s";
+    public static final String READ_KEY = "chat:read:%s";
+
+    /**
+     * KEYS : 읽음 위치, 읽지 않은 수, 방
+     * ARGV : 방 id, 읽음 위치(epoch millis), 읽음 위치의 score
+     * 저장된 위치보다 이전(또는 같은) 위치면 무시하고 -1, 아니면 위치를 저장하고 그 이후의 메세지 수를 읽지 않은 수로 저장하여 반환한다.
+     */
+    private static final RedisScript<Long> MARK_READ_SCRIPT = RedisScript.of("""
+            local stored = redis.call('HGET', KEYS[1], ARGV[1])
+            if stored and tonumber(stored) >= tonumber(ARGV[2]) then
+              return -1
+            end
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            local unread = redis.call('ZCOUNT', KEYS[3], '(' .. ARGV[3], '+inf')
+            if unread > 0 then
+              redis.call('HSET', KEYS[2], ARGV[1], unread)
+            else
+              redis.call('HDEL', KEYS[2], ARGV[1])
+            end
+            return unread
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * @param username
+     * @param roomIds
+     * @return 방 id -> 읽지 않은 메세지 수 (한번의 HMGET 으로 조회한다)
+     */
+    public Map<String, Long> getUnreadCounts(String username, List<String> roomIds) {
+        if (roomIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Object> values = redisTemplate.opsForHash()
+                .multiGet(String.format(UNREAD_KEY, username), new ArrayList<>(roomIds));
+
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < roomIds.size(); i++) {
+            Object value = values.get(i);
+            counts.put(roomIds.get(i), value == null ? 0L : Long.parseLong((String) value));
+        }
+        return counts;
+    }
+
+    /**
+     * @return 마지막으로 읽은 메세지 시각(epoch millis), 읽은 적이 없으면 null
+     */
+    public Long getReadCursor(String username, String roomId) {
+        Object value = redisTemplate.opsForHash().get(String.format(READ_KEY, username), roomId);
+        return value == null ? null : Long.parseLong((String) value);
+    }
+
+    /**
+     * 읽은 위치를 저장하고 그 이후에 저장된 메세지 수로 읽지 않은 메세지 수를 다시 계산한다.
+     * 늦게 도착한 요청 등으로 이미 저장된 위치보다 이전의 위치가 오면 무시한다.
+     *
+     * @param username
+     * @param roomId
+     * @param cursor   마지막으로 읽은 메세지 시각(epoch millis)
+     * @return 남은 읽지 않은 메세지 수, 무시된 경우 -1
+     */
+    public long markRead(String username, String roomId, long cursor) {
+        //score 는 ChatRedisRepository 와 같이 초 단위(millis / 1000.0)
+        Long unread = redisTemplate.execute(MARK_READ_SCRIPT,
+                List.of(String.format(READ_KEY, username), String.format(UNREAD_KEY, username), String.format(ChatRedisRepository.ROOM_KEY, roomId)),
+                roomId, Long.toString(cursor), Double.toString(cursor / 1000.0));
+        log.debug(String.format("chatReadRedisRepository: %s read room %s until %s (unread: %s)", username, roomId, cursor, unread));
+        return unread == null ? -1 : unread;
+    }
+
+    public static byte[] key(String format, String username) {
+        return String.format(format, username).getBytes(StandardCharsets.UTF_8);
+    }
+}
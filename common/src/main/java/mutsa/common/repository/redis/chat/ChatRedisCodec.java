@@ -0,0 +1,110 @@
+package mutsa.common.repository.redis.chat;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import mutsa.common.adapter.LocalDateTimeAdapter;
+import mutsa.common.domain.models.chat.ChatRedis;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+/**
+ * room:%s 에 저장되는 채팅의 바이너리 포맷
+ * <pre>
+ * [version:1byte][id:16byte(UUID)][username 길이:varint][username:utf8][content 길이:varint][content:utf8]
+ * </pre>
+ * 방 id 는 키에서, 생성 시간은 score 에서 가져오므로 저장하지 않는다.
+ * 이전에 json(gson)으로 저장된 채팅도 그대로 읽을 수 있다.
+ */
+public final class ChatRedisCodec {
+    private static final byte VERSION_1 = 1;
+    private static final byte LEGACY_JSON = '{';
+    private static final Gson LEGACY_GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .create();
+
+    private ChatRedisCodec() {
+    }
+
+    public static byte[] encode(ChatRedis chat) {
+        byte[] username = chat.getUsername().getBytes(StandardCharsets.UTF_8);
+        byte[] content = chat.getContent() == null ? new byte[0] : chat.getContent().getBytes(StandardCharsets.UTF_8);
+        UUID id = UUID.fromString(chat.getId());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + 16 + 10 + username.length + content.length);
+        out.write(VERSION_1);
+        writeLong(out, id.getMostSignificantBits());
+        writeLong(out, id.getLeastSignificantBits());
+        writeVarint(out, username.length);
+        out.write(username, 0, username.length);
+        writeVarint(out, content.length);
+        out.write(content, 0, content.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * @param value     레디스에 저장된 값
+     * @param roomId    키에 포함된 방 id
+     * @param createdAt score 에서 변환한 생성 시간(epoch millis)
+     */
+    public static ChatRedis decode(byte[] value, String roomId, long createdAt) {
+        if (value[0] == LEGACY_JSON) {
+            return LEGACY_GSON.fromJson(new String(value, StandardCharsets.UTF_8), ChatRedis.class);
+        }
+        if (value[0] != VERSION_1) {
+            throw new IllegalArgumentException("unknown chat encoding version: " + value[0]);
+        }
+
+        int[] position = {1};
+        UUID id = new UUID(readLong(value, position), readLong(value, position));
+        String username = readString(value, position);
+        String content = readString(value, position);
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAt), ZoneId.systemDefault());
+        return ChatRedis.of(id.toString(), roomId, username, content, time);
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static long readLong(byte[] value, int[] position) {
+        long result = 0;
+        for (int i = 0; i < 8; i++) {
+            result = (result << 8) | (value[position[0]++] & 0xFF);
+        }
+        return result;
+    }
+
+    private static int readVarint(byte[] value, int[] position) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = value[position[0]++];
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    private static String readString(byte[] value, int[] position) {
+        int length = readVarint(value, position);
+        String result = new String(value, position[0], length, StandardCharsets.UTF_8);
+        position[0] += length;
+        return result;
+    }
+}
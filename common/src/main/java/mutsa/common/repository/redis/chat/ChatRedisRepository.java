@@ -1,52 +1,361 @@
 package mutsa.common.repository.redis.chat;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import mutsa.common.adapter.LocalDateTimeAdapter;
 import mutsa.common.domain.models.chat.ChatRedis;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Repository;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Repository
 @Slf4j
 @RequiredArgsConstructor
 public class ChatRedisRepository {
-    private final StringRedisTemplate chatRedisTemplate;
+    private final RedisTemplate<String, byte[]> chatRedisTemplate;
     public static final String ROOM_KEY = "room:%s";
+    public static final String DEDUP_KEY = "chat:dedup:%s:%s:%s";
+    //chat_message 테이블로 보관된 채팅이 있는 방 id
+    public static final String ARCHIVED_ROOMS_KEY = "chat:archived-rooms";
 
     /**
+     * KEYS : 방, 중복 확인 키(없으면 빈 값), 보낸 사람의 읽음 위치, 보낸 사람의 읽지 않은 수, 내보내기 스트림(없으면 빈 값),
+     * 받는 사람들의 읽지 않은 수...
+     * ARGV : score, 메세지, 방 id, 읽음 위치(epoch millis), 중복 확인 키 유지 시간(ms), 발행 채널(없으면 빈 값), 발행 내용,
+     * 내보내기 스트림 최대 길이
+     * 중복 확인 키가 이미 있으면 아무것도 하지 않고 0, 저장했으면 1 을 반환한다.
+     * 내보내기 스트림은 ZADD 와 같은 스크립트에서 추가하므로, 저장된 채팅은 서버가 중간에 종료되어도 스트림에 남는다.
+     */
+    private static final RedisScript<Long> SAVE_SCRIPT = RedisScript.of("""
+            if KEYS[2] ~= '' and not redis.call('SET', KEYS[2], '1', 'NX', 'PX', ARGV[5]) then
+              return 0
+            end
+            redis.call('ZADD', KEYS[1], ARGV[1], ARGV[2])
+            if KEYS[5] ~= '' then
+              redis.call('XADD', KEYS[5], 'MAXLEN', '~', ARGV[8], '*', 'r', ARGV[3], 's', ARGV[1], 'm', ARGV[2])
+            end
+            for i = 6, #KEYS do
+              redis.call('HINCRBY', KEYS[i], ARGV[3], 1)
+            end
+            redis.call('HSET', KEYS[3], ARGV[3], ARGV[4])
+            redis.call('HDEL', KEYS[4], ARGV[3])
+            if ARGV[6] ~= '' then
+              redis.call('PUBLISH', ARGV[6], ARGV[7])
+            end
+            return 1
+            """, Long.class);
+
+    private volatile boolean scriptLoaded;
+
+    /**
+     * score(생성 시간)를 커서로 사용하여 before 이전의 메세지를 최신순으로 limit 개 조회한다.(ZREVRANGEBYSCORE)
+     *
+     * @param roomId
+     * @param before 조회 기준 시각(epoch millis, 해당 시각은 포함하지 않는다). null 이면 가장 최신 메세지부터 조회
+     * @param limit
+     * @return 최신순 메세지 목록
+     */
+    public List<ChatRedis> getMessagesBefore(String roomId, Long before, int limit) {
+        return getMessagesBefore(roomId, before, null, limit);
+    }
+
+    /**
+     * (생성 시간, 채팅 id) 를 커서로 사용하여 커서 이전의 메세지를 최신순으로 limit 개 조회한다.
+     * 같은 시각의 메세지는 채팅 id 의 역순으로 정렬된다.(값이 [version][id] 로 시작하므로 ZSET 의 같은 score 내 정렬과 같다)
+     * 같은 밀리초에 저장된 메세지가 페이지 경계에 걸쳐도 누락되지 않도록, before 시각의 메세지를 포함하여 조회한 뒤
+     * 채팅 id 가 beforeId 보다 작은 것만 남긴다.
      *
      * @param roomId
-     * @param offset
-     * @param size
-     * @return 입장시에 이전 메세지를 출력해주는 메서드
+     * @param before   이전 페이지 마지막 메세지의 시각(epoch millis). null 이면 가장 최신 메세지부터 조회
+     * @param beforeId 이전 페이지 마지막 메세지의 id. null 이면 before 시각의 메세지는 포함하지 않는다
+     * @param limit
+     * @return 최신순 메세지 목록
      */
-    public Set<String> getMessages(String roomId, int offset, int size) {
+    public List<ChatRedis> getMessagesBefore(String roomId, Long before, String beforeId, int limit) {
         String roomNameKey = String.format(ROOM_KEY, roomId);
-        Set<String> messages = chatRedisTemplate.opsForZSet().reverseRange(roomNameKey, offset, offset + size);
-        log.info(String.format("chatRedisRepository: received messages by roomId:%s, offset:%s, size:%s ", roomId, offset, size));
+        ZSetOperations<String, byte[]> zSet = chatRedisTemplate.opsForZSet();
+        Set<ZSetOperations.TypedTuple<byte[]>> values;
+        if (before == null) {
+            values = zSet.reverseRangeWithScores(roomNameKey, 0, limit - 1);
+        } else {
+            double score = getMillisToScore(before);
+            //커서와 같은 시각의 메세지는 걸러질 수 있으므로 그만큼 더 조회한다
+            Long ties = beforeId == null ? null : zSet.count(roomNameKey, score, score);
+            double max = beforeId == null ? Math.nextDown(score) : score;
+            values = zSet.reverseRangeByScoreWithScores(roomNameKey, Double.NEGATIVE_INFINITY, max, 0,
+                    limit + (ties == null ? 0 : ties));
+        }
+        log.info(String.format("chatRedisRepository: received messages by roomId:%s, before:%s, beforeId:%s, limit:%s ", roomId, before, beforeId, limit));
+
+        List<ChatRedis> messages = new ArrayList<>(Math.min(limit, values == null ? 0 : values.size()));
+        if (values != null) {
+            for (ZSetOperations.TypedTuple<byte[]> value : values) {
+                ChatRedis message = decode(roomId, value);
+                if (isBeforeCursor(message, before, beforeId)) {
+                    messages.add(message);
+                    if (messages.size() == limit) {
+                        break;
+                    }
+                }
+            }
+        }
         return messages;
     }
 
-    public void saveMessage(ChatRedis message) {
-        Gson gson = new GsonBuilder()
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter()) //time저장시에 오류로 추가하였는데 삭제 가능여부 확인 필요
-                .create();
+    private boolean isBeforeCursor(ChatRedis message, Long before, String beforeId) {
+        if (beforeId == null) {
+            return true;
+        }
+        long millis = message.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return millis < before || message.getId().compareTo(beforeId) < 0;
+    }
+
+    /**
+     * 여러 방의 가장 최신 메세지를 하나의 파이프라인(ZREVRANGE 0 0)으로 조회한다.
+     *
+     * @param roomIds
+     * @return 방 id -> 최신 메세지 (레디스에 메세지가 없는 방은 포함하지 않는다)
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, ChatRedis> getLatestMessages(List<String> roomIds) {
+        if (roomIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Object> results = chatRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String roomId : roomIds) {
+                byte[] roomKey = String.format(ROOM_KEY, roomId).getBytes(StandardCharsets.UTF_8);
+                connection.zSetCommands().zRevRangeWithScores(roomKey, 0, 0);
+            }
+            return null;
+        });
+
+        Map<String, ChatRedis> latest = new HashMap<>();
+        for (int i = 0; i < roomIds.size(); i++) {
+            Set<ZSetOperations.TypedTuple<byte[]>> values = (Set<ZSetOperations.TypedTuple<byte[]>>) results.get(i);
+            if (values != null && !values.isEmpty()) {
+                latest.put(roomIds.get(i), decode(roomIds.get(i), values.iterator().next()));
+            }
+        }
+        return latest;
+    }
 
+    public void saveMessage(ChatRedis message) {
         String roomKey = String.format(ROOM_KEY, message.getChatroomId());
-        String saveMessage = gson.toJson(message);//(레디스에 toString으로 저장한다)
         //시간을 더블형으로 변환하여 저장(score 에 해당하여 해당 컬럼 기준으로 정렬하여 조회할 수 있음)
-        chatRedisTemplate.opsForZSet().add(roomKey, saveMessage, getTimeToDouble(message.getCreatedAt()));
+        chatRedisTemplate.opsForZSet().add(roomKey, ChatRedisCodec.encode(message), getTimeToDouble(message.getCreatedAt()));
+    }
+
+    /**
+     * 여러 채팅의 저장(ZADD), 읽음 정보 갱신, 발행(PUBLISH)을 하나의 파이프라인으로 처리한다.(채널이 없으면 발행하지 않는다)
+     * 채팅마다 SAVE_SCRIPT 를 실행하므로 저장이 발행보다 먼저 처리되어, 구독자가 메세지를 받은 뒤 조회하면 항상 저장된 상태이다.
+     * 받는 사람의 읽지 않은 수는 HINCRBY 로 증가시키므로 동시에 여러 메세지가 저장되어도 누락되지 않고,
+     * 보낸 사람은 해당 메세지까지 읽은 것으로 처리한다.
+     * dedupKey 가 있는 채팅은 같은 키가 dedupTtlMillis 안에 이미 저장되었다면 저장/발행하지 않는다.(클라이언트 재전송)
+     * exportMaxLength 가 0 보다 크면 저장된 채팅을 내보내기 스트림(ChatExportRedisRepository)에도 추가한다.
+     *
+     * @param messages
+     * @param dedupTtlMillis  중복 확인 키의 유지 시간
+     * @param exportMaxLength 내보내기 스트림의 최대 길이(근사값), 0 이면 추가하지 않는다
+     * @return 채팅마다 저장 여부(중복이면 false)
+     */
+    public List<Boolean> saveAndPublishAll(List<PendingChatMessage> messages, long dedupTtlMillis, long exportMaxLength) {
+        List<Object> results;
+        try {
+            results = executeSaveScript(messages, dedupTtlMillis, exportMaxLength);
+        } catch (DataAccessException e) {
+            if (!isNoScriptError(e)) {
+                throw e;
+            }
+            //레디스 재시작 등으로 스크립트가 사라진 경우, 스크립트가 없어 아무것도 반영되지 않았으므로 다시 등록하고 재시도한다
+            log.info("chatRedisRepository: reloading save script");
+            scriptLoaded = false;
+            results = executeSaveScript(messages, dedupTtlMillis, exportMaxLength);
+        }
+        log.debug(String.format("chatRedisRepository: pipelined %s messages", messages.size()));
+
+        List<Boolean> saved = new ArrayList<>(results.size());
+        results.forEach(result -> saved.add(Long.valueOf(1L).equals(result)));
+        return saved;
+    }
+
+    private List<Object> executeSaveScript(List<PendingChatMessage> messages, long dedupTtlMillis, long exportMaxLength) {
+        if (!scriptLoaded) {
+            chatRedisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.scriptingCommands().scriptLoad(SAVE_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8)));
+            scriptLoaded = true;
+        }
+        byte[] ttl = Long.toString(dedupTtlMillis).getBytes(StandardCharsets.UTF_8);
+        byte[] empty = new byte[0];
+        byte[] exportKey = exportMaxLength > 0 ? ChatExportRedisRepository.EXPORT_KEY.getBytes(StandardCharsets.UTF_8) : empty;
+        byte[] exportLength = Long.toString(exportMaxLength).getBytes(StandardCharsets.UTF_8);
+        return chatRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (PendingChatMessage pending : messages) {
+                ChatRedis message = pending.getMessage();
+                double score = getTimeToDouble(message.getCreatedAt());
+                List<String> recipients = pending.getRecipients();
+
+                byte[][] keysAndArgs = new byte[5 + recipients.size() + 8][];
+                int i = 0;
+                keysAndArgs[i++] = String.format(ROOM_KEY, message.getChatroomId()).getBytes(StandardCharsets.UTF_8);
+                keysAndArgs[i++] = pending.getDedupKey() == null ? empty : pending.getDedupKey().getBytes(StandardCharsets.UTF_8);
+                keysAndArgs[i++] = ChatReadRedisRepository.key(ChatReadRedisRepository.READ_KEY, message.getUsername());
+                keysAndArgs[i++] = ChatReadRedisRepository.key(ChatReadRedisRepository.UNREAD_KEY, message.getUsername());
+                keysAndArgs[i++] = exportKey;
+                for (String recipient : recipients) {
+                    keysAndArgs[i++] = ChatReadRedisRepository.key(ChatReadRedisRepository.UNREAD_KEY, recipient);
+                }
+                keysAndArgs[i++] = Double.toString(score).getBytes(StandardCharsets.UTF_8);
+                keysAndArgs[i++] = ChatRedisCodec.encode(message);
+                keysAndArgs[i++] = message.getChatroomId().getBytes(StandardCharsets.UTF_8);
+                keysAndArgs[i++] = Long.toString(getScoreToMillis(score)).getBytes(StandardCharsets.UTF_8);
+                keysAndArgs[i++] = ttl;
+                keysAndArgs[i++] = pending.getChannel() == null ? empty : pending.getChannel().getBytes(StandardCharsets.UTF_8);
+                keysAndArgs[i++] = pending.getChannel() == null ? empty : pending.getPayload().getBytes(StandardCharsets.UTF_8);
+                keysAndArgs[i] = exportLength;
+
+                connection.scriptingCommands().evalSha(SAVE_SCRIPT.getSha1(), ReturnType.INTEGER, 5 + recipients.size(), keysAndArgs);
+            }
+            return null;
+        });
+    }
+
+    private static boolean isNoScriptError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 클라이언트가 보낸 메세지 id 로 만든 중복 확인 키(보낸 사람마다 구분한다)
+     */
+    public static String dedupKey(String roomId, String username, String clientMessageId) {
+        return String.format(DEDUP_KEY, roomId, username, clientMessageId);
+    }
+
+    /**
+     * @param roomId
+     * @param maxMessages 레디스에 남겨둘 최대 메세지 수
+     * @param cutoffScore 이 score 보다 오래된 메세지는 보관 대상
+     * @return 보관(archive) 대상인 오래된 메세지 수
+     */
+    public long countExpiredMessages(String roomId, int maxMessages, double cutoffScore) {
+        String roomNameKey = String.format(ROOM_KEY, roomId);
+        Long size = chatRedisTemplate.opsForZSet().zCard(roomNameKey);
+        Long expired = chatRedisTemplate.opsForZSet().count(roomNameKey, Double.NEGATIVE_INFINITY, Math.nextDown(cutoffScore));
+        long overflow = size == null ? 0 : size - maxMessages;
+        return Math.max(Math.max(overflow, 0), expired == null ? 0 : expired);
+    }
+
+    /**
+     * @return 저장된 값 그대로의 오래된 메세지(제거 시 removeMessages 에 그대로 전달한다)
+     */
+    public Set<ZSetOperations.TypedTuple<byte[]>> getOldestMessages(String roomId, int count) {
+        String roomNameKey = String.format(ROOM_KEY, roomId);
+        return chatRedisTemplate.opsForZSet().rangeWithScores(roomNameKey, 0, count - 1);
+    }
+
+    public void removeMessages(String roomId, Collection<byte[]> messages) {
+        String roomNameKey = String.format(ROOM_KEY, roomId);
+        chatRedisTemplate.opsForZSet().remove(roomNameKey, messages.toArray());
+    }
+
+    /**
+     * 방의 채팅을 chat_message 테이블로 보관했음을 기록한다.(보관된 적 없는 방은 조회 시 테이블을 확인하지 않는다)
+     */
+    public void markArchived(Collection<String> roomIds) {
+        if (roomIds.isEmpty()) {
+            return;
+        }
+        chatRedisTemplate.opsForSet().add(ARCHIVED_ROOMS_KEY, roomIds.stream()
+                .map(roomId -> roomId.getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new));
+    }
+
+    public boolean isArchived(String roomId) {
+        return Boolean.TRUE.equals(chatRedisTemplate.opsForSet().isMember(ARCHIVED_ROOMS_KEY, roomId.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @return roomIds 중 chat_message 테이블로 보관된 적 있는 방의 id
+     */
+    public List<String> getArchivedRoomIds(List<String> roomIds) {
+        if (roomIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        byte[] key = ARCHIVED_ROOMS_KEY.getBytes(StandardCharsets.UTF_8);
+        List<Object> results = chatRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String roomId : roomIds) {
+                connection.setCommands().sIsMember(key, roomId.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+        List<String> archived = new ArrayList<>();
+        for (int i = 0; i < roomIds.size(); i++) {
+            if (Boolean.TRUE.equals(results.get(i))) {
+                archived.add(roomIds.get(i));
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * @return 보관 기록이 없으면 false (처음 배포되었거나 레디스가 초기화된 경우 테이블에서 다시 채운다)
+     */
+    public boolean hasArchivedRooms() {
+        return Boolean.TRUE.equals(chatRedisTemplate.hasKey(ARCHIVED_ROOMS_KEY));
+    }
+
+    /**
+     * @return 채팅이 저장된 모든 방의 id (SCAN 으로 조회하므로 레디스를 블로킹하지 않는다)
+     */
+    public List<String> getRoomIds() {
+        List<String> roomIds = new ArrayList<>();
+        String prefix = String.format(ROOM_KEY, "");
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(String.format(ROOM_KEY, "*"))
+                .type(DataType.ZSET)
+                .count(1000)
+                .build();
+        try (Cursor<String> cursor = chatRedisTemplate.scan(options)) {
+            cursor.forEachRemaining(key -> roomIds.add(key.substring(prefix.length())));
+        }
+        return roomIds;
+    }
+
+    public ChatRedis decode(String roomId, ZSetOperations.TypedTuple<byte[]> value) {
+        return ChatRedisCodec.decode(value.getValue(), roomId, getScoreToMillis(value.getScore()));
     }
 
     public double getTimeToDouble(LocalDateTime createdAt) {
         long milliseconds = createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(); // LocalDateTime을 밀리초 단위로 변환
+        return getMillisToScore(milliseconds);
+    }
+
+    public double getMillisToScore(long milliseconds) {
         return (double) milliseconds / 1000.0; // 밀리초를 초 단위로 변환
     }
+
+    public long getScoreToMillis(double score) {
+        return Math.round(score * 1000.0);
+    }
 }
@@ -0,0 +1,217 @@
+package mutsa.common.repository.redis.chat;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mutsa.common.domain.models.chat.ChatRedis;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 채팅 검색용 역색인
+ * <pre>
+ * chat:index:{roomId}:{token} (ZSET) member: 채팅 id, score: room:%s 와 같은 생성 시간
+ * </pre>
+ * 본문은 색인에 저장하지 않고, 검색된 채팅은 room:%s 에서 읽는다.
+ * 색인은 레디스에 남아있는 채팅만 담으며, 보관(ChatRetentionService)으로 room:%s 에서 제거되는 채팅은 색인에서도 제거한다.
+ * 보관된 채팅은 보관할 때 같은 토큰을 chat_message_token 테이블에 저장하여 검색한다.(ChatMessageRepository.searchArchived)
+ */
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+public class ChatSearchRedisRepository {
+    public static final String INDEX_KEY = "chat:index:%s:%s";
+
+    private final RedisTemplate<String, byte[]> chatRedisTemplate;
+
+    /**
+     * 채팅의 토큰마다 색인에 추가한다.(ZADD 이므로 같은 채팅을 다시 색인해도 중복되지 않는다)
+     *
+     * @param messages
+     */
+    public void index(Collection<ChatRedis> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        chatRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (ChatRedis message : messages) {
+                double score = toScore(message);
+                byte[] id = message.getId().getBytes(StandardCharsets.UTF_8);
+                for (String token : ChatSearchTokenizer.tokenize(message.getContent())) {
+                    connection.zSetCommands().zAdd(key(message.getChatroomId(), token), score, id);
+                }
+            }
+            return null;
+        });
+        log.debug(String.format("chatSearchRedisRepository: indexed %s messages", messages.size()));
+    }
+
+    /**
+     * 채팅의 토큰마다 색인에서 제거한다.(ZREM, 비게 된 색인 키는 레디스가 지운다)
+     *
+     * @param messages
+     */
+    public void remove(Collection<ChatRedis> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        chatRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (ChatRedis message : messages) {
+                byte[] id = message.getId().getBytes(StandardCharsets.UTF_8);
+                for (String token : ChatSearchTokenizer.tokenize(message.getContent())) {
+                    connection.zSetCommands().zRem(key(message.getChatroomId(), token), id);
+                }
+            }
+            return null;
+        });
+        log.debug(String.format("chatSearchRedisRepository: removed %s messages from index", messages.size()));
+    }
+
+    /**
+     * 방마다 색인 크기(ZCARD)가 가장 작은 토큰을 고른다. 하나라도 색인에 없는 토큰이 있는 방은 결과가 없으므로 제외한다.
+     *
+     * @param roomIds
+     * @param tokens
+     * @return 방 id -> 후보 조회에 사용할 토큰
+     */
+    public Map<String, String> getRarestTokens(List<String> roomIds, List<String> tokens) {
+        if (roomIds.isEmpty() || tokens.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Object> results = chatRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String roomId : roomIds) {
+                for (String token : tokens) {
+                    connection.zSetCommands().zCard(key(roomId, token));
+                }
+            }
+            return null;
+        });
+
+        Map<String, String> rarest = new HashMap<>();
+        for (int i = 0; i < roomIds.size(); i++) {
+            String token = null;
+            long min = Long.MAX_VALUE;
+            for (int j = 0; j < tokens.size(); j++) {
+                Long count = (Long) results.get(i * tokens.size() + j);
+                if (count == null || count == 0) {
+                    token = null;
+                    break;
+                }
+                if (count < min) {
+                    min = count;
+                    token = tokens.get(j);
+                }
+            }
+            if (token != null) {
+                rarest.put(roomIds.get(i), token);
+            }
+        }
+        return rarest;
+    }
+
+    /**
+     * 방마다 토큰 색인에서 before 이전의 채팅을 최신순으로 limit 개 조회한다.(ZREVRANGEBYSCORE)
+     *
+     * @param roomTokens 방 id -> 토큰
+     * @param before     조회 기준 score(포함하지 않는다), null 이면 가장 최신부터
+     * @param limit
+     * @return 방 id -> 최신순 후보
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, List<Hit>> getCandidates(Map<String, String> roomTokens, Double before, int limit) {
+        if (roomTokens.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> roomIds = new ArrayList<>(roomTokens.keySet());
+        double max = before == null ? Double.POSITIVE_INFINITY : Math.nextDown(before);
+        List<Object> results = chatRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String roomId : roomIds) {
+                connection.zSetCommands().zRevRangeByScoreWithScores(key(roomId, roomTokens.get(roomId)),
+                        Double.NEGATIVE_INFINITY, max, 0, limit);
+            }
+            return null;
+        });
+
+        Map<String, List<Hit>> candidates = new HashMap<>();
+        for (int i = 0; i < roomIds.size(); i++) {
+            Set<ZSetOperations.TypedTuple<byte[]>> values = (Set<ZSetOperations.TypedTuple<byte[]>>) results.get(i);
+            List<Hit> hits = new ArrayList<>(values == null ? 0 : values.size());
+            if (values != null) {
+                for (ZSetOperations.TypedTuple<byte[]> value : values) {
+                    hits.add(new Hit(roomIds.get(i), new String(value.getValue(), StandardCharsets.UTF_8), value.getScore()));
+                }
+            }
+            candidates.put(roomIds.get(i), hits);
+        }
+        return candidates;
+    }
+
+    /**
+     * 후보의 본문을 room:%s 에서 score 로 조회한다.(ZRANGEBYSCORE score score)
+     *
+     * @param hits
+     * @return 채팅 id -> 채팅 (후보 조회 이후 보관되어 레디스에 없는 채팅은 포함하지 않는다)
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, ChatRedis> getMessages(List<Hit> hits) {
+        if (hits.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Object> results = chatRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Hit hit : hits) {
+                byte[] roomKey = String.format(ChatRedisRepository.ROOM_KEY, hit.roomId()).getBytes(StandardCharsets.UTF_8);
+                connection.zSetCommands().zRangeByScoreWithScores(roomKey, hit.score(), hit.score());
+            }
+            return null;
+        });
+
+        Map<String, ChatRedis> messages = new HashMap<>();
+        for (int i = 0; i < hits.size(); i++) {
+            Hit hit = hits.get(i);
+            Set<ZSetOperations.TypedTuple<byte[]>> values = (Set<ZSetOperations.TypedTuple<byte[]>>) results.get(i);
+            if (values == null) {
+                continue;
+            }
+            //같은 시각(ms)의 채팅이 여러 개일 수 있으므로 id 로 찾는다
+            for (ZSetOperations.TypedTuple<byte[]> value : values) {
+                ChatRedis message = ChatRedisCodec.decode(value.getValue(), hit.roomId(), Math.round(value.getScore() * 1000.0));
+                if (message.getId().equals(hit.messageId())) {
+                    messages.put(hit.messageId(), message);
+                    break;
+                }
+            }
+        }
+        return messages;
+    }
+
+    private static byte[] key(String roomId, String token) {
+        return String.format(INDEX_KEY, roomId, token).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static double toScore(ChatRedis message) {
+        //ChatRedisRepository.getTimeToDouble 과 같은 값이어야 room:%s 에서 score 로 찾을 수 있다
+        return (double) message.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / 1000.0;
+    }
+
+    /**
+     * @param roomId
+     * @param messageId
+     * @param score     생성 시간(room:%s 의 score)
+     */
+    public record Hit(String roomId, String messageId, double score) {
+        public long timestamp() {
+            return Math.round(score * 1000.0);
+        }
+    }
+}
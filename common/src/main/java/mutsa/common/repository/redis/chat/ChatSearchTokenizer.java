@@ -0,0 +1,78 @@
+package mutsa.common.repository.redis.chat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 채팅 검색 색인(chat:index:%s:%s)에 사용하는 토큰을 만든다.
+ * 형태소 분석 없이 한글도 부분 검색이 되도록, 단어(문자/숫자 연속)가 2글자 이하이면 그대로, 그보다 길면 2-gram 으로 나눈다.
+ * 2-gram 은 후보만 좁히므로 검색 결과는 words 로 본문을 다시 확인한다.
+ */
+public final class ChatSearchTokenizer {
+    private static final int GRAM = 2;
+
+    private ChatSearchTokenizer() {
+    }
+
+    /**
+     * @return 소문자로 바꾼 단어 목록(검색어 확인용)
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * @return 색인/검색 토큰(중복 제거)
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String word : words(text)) {
+            if (word.length() <= GRAM) {
+                tokens.add(word);
+                continue;
+            }
+            for (int i = 0; i + GRAM <= word.length(); i++) {
+                tokens.add(word.substring(i, i + GRAM));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @return 검색어의 모든 단어가 본문에 포함되어 있으면 true
+     */
+    public static boolean matches(String content, List<String> words) {
+        if (content == null) {
+            return false;
+        }
+        String normalized = normalize(content);
+        for (String word : words) {
+            if (!normalized.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
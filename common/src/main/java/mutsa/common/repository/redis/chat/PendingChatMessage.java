@@ -0,0 +1,20 @@
+package mutsa.common.repository.redis.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import mutsa.common.domain.models.chat.ChatRedis;
+
+import java.util.List;
+
+/**
+ * 파이프라인으로 함께 처리할 채팅 저장(ZADD) + 읽음 정보 갱신 + 발행(PUBLISH) 한 건
+ */
+@Getter
+@AllArgsConstructor
+public class PendingChatMessage {
+    private final ChatRedis message;
+    private final List<String> recipients; //읽지 않은 메세지 수를 증가시킬 유저(보낸 사람 제외)
+    private final String channel; //null 이면 발행하지 않는다
+    private final String payload;
+    private final String dedupKey; //null 이 아니면 같은 키로 이미 저장된 채팅은 저장/발행하지 않는다
+}
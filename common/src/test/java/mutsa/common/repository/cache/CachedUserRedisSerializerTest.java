@@ -0,0 +1,58 @@
+package mutsa.common.repository.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedUserRedisSerializerTest {
+    private final CachedUserRedisSerializer serializer = new CachedUserRedisSerializer();
+
+    @Test
+    @DisplayName("바이너리로 저장한 유저는 모든 필드가 그대로 복원된다")
+    void serializeAndDeserialize() {
+        //given
+        CachedUser user = new CachedUser(1L, UUID.randomUUID().toString(), "user1", "닉네임", null,
+                List.of("ROLE_ADMIN", "ROLE_USER"), System.currentTimeMillis());
+
+        //when
+        byte[] bytes = serializer.serialize(user);
+        CachedUser deserialized = serializer.deserialize(bytes);
+
+        //then
+        assertThat(deserialized).isEqualTo(user);
+        assertThat(deserialized.imageUrl()).isNull();
+    }
+
+    @Test
+    @DisplayName("version 이 없는 이전 포맷(1)은 version 0 으로 읽는다")
+    void version1() {
+        //given
+        CachedUser user = new CachedUser(1L, UUID.randomUUID().toString(), "user1", "닉네임", "image",
+                List.of("ROLE_USER"), 10L);
+        byte[] bytes = serializer.serialize(user);
+        byte[] version1 = Arrays.copyOf(bytes, bytes.length - Long.BYTES);
+        version1[0] = 1;
+
+        //when
+        CachedUser deserialized = serializer.deserialize(version1);
+
+        //then
+        assertThat(deserialized.username()).isEqualTo("user1");
+        assertThat(deserialized.imageUrl()).isEqualTo("image");
+        assertThat(deserialized.version()).isZero();
+    }
+
+    @Test
+    @DisplayName("이전에 json 으로 저장된 유저는 캐시에 없는 것으로 처리한다")
+    void legacyJson() {
+        byte[] legacy = "{\"username\":\"user1\",\"password\":\"...\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(serializer.deserialize(legacy)).isNull();
+    }
+}
@@ -0,0 +1,55 @@
+package mutsa.common.repository.redis.chat;
+
+import mutsa.common.domain.models.chat.ChatRedis;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatRedisCodecTest {
+    private static final String ROOM_ID = "room-api-id";
+
+    @Test
+    @DisplayName("바이너리로 저장한 채팅은 키의 방 id 와 score 의 시간으로 복원된다")
+    void encodeAndDecode() {
+        //given
+        long createdAt = 1_700_000_000_123L;
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAt), ZoneId.systemDefault());
+        String content = "안녕하세요 ".repeat(30);
+        ChatRedis chat = ChatRedis.of(UUID.randomUUID().toString(), ROOM_ID, "user1", content, time);
+
+        //when
+        byte[] encoded = ChatRedisCodec.encode(chat);
+        ChatRedis decoded = ChatRedisCodec.decode(encoded, ROOM_ID, createdAt);
+
+        //then
+        assertThat(encoded.length).isLessThan(content.getBytes(StandardCharsets.UTF_8).length + 40);
+        assertThat(decoded.getId()).isEqualTo(chat.getId());
+        assertThat(decoded.getUsername()).isEqualTo("user1");
+        assertThat(decoded.getContent()).isEqualTo(content);
+        assertThat(decoded.getChatroomId()).isEqualTo(ROOM_ID);
+        assertThat(decoded.getCreatedAt()).isEqualTo(time);
+    }
+
+    @Test
+    @DisplayName("이전에 json 으로 저장된 채팅도 읽을 수 있다")
+    void decodeLegacyJson() {
+        //given
+        String json = "{\"id\":\"a7f1c2de-4b0e-4c43-9a1e-2f0b6e1f9c11\",\"content\":\"hello\",\"username\":\"user1\"," +
+                "\"chatroomId\":\"room-api-id\",\"createdAt\":\"2023-09-01T12:30:00.123\"}";
+
+        //when
+        ChatRedis decoded = ChatRedisCodec.decode(json.getBytes(StandardCharsets.UTF_8), ROOM_ID, 0L);
+
+        //then
+        assertThat(decoded.getId()).isEqualTo("a7f1c2de-4b0e-4c43-9a1e-2f0b6e1f9c11");
+        assertThat(decoded.getContent()).isEqualTo("hello");
+        assertThat(decoded.getCreatedAt()).isEqualTo(LocalDateTime.of(2023, 9, 1, 12, 30, 0, 123_000_000));
+    }
+}
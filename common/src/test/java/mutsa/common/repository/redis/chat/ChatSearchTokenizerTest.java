@@ -0,0 +1,27 @@
+package mutsa.common.repository.redis.chat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatSearchTokenizerTest {
+
+    @Test
+    @DisplayName("2글자 이하의 단어는 그대로, 긴 단어는 2-gram 으로 나눈다")
+    void tokenize() {
+        assertThat(ChatSearchTokenizer.tokenize("오늘 저녁약속, OK!"))
+                .containsExactly("오늘", "저녁", "녁약", "약속", "ok");
+    }
+
+    @Test
+    @DisplayName("검색어의 모든 단어가 본문에 포함되어야 일치한다")
+    void matches() {
+        List<String> words = ChatSearchTokenizer.words("저녁 약속");
+
+        assertThat(ChatSearchTokenizer.matches("내일 저녁약속 어때요", words)).isTrue();
+        assertThat(ChatSearchTokenizer.matches("내일 저녁 어때요", words)).isFalse();
+    }
+}